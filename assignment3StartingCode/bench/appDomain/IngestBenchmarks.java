@@ -0,0 +1,82 @@
+package appDomain;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import benchmarks.Benchmark;
+import benchmarks.WordInputs;
+import implementations.ShardedBSTree;
+
+/**
+ * Benchmarks of the WordTracker pipeline: indexing a text file with
+ * {@link WordTracker#processFile(ShardedBSTree, String, int)}.
+ *
+ * <p>
+ * The text files are generated from random and Zipf-distributed words, ten
+ * words to a line, and the time is reported per word read.
+ * </p>
+ */
+public final class IngestBenchmarks {
+
+	private static final int[] SIZES = { 100_000, 1_000_000 };
+	private static final int WORDS_PER_LINE = 10;
+
+	private IngestBenchmarks() {
+	}
+
+	/**
+	 * Creates every pipeline benchmark.
+	 * 
+	 * @return The benchmarks.
+	 */
+	public static List<Benchmark> all() {
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int size : SIZES) {
+			benchmarks.add(new ProcessFile("WordTracker.processFile.random." + size, WordInputs.random(size)));
+			benchmarks.add(new ProcessFile("WordTracker.processFile.zipf." + size,
+					WordInputs.zipf(size, size / 10)));
+		}
+		return benchmarks;
+	}
+
+	/**
+	 * Indexes a generated text file into a new word index.
+	 */
+	private static final class ProcessFile extends Benchmark {
+		private final String[] words;
+		private File file;
+
+		ProcessFile(String name, String[] words) {
+			super(name, words.length);
+			this.words = words;
+		}
+
+		@Override
+		protected void setUp() throws IOException {
+			file = File.createTempFile("words", ".txt");
+			try (Writer out = new BufferedWriter(new FileWriter(file))) {
+				for (int i = 0; i < words.length; i++) {
+					out.write(words[i]);
+					out.write((i + 1) % WORDS_PER_LINE == 0 ? '\n' : ' ');
+				}
+			}
+		}
+
+		@Override
+		protected void tearDown() {
+			file.delete();
+		}
+
+		@Override
+		protected Object run() throws IOException {
+			ShardedBSTree<WordInfo> index = IngestTask.newIndex();
+			WordTracker.processFile(index, file.getPath(), 0);
+			return index.size();
+		}
+	}
+}
@@ -0,0 +1,241 @@
+package benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import implementations.ArenaBSTree;
+import implementations.BSTree;
+import implementations.BTree;
+import implementations.ElementCodec;
+import implementations.OffHeapBSTree;
+import serialization.Serialization;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Benchmarks of the BSTree operations: adding, searching, the three traversal
+ * orders, sequential and parallel streams and a serialization round trip.
+ * Adding and searching are also run on the array-backed ArenaBSTree, the
+ * off-heap OffHeapBSTree and the BTree, which has no plain mode and is run as
+ * a balanced tree.
+ *
+ * <p>
+ * Every benchmark is run on random, sorted and Zipf-distributed words at
+ * several sizes, for both the plain and the balanced tree. Sorted input into a
+ * plain tree builds a list with quadratic insertion time, so it is only run at
+ * the smaller sizes.
+ * </p>
+ */
+public final class BSTreeBenchmarks {
+
+	private static final int[] SIZES = { 1_000, 10_000, 100_000 };
+	private static final int DEGENERATE_LIMIT = 10_000;
+	private static final int ZIPF_VOCABULARY_DIVISOR = 10;
+
+	private BSTreeBenchmarks() {
+	}
+
+	/**
+	 * Creates every tree benchmark.
+	 * 
+	 * @return The benchmarks.
+	 */
+	public static List<Benchmark> all() {
+		List<Benchmark> benchmarks = new ArrayList<>();
+		for (int size : SIZES) {
+			for (boolean balanced : new boolean[] { false, true }) {
+				addCases(benchmarks, "random", WordInputs.random(size), balanced);
+				if (balanced || size <= DEGENERATE_LIMIT) {
+					addCases(benchmarks, "sorted", WordInputs.sorted(size), balanced);
+				}
+				addCases(benchmarks, "zipf", WordInputs.zipf(size, size / ZIPF_VOCABULARY_DIVISOR), balanced);
+			}
+		}
+		return benchmarks;
+	}
+
+	private static void addCases(List<Benchmark> benchmarks, String distribution, String[] words,
+			boolean balanced) {
+		String suffix = "." + distribution + "." + words.length + (balanced ? ".avl" : ".bst");
+		for (String tree : new String[] { "BSTree", "ArenaBSTree", "OffHeapBSTree", "BTree" }) {
+			if (tree.equals("BTree") && !balanced) {
+				continue;
+			}
+			benchmarks.add(new Add(tree + ".add" + suffix, words, balanced, tree));
+			benchmarks.add(new Search(tree + ".search" + suffix, words, balanced, tree, false));
+			benchmarks.add(new Search(tree + ".contains" + suffix, words, balanced, tree, true));
+		}
+		for (String order : new String[] { "inorder", "preorder", "postorder", "stream", "parallelStream" }) {
+			benchmarks.add(new Traverse("BSTree." + order + suffix, words, balanced, order));
+		}
+		benchmarks.add(new RoundTrip("Serialization.roundTrip" + suffix, words, balanced));
+	}
+
+	private static BSTree<String> build(String[] words, boolean balanced) {
+		return fill(new BSTree<>(balanced), words);
+	}
+
+	private static BSTreeADT<String> build(String[] words, boolean balanced, String implementation) {
+		switch (implementation) {
+		case "ArenaBSTree":
+			return fill(new ArenaBSTree<>(balanced), words);
+		case "OffHeapBSTree":
+			return fill(new OffHeapBSTree<>(ElementCodec.strings(), balanced), words);
+		case "BTree":
+			return fill(new BTree<>(), words);
+		default:
+			return build(words, balanced);
+		}
+	}
+
+	private static <T extends BSTreeADT<String>> T fill(T tree, String[] words) {
+		for (String word : words) {
+			tree.add(word);
+		}
+		return tree;
+	}
+
+	/**
+	 * Adds every word to a new tree.
+	 */
+	private static final class Add extends Benchmark {
+		private final String[] words;
+		private final boolean balanced;
+		private final String implementation;
+
+		Add(String name, String[] words, boolean balanced, String implementation) {
+			super(name, words.length);
+			this.words = words;
+			this.balanced = balanced;
+			this.implementation = implementation;
+		}
+
+		@Override
+		protected Object run() {
+			return build(words, balanced, implementation).size();
+		}
+	}
+
+	/**
+	 * Looks every word up in a tree holding all of them.
+	 */
+	private static final class Search extends Benchmark {
+		private final String[] words;
+		private final boolean balanced;
+		private final String implementation;
+		private final boolean contains;
+		private BSTreeADT<String> tree;
+
+		Search(String name, String[] words, boolean balanced, String implementation, boolean contains) {
+			super(name, words.length);
+			this.words = words;
+			this.balanced = balanced;
+			this.implementation = implementation;
+			this.contains = contains;
+		}
+
+		@Override
+		protected void setUp() {
+			tree = build(words, balanced, implementation);
+		}
+
+		@Override
+		protected void tearDown() {
+			tree = null;
+		}
+
+		@Override
+		protected Object run() {
+			int found = 0;
+			for (String word : words) {
+				if (contains ? tree.contains(word) : tree.search(word) != null) {
+					found++;
+				}
+			}
+			return found;
+		}
+	}
+
+	/**
+	 * Iterates over every word of a tree in one traversal order, or streams it
+	 * in order, sequentially or in parallel. One operation is one distinct word
+	 * visited.
+	 */
+	private static final class Traverse extends Benchmark {
+		private final String[] words;
+		private final boolean balanced;
+		private final String order;
+		private BSTree<String> tree;
+
+		Traverse(String name, String[] words, boolean balanced, String order) {
+			super(name, new HashSet<>(Arrays.asList(words)).size());
+			this.words = words;
+			this.balanced = balanced;
+			this.order = order;
+		}
+
+		@Override
+		protected void setUp() {
+			tree = build(words, balanced);
+		}
+
+		@Override
+		protected void tearDown() {
+			tree = null;
+		}
+
+		@Override
+		protected Object run() {
+			if (order.equals("stream")) {
+				return tree.stream().mapToInt(String::length).sum();
+			}
+			if (order.equals("parallelStream")) {
+				return tree.parallelStream().mapToInt(String::length).sum();
+			}
+			Iterator<String> iterator = order.equals("inorder") ? tree.inorderIterator()
+					: order.equals("preorder") ? tree.preorderIterator() : tree.postorderIterator();
+			int length = 0;
+			while (iterator.hasNext()) {
+				length += iterator.next().length();
+			}
+			return length;
+		}
+	}
+
+	/**
+	 * Saves a tree with Java serialization and loads it back.
+	 */
+	private static final class RoundTrip extends Benchmark {
+		private final String[] words;
+		private final boolean balanced;
+		private BSTree<String> tree;
+		private File file;
+
+		RoundTrip(String name, String[] words, boolean balanced) {
+			super(name, 1);
+			this.words = words;
+			this.balanced = balanced;
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			tree = build(words, balanced);
+			file = File.createTempFile("bstree", ".ser");
+		}
+
+		@Override
+		protected void tearDown() {
+			tree = null;
+			file.delete();
+		}
+
+		@Override
+		protected Object run() {
+			Serialization.saveToFile(tree, file.getPath());
+			return Serialization.<String>loadFromFile(file).size();
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+/**
+ * A single micro-benchmark run by the {@link BenchmarkRunner}.
+ *
+ * <p>
+ * The runner calls {@link #setUp()} once, then calls {@link #run()} repeatedly,
+ * first to warm up and then to measure. Every call to {@link #run()} performs
+ * {@link #getOperations()} operations, so the runner can report the time of a
+ * single operation. The value returned by {@link #run()} is consumed by the
+ * runner, so the work producing it cannot be optimized away.
+ * </p>
+ */
+public abstract class Benchmark {
+
+	private final String name;
+	private final int operations;
+
+	/**
+	 * Constructs a benchmark.
+	 * 
+	 * @param name       The name the benchmark is reported and selected by.
+	 * @param operations The number of operations performed by each call to
+	 *                   {@link #run()}.
+	 */
+	protected Benchmark(String name, int operations) {
+		this.name = name;
+		this.operations = operations;
+	}
+
+	/**
+	 * Retrieves the name of the benchmark.
+	 * 
+	 * @return The name of the benchmark.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Retrieves the number of operations performed by each call to
+	 * {@link #run()}.
+	 * 
+	 * @return The number of operations per call.
+	 */
+	public int getOperations() {
+		return operations;
+	}
+
+	/**
+	 * Prepares the state shared by every call to {@link #run()}. Nothing is done
+	 * by default.
+	 * 
+	 * @throws Exception If the state cannot be prepared.
+	 */
+	protected void setUp() throws Exception {
+	}
+
+	/**
+	 * Releases the state prepared by {@link #setUp()}. Nothing is done by
+	 * default.
+	 * 
+	 * @throws Exception If the state cannot be released.
+	 */
+	protected void tearDown() throws Exception {
+	}
+
+	/**
+	 * Performs the measured operations once.
+	 * 
+	 * @return A value derived from the work done, consumed by the runner.
+	 * @throws Exception If the operations fail.
+	 */
+	protected abstract Object run() throws Exception;
+}
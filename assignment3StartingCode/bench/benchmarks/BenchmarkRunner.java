@@ -0,0 +1,121 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import appDomain.IngestBenchmarks;
+
+/**
+ * Runs the benchmarks and prints the average time of one operation of each.
+ *
+ * <p>
+ * Each benchmark is warmed up until the just-in-time compiler has had time to
+ * settle, then measured over several iterations. Every iteration calls the
+ * benchmark as many times as fit in the iteration time, and the mean and
+ * standard deviation of the per-operation time over the iterations are
+ * reported, in the manner of JMH's average time mode.
+ * </p>
+ *
+ * <p>
+ * Usage: {@code java benchmarks.BenchmarkRunner [-quick] [name filter]...}.
+ * Only benchmarks whose name contains one of the filters are run; with no
+ * filter, all of them are. {@code -quick} shortens warm-up and measurement for
+ * a rough reading.
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+	private static final long WARMUP_NANOS = 2_000_000_000L;
+	private static final long ITERATION_NANOS = 1_000_000_000L;
+	private static final int ITERATIONS = 5;
+
+	private static volatile Object sink;
+
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * Entry point of the benchmark runner.
+	 * 
+	 * @param args Optional -quick flag followed by name filters.
+	 * @throws Exception If a benchmark fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		long warmup = WARMUP_NANOS;
+		long iteration = ITERATION_NANOS;
+		List<String> filters = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.equals("-quick")) {
+				warmup /= 10;
+				iteration /= 10;
+			} else {
+				filters.add(arg);
+			}
+		}
+
+		List<Benchmark> benchmarks = new ArrayList<>();
+		benchmarks.addAll(BSTreeBenchmarks.all());
+		benchmarks.addAll(IngestBenchmarks.all());
+
+		System.out.printf("%-50s %15s %12s%n", "Benchmark", "ns/op", "error");
+		for (Benchmark benchmark : benchmarks) {
+			if (filters.isEmpty() || filters.stream().anyMatch(benchmark.getName()::contains)) {
+				double[] result = measure(benchmark, warmup, iteration);
+				System.out.printf("%-50s %15.2f %12.2f%n", benchmark.getName(), result[0], result[1]);
+			}
+		}
+	}
+
+	/**
+	 * Warms up and measures a benchmark.
+	 * 
+	 * @param benchmark The benchmark to measure.
+	 * @param warmup    The warm-up time in nanoseconds.
+	 * @param iteration The time of each measured iteration in nanoseconds.
+	 * @return The mean and the standard deviation of the time of one operation,
+	 *         in nanoseconds.
+	 * @throws Exception If the benchmark fails.
+	 */
+	private static double[] measure(Benchmark benchmark, long warmup, long iteration) throws Exception {
+		benchmark.setUp();
+		try {
+			runFor(benchmark, warmup);
+			double[] samples = new double[ITERATIONS];
+			for (int i = 0; i < ITERATIONS; i++) {
+				samples[i] = runFor(benchmark, iteration);
+			}
+
+			double mean = 0;
+			for (double sample : samples) {
+				mean += sample / ITERATIONS;
+			}
+			double variance = 0;
+			for (double sample : samples) {
+				variance += (sample - mean) * (sample - mean) / (ITERATIONS - 1);
+			}
+			return new double[] { mean, Math.sqrt(variance) };
+		} finally {
+			benchmark.tearDown();
+		}
+	}
+
+	/**
+	 * Calls a benchmark repeatedly for at least the given time.
+	 * 
+	 * @param benchmark The benchmark to call.
+	 * @param duration  The minimum time to run for, in nanoseconds.
+	 * @return The average time of one operation, in nanoseconds.
+	 * @throws Exception If the benchmark fails.
+	 */
+	private static double runFor(Benchmark benchmark, long duration) throws Exception {
+		long start = System.nanoTime();
+		long elapsed;
+		long calls = 0;
+		do {
+			sink = benchmark.run();
+			calls++;
+			elapsed = System.nanoTime() - start;
+		} while (elapsed < duration);
+		return (double) elapsed / (calls * benchmark.getOperations());
+	}
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the word sequences the benchmarks are run on.
+ *
+ * <p>
+ * Three distributions are provided: distinct words in random order, the same
+ * words in ascending order, which degenerates a plain binary search tree into a
+ * list, and words drawn from a Zipf distribution, where a few words are very
+ * common and most are rare, as in natural text. Every generator is seeded, so
+ * repeated runs measure the same input.
+ * </p>
+ */
+public final class WordInputs {
+
+	private static final long SEED = 42;
+
+	private WordInputs() {
+	}
+
+	/**
+	 * Generates distinct words in random order.
+	 * 
+	 * @param count The number of words.
+	 * @return The words.
+	 */
+	public static String[] random(int count) {
+		String[] words = vocabulary(count);
+		Random random = new Random(SEED);
+		for (int i = words.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			String word = words[i];
+			words[i] = words[j];
+			words[j] = word;
+		}
+		return words;
+	}
+
+	/**
+	 * Generates distinct words in ascending order.
+	 * 
+	 * @param count The number of words.
+	 * @return The words.
+	 */
+	public static String[] sorted(int count) {
+		String[] words = vocabulary(count);
+		Arrays.sort(words);
+		return words;
+	}
+
+	/**
+	 * Generates words drawn from a Zipf distribution with exponent 1 over a
+	 * vocabulary, so the word of rank k is drawn with a probability
+	 * proportional to 1 / k.
+	 * 
+	 * @param count          The number of words.
+	 * @param vocabularySize The number of distinct words to draw from.
+	 * @return The words, with repetitions.
+	 */
+	public static String[] zipf(int count, int vocabularySize) {
+		String[] vocabulary = random(vocabularySize);
+		double[] cumulative = new double[vocabularySize];
+		double sum = 0;
+		for (int rank = 1; rank <= vocabularySize; rank++) {
+			sum += 1.0 / rank;
+			cumulative[rank - 1] = sum;
+		}
+
+		Random random = new Random(SEED + 1);
+		String[] words = new String[count];
+		for (int i = 0; i < count; i++) {
+			int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+			words[i] = vocabulary[Math.min(index < 0 ? -index - 1 : index, vocabularySize - 1)];
+		}
+		return words;
+	}
+
+	/**
+	 * Generates distinct lowercase words of two to ten letters.
+	 * 
+	 * @param count The number of words.
+	 * @return The words, in no particular order.
+	 */
+	private static String[] vocabulary(int count) {
+		Random random = new Random(SEED);
+		String[] words = new String[count];
+		Set<String> seen = new HashSet<>();
+		char[] letters = new char[10];
+		for (int i = 0; i < count;) {
+			int length = 2 + random.nextInt(9);
+			for (int j = 0; j < length; j++) {
+				letters[j] = (char) ('a' + random.nextInt(26));
+			}
+			String word = new String(letters, 0, length);
+			if (seen.add(word)) {
+				words[i++] = word;
+			}
+		}
+		return words;
+	}
+}
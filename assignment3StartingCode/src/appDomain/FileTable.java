@@ -0,0 +1,71 @@
+package appDomain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository-wide table of the files words were read from.
+ *
+ * <p>
+ * Every file name is stored once and given a small integer id, in the order
+ * the files are first seen. Word information refers to files by id, so a file
+ * name is neither repeated in memory nor looked up by hashing the full path for
+ * every word read.
+ * </p>
+ */
+public class FileTable {
+
+	private final List<String> names = new ArrayList<>();
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	/**
+	 * Retrieves the id of a file, adding the file to the table if it is not in it
+	 * yet.
+	 * 
+	 * @param fileName The name of the file.
+	 * @return The id of the file.
+	 */
+	public int intern(String fileName) {
+		Integer id = ids.get(fileName);
+		if (id == null) {
+			id = names.size();
+			names.add(fileName);
+			ids.put(fileName, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Retrieves the id of a file without adding it.
+	 * 
+	 * @param fileName The name of the file.
+	 * @return The id of the file, or -1 if the file is not in the table.
+	 */
+	public int idOf(String fileName) {
+		Integer id = ids.get(fileName);
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * Retrieves the name of the file with the given id.
+	 * 
+	 * @param id The id of the file.
+	 * @return The name of the file.
+	 * @throws IndexOutOfBoundsException If no file has the id.
+	 */
+	public String nameOf(int id) throws IndexOutOfBoundsException {
+		return names.get(id);
+	}
+
+	/**
+	 * Retrieves the number of files in the table. Ids run from zero to one less
+	 * than this number.
+	 * 
+	 * @return The number of files in the table.
+	 */
+	public int size() {
+		return names.size();
+	}
+}
@@ -0,0 +1,143 @@
+package appDomain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Secondary index of the words of a repository ordered by frequency: the words
+ * with the most entries first, and words with the same number of entries in
+ * alphabetical order.
+ *
+ * <p>
+ * The index is a balanced BSTree keyed by the total of each word at the time it
+ * was indexed, so the most frequent words are found by an in-order walk from the
+ * leftmost node, in O(K + log n) for K words. A word must be removed before its
+ * entries change and added back afterwards, which costs O(log n) per changed
+ * word instead of sorting the whole repository again. Words without entries are
+ * not indexed.
+ * </p>
+ */
+class FrequencyIndex {
+
+	private final BSTree<Ranked> tree;
+
+	/**
+	 * A word together with the total it was indexed with. The total is copied so
+	 * that the key of a word cannot change while it is in the tree.
+	 */
+	private static final class Ranked implements Comparable<Ranked> {
+		private final WordInfo info;
+		private final int total;
+
+		private Ranked(WordInfo info) {
+			this.info = info;
+			this.total = info.getTotal();
+		}
+
+		@Override
+		public int compareTo(Ranked other) {
+			if (total != other.total) {
+				return Integer.compare(other.total, total);
+			}
+			return info.compareTo(other.info);
+		}
+	}
+
+	private FrequencyIndex(BSTree<Ranked> tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * Builds the index of words in any order, sorting them by frequency first.
+	 *
+	 * @param words The words to index.
+	 * @return The index of the words that have entries.
+	 */
+	static FrequencyIndex of(List<WordInfo> words) {
+		List<Ranked> ranked = new ArrayList<>(words.size());
+		for (WordInfo info : words) {
+			if (info.getTotal() > 0) {
+				ranked.add(new Ranked(info));
+			}
+		}
+		Collections.sort(ranked);
+		return new FrequencyIndex(BSTree.fromSorted(ranked.toArray(new Ranked[0]), true));
+	}
+
+	/**
+	 * Builds the index of words that are already in frequency order, as written
+	 * by a previous index, in O(n).
+	 *
+	 * @param byFrequency The words with entries, most frequent first.
+	 * @return The index of the words.
+	 * @throws IllegalArgumentException If the words are not in frequency order or
+	 *                                  one of them has no entries.
+	 */
+	static FrequencyIndex fromSorted(WordInfo[] byFrequency) throws IllegalArgumentException {
+		Ranked[] ranked = new Ranked[byFrequency.length];
+		for (int i = 0; i < byFrequency.length; i++) {
+			if (byFrequency[i].getTotal() == 0) {
+				throw new IllegalArgumentException("Words without entries are not indexed.");
+			}
+			ranked[i] = new Ranked(byFrequency[i]);
+		}
+		return new FrequencyIndex(BSTree.fromSorted(ranked, true));
+	}
+
+	/**
+	 * The number of words in the index.
+	 *
+	 * @return number of indexed words.
+	 */
+	int size() {
+		return tree.size();
+	}
+
+	/**
+	 * Indexes a word with its current total, if it has entries.
+	 *
+	 * @param info The word to index.
+	 */
+	void add(WordInfo info) {
+		if (info.getTotal() > 0) {
+			tree.add(new Ranked(info));
+		}
+	}
+
+	/**
+	 * Removes a word from the index. Its total must not have changed since it was
+	 * added.
+	 *
+	 * @param info The word to remove.
+	 */
+	void remove(WordInfo info) {
+		if (info.getTotal() > 0) {
+			tree.remove(new Ranked(info));
+		}
+	}
+
+	/**
+	 * Creates an iterator over the indexed words, most frequent first. The first
+	 * word is reached in O(log n) and every following one in amortized O(1).
+	 *
+	 * @return An iterator over the words in frequency order.
+	 */
+	Iterator<WordInfo> iterator() {
+		Iterator<Ranked> ranked = tree.inorderIterator();
+		return new Iterator<WordInfo>() {
+			@Override
+			public boolean hasNext() {
+				return ranked.hasNext();
+			}
+
+			@Override
+			public WordInfo next() {
+				return ranked.next().info;
+			}
+		};
+	}
+}
@@ -0,0 +1,152 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+import implementations.BSTree;
+import implementations.ShardedBSTree;
+import utilities.Iterator;
+
+/**
+ * Fork/join task that indexes a range of input files into a shared, sharded
+ * word index.
+ *
+ * <p>
+ * The range is split in half until a single file is left, and each file is
+ * read by whichever worker picks it up. Every worker adds the words of its file
+ * straight into the same {@link ShardedBSTree}, whose shards cover the words by
+ * their first character, so workers only wait for each other when they add
+ * words starting with the same character at the same time. Once the task is
+ * done, the index holds every word of every file in order and no merge of
+ * partial trees is needed. The input files must be in the file table before the
+ * task starts, so the workers only read the table.
+ * </p>
+ */
+class IngestTask extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * First characters that start a new shard of the index: every digit but 0,
+	 * the underscore and every letter, in the order words compare.
+	 */
+	private static final String SHARD_STARTS = "123456789_abcdefghijklmnopqrstuvwxyz";
+
+	private final List<String> inputFiles;
+	private final FileTable files;
+	private final ShardedBSTree<WordInfo> index;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Constructs a task indexing the input files in the range [from, to).
+	 * 
+	 * @param inputFiles The input files to index.
+	 * @param files      The file table holding every input file.
+	 * @param index      The index receiving the word information.
+	 * @param from       Index of the first file to index.
+	 * @param to         Index one past the last file to index.
+	 */
+	IngestTask(List<String> inputFiles, FileTable files, ShardedBSTree<WordInfo> index, int from, int to) {
+		this.inputFiles = inputFiles;
+		this.files = files;
+		this.index = index;
+		this.from = from;
+		this.to = to;
+	}
+
+	/**
+	 * Creates an empty word index with one balanced shard per first character a
+	 * word can start with.
+	 * 
+	 * @return The word index.
+	 */
+	static ShardedBSTree<WordInfo> newIndex() {
+		WordInfo[] splitPoints = new WordInfo[SHARD_STARTS.length()];
+		for (int i = 0; i < splitPoints.length; i++) {
+			splitPoints[i] = new WordInfo(SHARD_STARTS.substring(i, i + 1));
+		}
+		return new ShardedBSTree<>(splitPoints, true);
+	}
+
+	/**
+	 * Indexes the files in range, splitting the range in half until a single file
+	 * is left.
+	 * 
+	 * @throws UncheckedIOException If an error occurs while reading a file.
+	 */
+	@Override
+	protected void compute() {
+		if (to - from <= 1) {
+			if (from < to) {
+				try {
+					String inputFile = inputFiles.get(from);
+					WordTracker.processFile(index, inputFile, files.idOf(inputFile));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return;
+		}
+
+		int middle = (from + to) >>> 1;
+		invokeAll(new IngestTask(inputFiles, files, index, from, middle),
+				new IngestTask(inputFiles, files, index, middle, to));
+	}
+
+	/**
+	 * Merges the word information of two trees. Words found in both trees have
+	 * the entries of the second appended to those of the first.
+	 * 
+	 * <p>
+	 * When the second tree is small compared to the first, its words are added to
+	 * the first tree one descent at a time and the first tree is returned. Otherwise
+	 * both trees are walked in order side by side and the merged sequence is bulk
+	 * built into a new balanced tree in O(n + m).
+	 * </p>
+	 * 
+	 * @param target The tree receiving the word information.
+	 * @param source The tree whose word information is merged in.
+	 * @return The tree holding the word information of both trees.
+	 */
+	static BSTree<WordInfo> merge(BSTree<WordInfo> target, BSTree<WordInfo> source) {
+		int targetSize = target.size();
+		int sourceSize = source.size();
+		if ((long) sourceSize * (32 - Integer.numberOfLeadingZeros(targetSize)) < targetSize) {
+			Iterator<WordInfo> iterator = source.preorderIterator();
+			while (iterator.hasNext()) {
+				WordInfo info = iterator.next();
+				WordInfo existing = target.addIfAbsent(info).getElement();
+				if (existing != info) {
+					existing.merge(info);
+				}
+			}
+			return target;
+		}
+
+		List<WordInfo> merged = new ArrayList<>(targetSize + sourceSize);
+		Iterator<WordInfo> left = target.inorderIterator();
+		Iterator<WordInfo> right = source.inorderIterator();
+		WordInfo nextLeft = left.hasNext() ? left.next() : null;
+		WordInfo nextRight = right.hasNext() ? right.next() : null;
+		while (nextLeft != null || nextRight != null) {
+			int comparison = nextLeft == null ? 1 : nextRight == null ? -1 : nextLeft.compareTo(nextRight);
+			if (comparison < 0) {
+				merged.add(nextLeft);
+				nextLeft = left.hasNext() ? left.next() : null;
+			} else if (comparison > 0) {
+				merged.add(nextRight);
+				nextRight = right.hasNext() ? right.next() : null;
+			} else {
+				nextLeft.merge(nextRight);
+				merged.add(nextLeft);
+				nextLeft = left.hasNext() ? left.next() : null;
+				nextRight = right.hasNext() ? right.next() : null;
+			}
+		}
+		return BSTree.fromSorted(merged.toArray(new WordInfo[0]), target.isBalanced());
+	}
+}
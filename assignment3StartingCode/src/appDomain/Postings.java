@@ -0,0 +1,213 @@
+package appDomain;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * The line numbers on which a word occurs in one file.
+ *
+ * <p>
+ * While a file is being read, line numbers are appended to a growable
+ * <code>int[]</code>. Once the file is done the postings are sealed: the lines
+ * are packed into a byte array as the gaps between consecutive lines, seven
+ * bits per byte, which takes a single byte for almost every occurrence. Adding
+ * to sealed postings unpacks them again. The number of lines is always known
+ * without decoding.
+ * </p>
+ */
+public class Postings implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private int[] lines;
+	private byte[] packed;
+	private int size;
+
+	/**
+	 * Constructs empty postings, ready to have lines added.
+	 */
+	public Postings() {
+		this.lines = new int[4];
+	}
+
+	private Postings(byte[] packed, int size) {
+		this.packed = packed;
+		this.size = size;
+	}
+
+	/**
+	 * Wraps line numbers that are already packed as gaps, as written by
+	 * {@link #getPacked()}. The array is used as it is, without being copied.
+	 * 
+	 * @param packed The packed line gaps.
+	 * @param size   The number of lines packed in the array.
+	 * @return Sealed postings holding the lines.
+	 */
+	public static Postings fromPacked(byte[] packed, int size) {
+		return new Postings(packed, size);
+	}
+
+	/**
+	 * Retrieves the number of lines, counting a line once per occurrence on it.
+	 * 
+	 * @return The number of lines.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if the lines are currently packed.
+	 * 
+	 * @return true if the postings are sealed.
+	 */
+	public boolean isSealed() {
+		return packed != null;
+	}
+
+	/**
+	 * Adds a line number. Lines are expected in ascending order, which is how a
+	 * file is read; out-of-order lines are sorted the next time the postings are
+	 * read or sealed.
+	 * 
+	 * @param line The line number to add.
+	 */
+	public void add(int line) {
+		if (packed != null) {
+			unseal(size + 1);
+		}
+		if (size == lines.length) {
+			lines = Arrays.copyOf(lines, size + (size >> 1) + 1);
+		}
+		lines[size++] = line;
+	}
+
+	/**
+	 * Adds all line numbers of other postings.
+	 * 
+	 * @param other The postings to add the lines of.
+	 */
+	public void addAll(Postings other) {
+		int[] otherLines = other.toArray();
+		if (packed != null) {
+			unseal(size + otherLines.length);
+		}
+		if (size + otherLines.length > lines.length) {
+			lines = Arrays.copyOf(lines, size + otherLines.length);
+		}
+		System.arraycopy(otherLines, 0, lines, size, otherLines.length);
+		size += otherLines.length;
+	}
+
+	/**
+	 * Packs the line numbers as gaps and releases the growable array.
+	 */
+	public void seal() {
+		if (packed != null) {
+			return;
+		}
+		sortLines();
+
+		int length = 0;
+		int previous = 0;
+		for (int i = 0; i < size; i++) {
+			length += varIntLength(lines[i] - previous);
+			previous = lines[i];
+		}
+		byte[] bytes = new byte[length];
+		int position = 0;
+		previous = 0;
+		for (int i = 0; i < size; i++) {
+			int gap = lines[i] - previous;
+			previous = lines[i];
+			while ((gap & ~0x7F) != 0) {
+				bytes[position++] = (byte) ((gap & 0x7F) | 0x80);
+				gap >>>= 7;
+			}
+			bytes[position++] = (byte) gap;
+		}
+		packed = bytes;
+		lines = null;
+	}
+
+	/**
+	 * Seals the postings and returns the packed line gaps. The returned array is
+	 * shared with the postings and must not be modified.
+	 * 
+	 * @return The packed line gaps.
+	 */
+	public byte[] getPacked() {
+		seal();
+		return packed;
+	}
+
+	/**
+	 * Copies the line numbers into a new array.
+	 * 
+	 * @return The line numbers in ascending order.
+	 */
+	public int[] toArray() {
+		if (packed == null) {
+			sortLines();
+			return Arrays.copyOf(lines, size);
+		}
+		int[] result = new int[size];
+		int[] index = { 0 };
+		forEach(line -> result[index[0]++] = line);
+		return result;
+	}
+
+	/**
+	 * Performs an action for each line number, in ascending order.
+	 * 
+	 * @param action The action to perform.
+	 */
+	public void forEach(IntConsumer action) {
+		if (packed == null) {
+			sortLines();
+			for (int i = 0; i < size; i++) {
+				action.accept(lines[i]);
+			}
+			return;
+		}
+		int position = 0;
+		int line = 0;
+		for (int i = 0; i < size; i++) {
+			int gap = 0;
+			for (int shift = 0;; shift += 7) {
+				int b = packed[position++];
+				gap |= (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					break;
+				}
+			}
+			line += gap;
+			action.accept(line);
+		}
+	}
+
+	private void sortLines() {
+		for (int i = 1; i < size; i++) {
+			if (lines[i] < lines[i - 1]) {
+				Arrays.sort(lines, 0, size);
+				return;
+			}
+		}
+	}
+
+	private void unseal(int capacity) {
+		int[] unpacked = toArray();
+		lines = Arrays.copyOf(unpacked, Math.max(capacity, 4));
+		packed = null;
+	}
+
+	private static int varIntLength(int value) {
+		int length = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+}
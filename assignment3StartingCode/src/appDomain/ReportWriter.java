@@ -0,0 +1,140 @@
+package appDomain;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.IntConsumer;
+
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Formats word information into report lines and writes every line to one or
+ * more sinks.
+ *
+ * <p>
+ * Each word is formatted exactly once, into a reusable buffer, and the same
+ * characters are then written to every sink. Line numbers are appended straight
+ * from the packed postings, so a report allocates nothing per word. The sinks
+ * are expected to be buffered; they are flushed once the report is written but
+ * never closed, since one of them is usually the console.
+ * </p>
+ */
+class ReportWriter {
+
+	private final FileTable files;
+	private final boolean hasLines;
+	private final boolean hasTotal;
+	private final Writer[] sinks;
+
+	private final StringBuilder line = new StringBuilder(256);
+	private final IntConsumer appendLine = this::appendLine;
+	private char[] chars = new char[256];
+	private boolean firstLine;
+
+	/**
+	 * Constructs a report writer.
+	 * 
+	 * @param files    The file table the file ids of the words refer to.
+	 * @param hasLines Whether to include line numbers.
+	 * @param hasTotal Whether to include word counts.
+	 * @param sinks    The writers every report line is written to.
+	 */
+	ReportWriter(FileTable files, boolean hasLines, boolean hasTotal, Writer... sinks) {
+		this.files = files;
+		this.hasLines = hasLines;
+		this.hasTotal = hasTotal;
+		this.sinks = sinks;
+	}
+
+	/**
+	 * Writes the report line of every word in the tree, in alphabetical order,
+	 * and flushes the sinks. The tree is walked with
+	 * {@link BSTree#forEachInorder(java.util.function.Consumer)}, which needs no
+	 * stack, so the whole repository is written in constant extra memory
+	 * whatever the shape of the tree.
+	 * 
+	 * @param tree The BST storing word information.
+	 * @throws IOException If an error occurs while writing to a sink.
+	 */
+	void write(BSTree<WordInfo> tree) throws IOException {
+		try {
+			tree.forEachInorder(info -> {
+				try {
+					writeLine(info);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		flush();
+	}
+
+	/**
+	 * Writes the report line of every word returned by an iterator, in the order
+	 * returned, and flushes the sinks.
+	 * 
+	 * @param iterator The iterator returning the word information to report.
+	 * @throws IOException If an error occurs while writing to a sink.
+	 */
+	void write(Iterator<WordInfo> iterator) throws IOException {
+		while (iterator.hasNext()) {
+			writeLine(iterator.next());
+		}
+		flush();
+	}
+
+	/**
+	 * Writes the report line of a single word.
+	 * 
+	 * @param info The word information to report.
+	 * @throws IOException If an error occurs while writing to a sink.
+	 */
+	void writeLine(WordInfo info) throws IOException {
+		line.setLength(0);
+		line.append("Key : ===").append(info.getWord()).append("=== ");
+		if (hasTotal) {
+			line.append("number of entries: ").append(info.getTotal());
+		}
+		for (int i = 0; i < info.getFileCount(); i++) {
+			line.append(" found in file: ").append(files.nameOf(info.getFileId(i)));
+			if (hasLines) {
+				line.append(" on lines: ");
+				firstLine = true;
+				info.getPostings(i).forEach(appendLine);
+				line.append(',');
+			}
+		}
+		line.append(System.lineSeparator());
+
+		int length = line.length();
+		if (chars.length < length) {
+			chars = new char[Math.max(length, chars.length * 2)];
+		}
+		line.getChars(0, length, chars, 0);
+		for (Writer sink : sinks) {
+			sink.write(chars, 0, length);
+		}
+	}
+
+	/**
+	 * Flushes every sink.
+	 * 
+	 * @throws IOException If an error occurs while flushing a sink.
+	 */
+	void flush() throws IOException {
+		for (Writer sink : sinks) {
+			sink.flush();
+		}
+	}
+
+	private void appendLine(int lineNumber) {
+		if (!firstLine) {
+			line.append(", ");
+		}
+		firstLine = false;
+		line.append(lineNumber);
+	}
+}
@@ -0,0 +1,225 @@
+package appDomain;
+
+import java.nio.CharBuffer;
+
+import implementations.ShardedBSTree;
+
+/**
+ * Splits the text of a file into words and records every word in an index.
+ *
+ * <p>
+ * The tokenizer applies the normalization rules of the tracker in a single
+ * pass over the characters: apostrophes are dropped, any character other than
+ * an ASCII letter, digit or underscore ends a word, and letters are lowercased.
+ * Lines end at "\n", "\r\n", "\r", "\u0085", "\u2028" and "\u2029", so lines
+ * are numbered as {@link java.util.Scanner#nextLine()} would number them.
+ * </p>
+ * <p>
+ * Text may be fed in chunks of any size; a word or a "\r\n" split across two
+ * chunks is handled as if the chunks were one. The word being read is collected
+ * into a reusable buffer and looked up in an intern table keyed by its
+ * characters, so a word that was seen before costs no allocation at all.
+ * </p>
+ * <p>
+ * The intern table keeps the characters of its words in one shared array and
+ * the lines of each word in the file in its own postings. Recording a word
+ * therefore touches the table and the postings only. The index is not touched
+ * until the text ends, when every word is added to it with its postings, so
+ * tokenizers reading other files into the same index only meet on its shard
+ * locks once per word rather than once per occurrence.
+ * </p>
+ */
+final class Tokenizer {
+
+	private static final int INITIAL_TABLE_SIZE = 1 << 10;
+
+	private final ShardedBSTree<WordInfo> index;
+	private final int fileId;
+
+	private char[] token = new char[32];
+	private int tokenLength;
+	private int tokenHash;
+	private int lineNumber = 1;
+	private boolean afterCarriageReturn;
+
+	private Postings[] table = new Postings[INITIAL_TABLE_SIZE];
+	private int[] tableHashes = new int[INITIAL_TABLE_SIZE];
+	private int[] tableStarts = new int[INITIAL_TABLE_SIZE];
+	private int[] tableLengths = new int[INITIAL_TABLE_SIZE];
+	private int tableSize;
+	private char[] pool = new char[INITIAL_TABLE_SIZE * 8];
+	private int poolLength;
+
+	/**
+	 * Constructs a tokenizer recording the words of a file in an index.
+	 * 
+	 * @param index  The index storing word information, shared with the
+	 *               tokenizers of other files.
+	 * @param fileId The id of the file being read.
+	 */
+	Tokenizer(ShardedBSTree<WordInfo> index, int fileId) {
+		this.index = index;
+		this.fileId = fileId;
+	}
+
+	/**
+	 * Reads the remaining characters of a chunk of text.
+	 * 
+	 * @param chunk The next chunk of the text.
+	 */
+	void feed(CharBuffer chunk) {
+		if (chunk.hasArray()) {
+			int offset = chunk.arrayOffset();
+			feed(chunk.array(), offset + chunk.position(), offset + chunk.limit());
+			chunk.position(chunk.limit());
+		} else {
+			while (chunk.hasRemaining()) {
+				feed(chunk.get());
+			}
+		}
+	}
+
+	/**
+	 * Reads the characters of the array in the range [from, to).
+	 * 
+	 * @param chars The array holding the next chunk of the text.
+	 * @param from  Index of the first character to read.
+	 * @param to    Index one past the last character to read.
+	 */
+	void feed(char[] chars, int from, int to) {
+		for (int i = from; i < to; i++) {
+			feed(chars[i]);
+		}
+	}
+
+	/**
+	 * Ends the text, recording the last word and adding every word read to the
+	 * index together with its packed postings.
+	 */
+	void finish() {
+		endToken();
+		for (int slot = 0; slot < table.length; slot++) {
+			Postings postings = table[slot];
+			if (postings != null) {
+				postings.seal();
+				WordInfo info = new WordInfo(new String(pool, tableStarts[slot], tableLengths[slot]));
+				index.addIfAbsent(info, stored -> stored.addEntries(fileId, postings));
+			}
+		}
+	}
+
+	private void feed(char c) {
+		if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '_') {
+			append(c);
+		} else if (c >= 'A' && c <= 'Z') {
+			append((char) (c + ('a' - 'A')));
+		} else if (c != '\'') {
+			endToken();
+			if (c == '\n') {
+				if (!afterCarriageReturn) {
+					lineNumber++;
+				}
+			} else if (c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+				lineNumber++;
+			}
+			afterCarriageReturn = c == '\r';
+			return;
+		}
+		afterCarriageReturn = false;
+	}
+
+	private void append(char c) {
+		if (tokenLength == token.length) {
+			char[] grown = new char[tokenLength * 2];
+			System.arraycopy(token, 0, grown, 0, tokenLength);
+			token = grown;
+		}
+		token[tokenLength++] = c;
+		tokenHash = 31 * tokenHash + c;
+	}
+
+	private void endToken() {
+		if (tokenLength > 0) {
+			intern().add(lineNumber);
+			tokenLength = 0;
+			tokenHash = 0;
+		}
+	}
+
+	/**
+	 * Finds the postings of the word in the token buffer, adding the word to the
+	 * intern table on its first occurrence.
+	 * 
+	 * @return The postings of the current word in this file.
+	 */
+	private Postings intern() {
+		int mask = table.length - 1;
+		int slot = mix(tokenHash) & mask;
+		while (table[slot] != null) {
+			if (tableHashes[slot] == tokenHash && matches(slot)) {
+				return table[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (poolLength + tokenLength > pool.length) {
+			char[] grown = new char[Math.max(pool.length * 2, poolLength + tokenLength)];
+			System.arraycopy(pool, 0, grown, 0, poolLength);
+			pool = grown;
+		}
+		System.arraycopy(token, 0, pool, poolLength, tokenLength);
+		Postings postings = new Postings();
+		table[slot] = postings;
+		tableHashes[slot] = tokenHash;
+		tableStarts[slot] = poolLength;
+		tableLengths[slot] = tokenLength;
+		poolLength += tokenLength;
+		if (++tableSize * 2 > table.length) {
+			grow();
+		}
+		return postings;
+	}
+
+	private boolean matches(int slot) {
+		if (tableLengths[slot] != tokenLength) {
+			return false;
+		}
+		int start = tableStarts[slot];
+		for (int i = 0; i < tokenLength; i++) {
+			if (pool[start + i] != token[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void grow() {
+		Postings[] oldTable = table;
+		int[] oldHashes = tableHashes;
+		int[] oldStarts = tableStarts;
+		int[] oldLengths = tableLengths;
+		int capacity = oldTable.length * 2;
+		table = new Postings[capacity];
+		tableHashes = new int[capacity];
+		tableStarts = new int[capacity];
+		tableLengths = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldTable.length; i++) {
+			if (oldTable[i] != null) {
+				int slot = mix(oldHashes[i]) & mask;
+				while (table[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = oldTable[i];
+				tableHashes[slot] = oldHashes[i];
+				tableStarts[slot] = oldStarts[i];
+				tableLengths[slot] = oldLengths[i];
+			}
+		}
+	}
+
+	private static int mix(int hash) {
+		int mixed = hash * 0x9E3779B9;
+		return mixed ^ (mixed >>> 16);
+	}
+}
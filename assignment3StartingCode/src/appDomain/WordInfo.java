@@ -1,8 +1,10 @@
 package appDomain;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -10,25 +12,37 @@ import java.util.Map;
  * Represents a word and its entries across multiple files and line numbers.
  * 
  * <p>
- * Each word is associated with a map where the key is the file name and the
- * value is a list of line numbers indicating where the word occurs.
+ * Each word keeps, for every file it occurs in, the id of the file in the
+ * repository's {@link FileTable} and the {@link Postings} holding the line
+ * numbers where the word occurs. Files are kept in the order of their ids, which
+ * is the order the repository first saw them, so the order does not depend on
+ * which file was read first when files are read in parallel. The total number
+ * of entries is kept up to date as entries are added and removed.
  * </p>
  */
-class WordInfo implements Serializable, Comparable<WordInfo> {
+public class WordInfo implements Serializable, Comparable<WordInfo> {
 
 	private static final long serialVersionUID = 1L;
 
+	private static final int[] NO_FILES = new int[0];
+	private static final Postings[] NO_POSTINGS = new Postings[0];
+
 	private String word;
-	private Map<String, List<Integer>> entries;
+	private int[] fileIds = NO_FILES;
+	private Postings[] postings = NO_POSTINGS;
+	private int fileCount;
+	private int total;
+	private transient Map<String, Postings> legacyEntries;
 
 	/**
-	 * Constructs a WordInfo object for a specific word.
+	 * Constructs a WordInfo object for a specific word. No entry storage is
+	 * allocated until the first entry is added, so a WordInfo used as a lookup
+	 * key stays a single small object.
 	 * 
 	 * @param word The word.
 	 */
 	public WordInfo(String word) {
 		this.word = word;
-		this.entries = new HashMap<>();
 	}
 
 	/**
@@ -41,41 +55,115 @@ class WordInfo implements Serializable, Comparable<WordInfo> {
 	}
 
 	/**
-	 * Retrieves the entries map for this word.
+	 * Retrieves the number of files the word has entries in.
 	 * 
-	 * @return A map where keys are file names and values are lists of line numbers.
+	 * @return The number of files.
 	 */
-	public Map<String, List<Integer>> getEntries() {
-		return entries;
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	/**
+	 * Retrieves the id of the file at a position, counting files in the order of
+	 * their ids.
+	 * 
+	 * @param index The position of the file, from zero to one less than the file
+	 *              count.
+	 * @return The id of the file.
+	 */
+	public int getFileId(int index) {
+		return fileIds[index];
+	}
+
+	/**
+	 * Retrieves the line numbers in the file at a position.
+	 * 
+	 * @param index The position of the file, from zero to one less than the file
+	 *              count.
+	 * @return The line numbers where the word occurs in that file.
+	 */
+	public Postings getPostings(int index) {
+		return postings[index];
+	}
+
+	/**
+	 * Checks if the word has entries in a file.
+	 * 
+	 * @param fileId The id of the file.
+	 * @return true if the word occurs in the file.
+	 */
+	public boolean hasEntriesIn(int fileId) {
+		return indexOf(fileId) >= 0;
 	}
 
 	/**
 	 * Adds an entry of the word in a specific file and line number.
 	 * 
-	 * @param fileName   The name of the file where the word occurs.
+	 * @param fileId     The id of the file where the word occurs.
 	 * @param lineNumber The line number where the word occurs.
 	 */
-	public void addEntries(String fileName, int lineNumber) {
-		entries.putIfAbsent(fileName, new ArrayList<>());
-		entries.get(fileName).add(lineNumber);
+	public void addEntries(int fileId, int lineNumber) {
+		int index = fileCount - 1;
+		if (index < 0 || fileIds[index] != fileId) {
+			index = indexOf(fileId);
+			if (index < 0) {
+				index = insert(fileId, new Postings());
+			}
+		}
+		postings[index].add(lineNumber);
+		total++;
+	}
+
+	/**
+	 * Adds the entries of the word in a specific file all at once, such as when
+	 * loading a repository.
+	 * 
+	 * @param fileId      The id of the file where the word occurs.
+	 * @param filePostings The line numbers where the word occurs in that file.
+	 */
+	public void addEntries(int fileId, Postings filePostings) {
+		int index = indexOf(fileId);
+		if (index < 0) {
+			insert(fileId, filePostings);
+		} else {
+			postings[index].addAll(filePostings);
+		}
+		total += filePostings.size();
 	}
 
 	/**
 	 * Removes all entries of the word from a specific file.
 	 * 
-	 * @param fileName The name of the file to remove entries from.
+	 * @param fileId The id of the file to remove entries from.
 	 */
-	public void removeEntriesFromFile(String fileName) {
-		entries.remove(fileName);
+	public void removeEntriesFromFile(int fileId) {
+		int index = indexOf(fileId);
+		if (index < 0) {
+			return;
+		}
+		total -= postings[index].size();
+		fileCount--;
+		System.arraycopy(fileIds, index + 1, fileIds, index, fileCount - index);
+		System.arraycopy(postings, index + 1, postings, index, fileCount - index);
+		postings[fileCount] = null;
 	}
 
 	/**
-	 * Calculates the total number of entries of the word across all files.
+	 * Retrieves the total number of entries of the word across all files.
 	 * 
 	 * @return The total number of entries.
 	 */
 	public int getTotal() {
-		return entries.values().stream().mapToInt(List::size).sum();
+		return total;
+	}
+
+	/**
+	 * Packs the line numbers of every file, once no more entries are expected.
+	 */
+	public void seal() {
+		for (int i = 0; i < fileCount; i++) {
+			postings[i].seal();
+		}
 	}
 
 	/**
@@ -84,9 +172,8 @@ class WordInfo implements Serializable, Comparable<WordInfo> {
 	 * @param other The other Word object to merge from.
 	 */
 	public void merge(WordInfo other) {
-		for (Map.Entry<String, List<Integer>> entry : other.getEntries().entrySet()) {
-			entries.putIfAbsent(entry.getKey(), new ArrayList<>());
-			entries.get(entry.getKey()).addAll(entry.getValue());
+		for (int i = 0; i < other.fileCount; i++) {
+			addEntries(other.fileIds[i], other.postings[i]);
 		}
 	}
 
@@ -102,4 +189,84 @@ class WordInfo implements Serializable, Comparable<WordInfo> {
 	public int compareTo(WordInfo other) {
 		return this.word.compareTo(other.word);
 	}
+
+	/**
+	 * Assigns file ids to entries restored from a repository saved before file
+	 * ids were introduced, which names each file in every word.
+	 * 
+	 * @param files The file table to assign the ids from.
+	 */
+	void resolveLegacyEntries(FileTable files) {
+		if (legacyEntries != null) {
+			for (Map.Entry<String, Postings> entry : legacyEntries.entrySet()) {
+				addEntries(files.intern(entry.getKey()), entry.getValue());
+			}
+			legacyEntries = null;
+		}
+	}
+
+	private int indexOf(int fileId) {
+		for (int i = 0; i < fileCount; i++) {
+			if (fileIds[i] == fileId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int insert(int fileId, Postings filePostings) {
+		if (fileCount == fileIds.length) {
+			int capacity = fileCount == 0 ? 1 : fileCount * 2;
+			fileIds = Arrays.copyOf(fileIds, capacity);
+			postings = Arrays.copyOf(postings, capacity);
+		}
+		int index = fileCount;
+		while (index > 0 && fileIds[index - 1] > fileId) {
+			index--;
+		}
+		System.arraycopy(fileIds, index, fileIds, index + 1, fileCount - index);
+		System.arraycopy(postings, index, postings, index + 1, fileCount - index);
+		fileIds[index] = fileId;
+		postings[index] = filePostings;
+		fileCount++;
+		return index;
+	}
+
+	/**
+	 * Restores a WordInfo. Repositories saved before file ids were introduced map
+	 * file names to their line numbers, stored either as postings or, before
+	 * postings, as a list of integers. Those entries are converted to postings
+	 * and kept aside until the repository assigns their file ids.
+	 * 
+	 * @param in The stream to read the object from.
+	 * @throws IOException            If an I/O error occurs.
+	 * @throws ClassNotFoundException If a class of the stream cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		word = (String) fields.get("word", null);
+		fileIds = (int[]) fields.get("fileIds", NO_FILES);
+		postings = (Postings[]) fields.get("postings", NO_POSTINGS);
+		fileCount = fields.get("fileCount", 0);
+		total = fields.get("total", 0);
+
+		Map<?, ?> stored = (Map<?, ?>) fields.get("entries", null);
+		if (stored == null) {
+			return;
+		}
+		legacyEntries = new LinkedHashMap<>();
+		for (Map.Entry<?, ?> entry : stored.entrySet()) {
+			Postings filePostings;
+			if (entry.getValue() instanceof Postings) {
+				filePostings = (Postings) entry.getValue();
+			} else {
+				filePostings = new Postings();
+				for (Object line : (List<?>) entry.getValue()) {
+					filePostings.add((Integer) line);
+				}
+				filePostings.seal();
+			}
+			legacyEntries.put((String) entry.getKey(), filePostings);
+		}
+	}
 }
@@ -0,0 +1,222 @@
+package appDomain;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import implementations.BSTree;
+import implementations.BSTreeNode;
+import utilities.Iterator;
+
+/**
+ * The word repository: the BST storing word information, the table of files
+ * the words were read from, a reverse index from each file to the words found
+ * in it, and an index of the words by frequency.
+ *
+ * <p>
+ * Words refer to files by their id in the file table. The reverse index lets a
+ * file be dropped from the repository by visiting only the words that occur in
+ * it, instead of every word in the tree. It holds no information of its own, so
+ * the repository formats do not store it twice; it is rebuilt in the same pass
+ * that wraps a loaded tree.
+ * </p>
+ *
+ * <p>
+ * The frequency index is kept up to date as files are removed and merged in:
+ * every word whose entries change is taken out of it before the change and put
+ * back afterwards, so the most frequent words can be listed at any time without
+ * sorting the repository.
+ * </p>
+ */
+public class WordRepository {
+
+	private BSTree<WordInfo> tree;
+	private final FileTable files;
+	private final List<List<WordInfo>> wordsByFile = new ArrayList<>();
+	private final FrequencyIndex frequencies;
+
+	/**
+	 * Constructs a repository over a tree restored from Java serialization,
+	 * assigning file ids to the files its words name.
+	 * 
+	 * @param tree The BST storing word information.
+	 */
+	public WordRepository(BSTree<WordInfo> tree) {
+		this.tree = tree;
+		this.files = new FileTable();
+		List<WordInfo> words = new ArrayList<>(tree.size());
+		Iterator<WordInfo> iterator = tree.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			info.resolveLegacyEntries(files);
+			index(info, info);
+			words.add(info);
+		}
+		this.frequencies = FrequencyIndex.of(words);
+	}
+
+	/**
+	 * Constructs a repository over an existing tree whose words refer to the
+	 * given file table, and indexes the files of every word in it.
+	 * 
+	 * @param tree  The BST storing word information.
+	 * @param files The table of the files the words refer to.
+	 */
+	public WordRepository(BSTree<WordInfo> tree, FileTable files) {
+		this.tree = tree;
+		this.files = files;
+		List<WordInfo> words = new ArrayList<>(tree.size());
+		Iterator<WordInfo> iterator = tree.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			index(info, info);
+			words.add(info);
+		}
+		this.frequencies = FrequencyIndex.of(words);
+	}
+
+	/**
+	 * Constructs a repository over an existing tree whose words refer to the
+	 * given file table, with the frequency order of its words already known, as
+	 * saved by {@link #byFrequency()}. The frequency index is then built in
+	 * linear time.
+	 * 
+	 * @param tree        The BST storing word information.
+	 * @param files       The table of the files the words refer to.
+	 * @param byFrequency The words of the tree that have entries, most frequent
+	 *                    first.
+	 * @throws IllegalArgumentException If the words are not in frequency order.
+	 */
+	public WordRepository(BSTree<WordInfo> tree, FileTable files, WordInfo[] byFrequency)
+			throws IllegalArgumentException {
+		this.tree = tree;
+		this.files = files;
+		Iterator<WordInfo> iterator = tree.inorderIterator();
+		int indexed = 0;
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			index(info, info);
+			if (info.getTotal() > 0) {
+				indexed++;
+			}
+		}
+		if (indexed != byFrequency.length) {
+			throw new IllegalArgumentException("The frequency order does not cover every word.");
+		}
+		this.frequencies = FrequencyIndex.fromSorted(byFrequency);
+	}
+
+	/**
+	 * Retrieves the BST storing word information.
+	 * 
+	 * @return The tree of the repository.
+	 */
+	public BSTree<WordInfo> getTree() {
+		return tree;
+	}
+
+	/**
+	 * Retrieves the table of the files the words of the repository refer to.
+	 * 
+	 * @return The file table of the repository.
+	 */
+	public FileTable getFiles() {
+		return files;
+	}
+
+	/**
+	 * Creates an iterator over the words that have entries, from the most to the
+	 * least frequent; words with the same total come in alphabetical order. The
+	 * first K words are listed in O(K + log n).
+	 * 
+	 * @return An iterator over the words in frequency order.
+	 */
+	public Iterator<WordInfo> byFrequency() {
+		return frequencies.iterator();
+	}
+
+	/**
+	 * Retrieves the number of files that have entries in the repository.
+	 * 
+	 * @return The number of indexed files.
+	 */
+	public int fileCount() {
+		int count = 0;
+		for (List<WordInfo> words : wordsByFile) {
+			if (words != null) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Rebuilds the tree in the requested mode, keeping the same word information.
+	 * 
+	 * @param balanced Whether the tree should keep itself balanced.
+	 */
+	public void convert(boolean balanced) {
+		if (tree.isBalanced() != balanced) {
+			tree = BSTree.fromSorted(tree.inorderIterator(), balanced);
+		}
+	}
+
+	/**
+	 * Removes the entries of the given files from every word they occur in.
+	 * 
+	 * @param fileNames The files whose entries are removed.
+	 */
+	public void removeFiles(Collection<String> fileNames) {
+		for (String fileName : fileNames) {
+			int fileId = files.idOf(fileName);
+			if (fileId < 0 || fileId >= wordsByFile.size() || wordsByFile.get(fileId) == null) {
+				continue;
+			}
+			for (WordInfo info : wordsByFile.set(fileId, null)) {
+				frequencies.remove(info);
+				info.removeEntriesFromFile(fileId);
+				frequencies.add(info);
+			}
+		}
+	}
+
+	/**
+	 * Merges the word information of a tree into the repository and indexes the
+	 * files it adds to each word. The words of the tree must refer to files by
+	 * their id in this repository's file table.
+	 * 
+	 * @param added The tree whose word information is merged in.
+	 */
+	public void merge(BSTree<WordInfo> added) {
+		Iterator<WordInfo> iterator = added.inorderIterator();
+		while (iterator.hasNext()) {
+			BSTreeNode<WordInfo> stored = tree.search(iterator.next());
+			if (stored != null) {
+				frequencies.remove(stored.getElement());
+			}
+		}
+		tree = IngestTask.merge(tree, added);
+		iterator = added.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			WordInfo stored = tree.search(info).getElement();
+			index(info, stored);
+			frequencies.add(stored);
+		}
+	}
+
+	private void index(WordInfo info, WordInfo stored) {
+		for (int i = 0; i < info.getFileCount(); i++) {
+			int fileId = info.getFileId(i);
+			while (wordsByFile.size() <= fileId) {
+				wordsByFile.add(null);
+			}
+			List<WordInfo> words = wordsByFile.get(fileId);
+			if (words == null) {
+				words = new ArrayList<>();
+				wordsByFile.set(fileId, words);
+			}
+			words.add(stored);
+		}
+	}
+}
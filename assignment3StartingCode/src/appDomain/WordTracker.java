@@ -1,8 +1,22 @@
 package appDomain;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 import implementations.BSTree;
+import implementations.ShardedBSTree;
+import serialization.MappedIndex;
+import serialization.RepositoryFile;
+import serialization.RepositoryLog;
 import serialization.Serialization;
 import utilities.Iterator;
 
@@ -18,6 +32,10 @@ import utilities.Iterator;
  * </p>
  */
 public class WordTracker {
+	private static final List<String> REPORT_OPTIONS = Arrays.asList("-pf", "-pl", "-po");
+	static final int READ_BUFFER_SIZE = 1 << 18;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
 	/**
 	 * Entry point for the WordTracker application.
 	 * 
@@ -27,171 +45,357 @@ public class WordTracker {
 	 * @throws ClassNotFoundException If the repository file cannot be deserialized.
 	 */
 	public static void main(String[] args) throws IOException, ClassNotFoundException {
-		if (args.length < 2) {
-			System.out.println("Usage: java -jar WordTracker.jar <input.txt> -pf/-pl/-po [-f <output.txt>]");
+		String usage = "Usage: java -jar WordTracker.jar <input.txt>... -pf/-pl/-po [-f <output.txt>] [-tree bst/avl]"
+				+ " [-prefix <text> | -range <from> <to>]"
+				+ "\n       java -jar WordTracker.jar -find <word>..."
+				+ "\n       java -jar WordTracker.jar -top <count>";
+		String baseDir = "res";
+		String repositoryFile = baseDir + File.separator + "repository.dat";
+		String legacyRepositoryFile = baseDir + File.separator + "repository.ser";
+		String indexFile = baseDir + File.separator + "repository.idx";
+		String logFile = baseDir + File.separator + "repository.log";
+
+		if (args.length > 1 && args[0].equals("-find")) {
+			findWords(new File(indexFile), new File(logFile), Arrays.copyOfRange(args, 1, args.length));
+			return;
+		}
+		if (args.length > 0 && args[0].equals("-top")) {
+			if (args.length == 2 && args[1].matches("[1-9][0-9]{0,8}")) {
+				topWords(new File(indexFile), new File(repositoryFile), new File(legacyRepositoryFile),
+						new File(logFile), Integer.parseInt(args[1]));
+			} else {
+				System.out.println(usage);
+			}
 			return;
 		}
 
-		String baseDir = "res";
-		String repositoryFile = baseDir + File.separator + "repository.ser";
+		int optionIndex = 0;
+		while (optionIndex < args.length && !REPORT_OPTIONS.contains(args[optionIndex])) {
+			optionIndex++;
+		}
+		if (optionIndex == 0 || optionIndex == args.length) {
+			System.out.println(usage);
+			return;
+		}
 
-		String inputFile = baseDir + File.separator + args[0];
-		String option = args[1];
-		String outputFile = (args.length == 4 && args[2].equals("-f")) ? baseDir + File.separator + args[3] : null;
+		List<String> inputFiles = expandInputs(baseDir, Arrays.copyOfRange(args, 0, optionIndex));
+		String option = args[optionIndex];
+		String outputFile = null;
+		String treeType = null;
+		String rangeFrom = null;
+		String rangeTo = null;
+		boolean prefix = false;
+		for (int i = optionIndex + 1; i < args.length; i++) {
+			if (args[i].equals("-f") && i + 1 < args.length) {
+				outputFile = baseDir + File.separator + args[++i];
+			} else if (args[i].equals("-tree") && i + 1 < args.length
+					&& (args[i + 1].equals("bst") || args[i + 1].equals("avl"))) {
+				treeType = args[++i];
+			} else if (args[i].equals("-prefix") && i + 1 < args.length && rangeFrom == null) {
+				rangeFrom = args[++i].toLowerCase();
+				prefix = true;
+			} else if (args[i].equals("-range") && i + 2 < args.length && rangeFrom == null
+					&& args[i + 1].compareToIgnoreCase(args[i + 2]) <= 0) {
+				rangeFrom = args[++i].toLowerCase();
+				rangeTo = args[++i].toLowerCase();
+			} else {
+				System.out.println(usage);
+				return;
+			}
+		}
 
 		File repoFile = new File(repositoryFile);
-		BSTree<WordInfo> tree;
+		File legacyRepoFile = new File(legacyRepositoryFile);
+		File repoLogFile = new File(logFile);
+		boolean compact = !repoFile.exists();
+		WordRepository repository;
 		if (repoFile.exists()) {
-			tree = Serialization.loadFromFile(repoFile);
+			repository = RepositoryFile.load(repoFile);
+		} else if (legacyRepoFile.exists()) {
+			System.out.println("Converting " + legacyRepositoryFile + " to " + repositoryFile + ".");
+			repository = new WordRepository(Serialization.loadFromFile(legacyRepoFile));
 		} else {
 			System.out.println("Repository file not found. Creating a new repository.");
-			tree = new BSTree<>();
+			repository = new WordRepository(new BSTree<>("avl".equals(treeType)), new FileTable());
+		}
+		if (repoLogFile.exists()) {
+			RepositoryLog.replay(repoLogFile, repository);
+		}
+		if (treeType != null && repository.getTree().isBalanced() != treeType.equals("avl")) {
+			repository.convert(treeType.equals("avl"));
+			compact = true;
 		}
 
-		processFile(tree, inputFile);
-		Serialization.saveToFile(tree, repositoryFile);
+		FileTable files = repository.getFiles();
+		for (String inputFile : inputFiles) {
+			files.intern(inputFile);
+		}
+		ShardedBSTree<WordInfo> index = IngestTask.newIndex();
+		try {
+			ForkJoinPool.commonPool().invoke(new IngestTask(inputFiles, files, index, 0, inputFiles.size()));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		BSTree<WordInfo> ingested = BSTree.fromSorted(index.inorderIterator(), true);
+		if (!compact) {
+			RepositoryLog.append(repoLogFile, inputFiles, ingested, files);
+			compact = RepositoryLog.needsCompaction(repoLogFile, repoFile);
+		}
+		repository.removeFiles(inputFiles);
+		repository.merge(ingested);
+		BSTree<WordInfo> tree = repository.getTree();
+		if (compact) {
+			RepositoryLog.compact(repoLogFile, repository, repoFile, new File(indexFile));
+		}
 
 		boolean hasLines = "-pl".equals(option) || "-po".equals(option);
 		boolean hasTotal = "-po".equals(option);
 
-		PrintStream fileStream = outputFile != null ? new PrintStream(new FileOutputStream(outputFile)) : null;
-
-		if (fileStream != null) {
-			if (option.equals("-pf")) {
-				System.out.println("Writing pf format");
-			}
-			if (option.equals("-pl")) {
-				System.out.println("Writing pl format");
-			}
-			if (option.equals("-po")) {
-				System.out.println("Writing po format");
+		Iterator<WordInfo> words;
+		if (prefix) {
+			System.out.println("Writing " + option.substring(1) + " format for words starting with " + rangeFrom);
+			words = prefixIterator(tree, rangeFrom);
+		} else if (rangeFrom != null) {
+			System.out.println("Writing " + option.substring(1) + " format for words from " + rangeFrom + " to "
+					+ rangeTo);
+			words = tree.rangeIterator(new WordInfo(rangeFrom), true, new WordInfo(rangeTo), true);
+		} else {
+			System.out.println("Writing " + option.substring(1) + " format");
+			words = null;
+		}
+		Writer console = new BufferedWriter(new OutputStreamWriter(System.out), WRITE_BUFFER_SIZE);
+		if (outputFile != null) {
+			try (Writer fileWriter = new BufferedWriter(new FileWriter(outputFile), WRITE_BUFFER_SIZE)) {
+				writeReport(new ReportWriter(files, hasLines, hasTotal, fileWriter, console), tree, words);
 			}
-			outputToFile(tree, fileStream, hasLines, hasTotal);
-			outputToFile(tree, System.out, hasLines, hasTotal);
 			System.out.println("\nExporting file to: " + outputFile);
 		} else {
-			if (option.equals("-pf")) {
-				System.out.println("Writing pf format");
-			}
-			if (option.equals("-pl")) {
-				System.out.println("Writing pl format");
-			}
-			if (option.equals("-po")) {
-				System.out.println("Writing po format");
-			}
-			outputToFile(tree, System.out, hasLines, hasTotal);
+			writeReport(new ReportWriter(files, hasLines, hasTotal, console), tree, words);
 			System.out.println("\nNot exporting file");
 		}
 
 	}
 
 	/**
-	 * Processes the input file and updates the word information in the tree.
+	 * Writes a report of the words returned by an iterator or, when there is
+	 * none, of the whole tree in constant extra memory.
 	 * 
-	 * @param tree      The BST storing word information.
-	 * @param inputFile The input file to process.
-	 * @throws IOException If an error occurs while reading the file.
+	 * @param report The report writer.
+	 * @param tree   The BST storing word information.
+	 * @param words  An iterator over the words to report, or null for all words.
+	 * @throws IOException If an error occurs while writing the report.
 	 */
-	private static void processFile(BSTree<WordInfo> tree, String inputFile) throws IOException {
-		// Remove any existing entries from the input file
-		Iterator<WordInfo> iterator = tree.inorderIterator();
-		List<WordInfo> toUpdate = new ArrayList<>();
-
-		while (iterator.hasNext()) {
-			WordInfo info = iterator.next();
-			if (info.getEntries().containsKey(inputFile)) {
-				info.removeEntriesFromFile(inputFile);
-				toUpdate.add(info);
-			}
+	private static void writeReport(ReportWriter report, BSTree<WordInfo> tree, Iterator<WordInfo> words)
+			throws IOException {
+		if (words == null) {
+			report.write(tree);
+		} else {
+			report.write(words);
 		}
+	}
 
-		try (Scanner scanner = new Scanner(new File(inputFile))) {
-			int lineNumber = 0;
-
-			while (scanner.hasNextLine()) {
-				String line = scanner.nextLine();
-				lineNumber++;
-
-				String normalizedLine = line.replaceAll("'", "");
-
-				String[] words = normalizedLine.split("\\W+"); //
-				for (String word : words) {
-					if (!word.isEmpty()) {
-						String normalizedWord = word.toLowerCase();
-
-						WordInfo newInfo = new WordInfo(normalizedWord);
-						newInfo.addEntries(inputFile, lineNumber);
+	/**
+	 * Creates an iterator over the words of the tree that start with a prefix.
+	 * Those words form one range of the alphabetical order: from the prefix
+	 * itself up to, but excluding, the prefix with its last character
+	 * incremented. The iterator seeks straight to the first of them, so the rest
+	 * of the tree is never visited.
+	 * 
+	 * @param tree   The BST storing word information.
+	 * @param prefix The prefix the words start with.
+	 * @return An iterator over the matching words, in alphabetical order.
+	 */
+	private static Iterator<WordInfo> prefixIterator(BSTree<WordInfo> tree, String prefix) {
+		int end = prefix.length();
+		while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+			end--;
+		}
+		if (end == 0) {
+			return tree.rangeIterator(new WordInfo(prefix), true, null, false);
+		}
+		String upper = prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+		return tree.rangeIterator(new WordInfo(prefix), true, new WordInfo(upper), false);
+	}
 
-						WordInfo existingInfo = findInTree(tree, normalizedWord);
-						if (existingInfo != null) {
-							existingInfo.merge(newInfo);
-						} else {
-							tree.add(newInfo);
-						}
-					}
+	/**
+	 * Prints the full word information of the given words, answered from the
+	 * memory-mapped repository index and the updates logged since it was written,
+	 * without loading the repository.
+	 * 
+	 * @param indexFile The repository index file.
+	 * @param logFile   The repository log file.
+	 * @param words     The words to look up.
+	 * @throws IOException If an error occurs while opening the index or the log.
+	 */
+	private static void findWords(File indexFile, File logFile, String[] words) throws IOException {
+		if (!indexFile.exists()) {
+			System.out.println("Repository index not found. Process a file first.");
+			return;
+		}
+		try (MappedIndex index = MappedIndex.open(indexFile)) {
+			ReportWriter report = new ReportWriter(index.getFiles(), true, true,
+					new BufferedWriter(new OutputStreamWriter(System.out)));
+			for (String word : words) {
+				WordInfo info = index.lookup(word.toLowerCase());
+				if (logFile.exists()) {
+					info = RepositoryLog.lookup(logFile, word.toLowerCase(), info, index.getFiles());
+				}
+				if (info != null) {
+					report.writeLine(info);
+					report.flush();
+				} else {
+					System.out.println("Key : ===" + word.toLowerCase() + "=== not found");
 				}
 			}
 		}
-
 	}
 
 	/**
-	 * Finds information for a specific word in the tree.
+	 * Prints the most frequent words of the repository with their files and
+	 * number of entries, most frequent first. The words are read from the
+	 * frequency order stored in the repository index, so only the words printed
+	 * are decoded and the report costs O(K) for K words. Updates logged since the
+	 * index was written are merged into that order by
+	 * {@link RepositoryLog#byFrequency(File, MappedIndex)}, which adds O(log n)
+	 * for every word the log changed. Only an index written before the frequency
+	 * order was stored, or a missing index, loads the whole repository.
 	 * 
-	 * @param tree The BST storing word information.
-	 * @param word The word to find.
-	 * @return The corresponding WordInfo object, or null if not found.
+	 * @param indexFile      The repository index file.
+	 * @param repoFile       The repository file.
+	 * @param legacyRepoFile The repository file written by Java serialization.
+	 * @param logFile        The repository log file.
+	 * @param count          The number of words to print.
+	 * @throws IOException            If an error occurs while loading the
+	 *                                repository.
+	 * @throws ClassNotFoundException If the legacy repository cannot be
+	 *                                deserialized.
 	 */
-	private static WordInfo findInTree(BSTree<WordInfo> tree, String word) {
-		Iterator<WordInfo> iterator = tree.inorderIterator();
-		while (iterator.hasNext()) {
-			WordInfo info = iterator.next();
-			if (info.getWord().equals(word)) {
-				return info;
+	private static void topWords(File indexFile, File repoFile, File legacyRepoFile, File logFile, int count)
+			throws IOException, ClassNotFoundException {
+		if (indexFile.exists()) {
+			try (MappedIndex index = MappedIndex.open(indexFile)) {
+				Iterator<WordInfo> words = logFile.exists() ? RepositoryLog.byFrequency(logFile, index)
+						: index.byFrequency();
+				if (words != null) {
+					writeTopWords(index.getFiles(), words, count);
+					return;
+				}
 			}
 		}
-		return null;
+
+		WordRepository repository;
+		if (repoFile.exists()) {
+			repository = RepositoryFile.load(repoFile);
+		} else if (legacyRepoFile.exists()) {
+			repository = new WordRepository(Serialization.loadFromFile(legacyRepoFile));
+		} else {
+			System.out.println("Repository file not found. Process a file first.");
+			return;
+		}
+		if (logFile.exists()) {
+			RepositoryLog.replay(logFile, repository);
+		}
+
+		writeTopWords(repository.getFiles(), repository.byFrequency(), count);
 	}
 
 	/**
-	 * Formats information for output.
+	 * Prints the first words of a frequency order with their files and number of
+	 * entries.
 	 * 
-	 * @param info	The information to format.
-	 * @param hasLines     	Whether to include line numbers.
-	 * @param hasTotal 		Whether to include word counts.
-	 * @return A formatted string representing the information.
+	 * @param files The file table the file ids of the words refer to.
+	 * @param words An iterator over the words, most frequent first.
+	 * @param count The number of words to print.
+	 * @throws IOException If an error occurs while writing the report.
 	 */
-	private static String formatOutput(WordInfo info, boolean hasLines, boolean hasTotal) {
-		StringBuilder sb = new StringBuilder("Key : ===" + info.getWord() + "=== ");
-		if (hasTotal) {
-			sb.append("number of entries: ").append(info.getTotal());
+	private static void writeTopWords(FileTable files, Iterator<WordInfo> words, int count) throws IOException {
+		System.out.println("Writing the " + count + " most frequent words");
+		ReportWriter report = new ReportWriter(files, false, true,
+				new BufferedWriter(new OutputStreamWriter(System.out), WRITE_BUFFER_SIZE));
+		for (int i = 0; i < count && words.hasNext(); i++) {
+			report.writeLine(words.next());
 		}
+		report.flush();
+	}
 
-		for (Map.Entry<String, List<Integer>> entry : info.getEntries().entrySet()) {
-			sb.append(" found in file: ").append(entry.getKey());
-			if (hasLines) {
-				String lineNumbers = entry.getValue().toString().replace("[", "").replace("]", "");
-				sb.append(" on lines: ").append(lineNumbers).append(",");
+	/**
+	 * Expands the input arguments into the list of files to process. An argument
+	 * naming a directory stands for every text file below it, and an argument
+	 * containing glob characters stands for the matching files in its directory.
+	 * 
+	 * @param baseDir The directory the input arguments are relative to.
+	 * @param inputs  The input arguments from the command line.
+	 * @return The distinct input files, in command-line order.
+	 * @throws IOException If an error occurs while listing a directory.
+	 */
+	private static List<String> expandInputs(String baseDir, String[] inputs) throws IOException {
+		Set<String> files = new LinkedHashSet<>();
+		for (String input : inputs) {
+			Path path = Paths.get(baseDir, input);
+			if (input.matches(".*[*?\\[{].*")) {
+				Path dir = path.getParent();
+				PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+				try (Stream<Path> stream = Files.list(dir)) {
+					stream.filter(p -> Files.isRegularFile(p) && matcher.matches(p.getFileName()))
+							.sorted().forEach(p -> files.add(p.toString()));
+				}
+			} else if (Files.isDirectory(path)) {
+				try (Stream<Path> stream = Files.walk(path)) {
+					stream.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".txt"))
+							.sorted().forEach(p -> files.add(p.toString()));
+				}
+			} else {
+				files.add(path.toString());
 			}
 		}
-		return sb.toString();
+		return new ArrayList<>(files);
 	}
 
 	/**
-	 * Outputs word information to the specified PrintStream.
+	 * Processes the input file and adds its word information to the index. The
+	 * file is read straight from its channel into a reusable byte buffer and
+	 * decoded chunk by chunk into a reusable char buffer, which is split into
+	 * words by a {@link Tokenizer}. A character whose bytes straddle two reads is
+	 * completed by the next one, and the tokenizer carries words and line numbers
+	 * across chunks, so files of any size are read in constant memory. Malformed
+	 * input is replaced with the replacement character, which ends the word it
+	 * interrupts, so a file with a few bad bytes is still read to its end. The
+	 * postings of every word are sealed once the whole file has been read.
 	 * 
-	 * @param tree     The BST storing word information.
-	 * @param out      The PrintStream to write output to.
-	 * @param hasLines Whether to include line numbers in the output.
-	 * @param hasTotal Whether to include total word count in the output.
+	 * @param index     The index storing word information.
+	 * @param inputFile The input file to process.
+	 * @param fileId    The id of the input file in the file table.
+	 * @throws IOException If an error occurs while reading the file.
 	 */
-
-	private static void outputToFile(BSTree<WordInfo> tree, PrintStream out, boolean hasLines, boolean hasTotal) {
-		Iterator<WordInfo> iterator = tree.inorderIterator();
-		while (iterator.hasNext()) {
-			WordInfo info = iterator.next();
-			out.println(formatOutput(info, hasLines, hasTotal));
+	static void processFile(ShardedBSTree<WordInfo> index, String inputFile, int fileId) throws IOException {
+		Tokenizer tokenizer = new Tokenizer(index, fileId);
+		CharsetDecoder decoder = Charset.defaultCharset().newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer bytes = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		CharBuffer chars = CharBuffer.allocate(READ_BUFFER_SIZE);
+		try (FileChannel channel = FileChannel.open(Paths.get(inputFile), StandardOpenOption.READ)) {
+			boolean endOfInput = false;
+			while (!endOfInput) {
+				endOfInput = channel.read(bytes) < 0;
+				bytes.flip();
+				CoderResult result;
+				do {
+					result = decoder.decode(bytes, chars, endOfInput);
+					chars.flip();
+					tokenizer.feed(chars);
+					chars.clear();
+				} while (result.isOverflow());
+				bytes.compact();
+			}
+			while (decoder.flush(chars).isOverflow()) {
+				chars.flip();
+				tokenizer.feed(chars);
+				chars.clear();
+			}
+			chars.flip();
+			tokenizer.feed(chars);
 		}
+		tokenizer.finish();
 	}
 
-}
\ No newline at end of file
+}
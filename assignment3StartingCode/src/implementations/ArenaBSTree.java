@@ -0,0 +1,663 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Binary search tree whose nodes are stored in parallel arrays instead of
+ * separate objects.
+ *
+ * <p>
+ * A node is an index into the arrays: its element is in {@code keys}, its
+ * children are the indices in {@code left} and {@code right}, and in balanced
+ * mode the height of its subtree is in {@code heights}. A node costs no object
+ * header and no references besides its element, a descent reads neighbouring
+ * slots of a few arrays instead of chasing pointers across the heap, and the
+ * garbage collector sees four arrays instead of one object per element. The
+ * slots of removed nodes are chained into a free list through {@code left} and
+ * reused by later adds, and the arrays double when they are full. A tree read
+ * back from a stream stores its nodes in in-order position, so neighbouring
+ * elements sit in neighbouring slots.
+ * </p>
+ *
+ * <p>
+ * The tree behaves like {@link BSTree}, including its balanced mode. The nodes
+ * returned by {@link #getRoot()}, {@link #search(Comparable)} and
+ * {@link #addIfAbsent(Comparable)} are views of a slot: their children are read
+ * from the arrays when asked for, and they cannot be relinked. A view is only
+ * valid while its element is in the tree. {@link #removeMin()} and
+ * {@link #removeMax()} return a detached node holding the removed element,
+ * since the slot is reused.
+ * </p>
+ *
+ * @param <E> Type of elements stored in the tree, must implement Comparable.
+ */
+public class ArenaBSTree<E extends Comparable<? super E>> implements BSTreeADT<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int NIL = -1;
+	private static final int INITIAL_CAPACITY = 16;
+
+	private boolean balanced;
+	private transient Object[] keys;
+	private transient int[] left;
+	private transient int[] right;
+	private transient byte[] heights;
+	private transient int root;
+	private transient int size;
+	private transient int used;
+	private transient int free;
+	private transient int[] descentPath;
+	private transient int height;
+	private transient boolean heightStale;
+
+	/**
+	 * Default constructor. Initializes an empty tree.
+	 */
+	public ArenaBSTree() {
+		this(false);
+	}
+
+	/**
+	 * Constructor to initialize an empty tree, optionally in balanced mode.
+	 *
+	 * @param balanced true to keep the tree AVL-balanced on every add and removal.
+	 */
+	public ArenaBSTree(boolean balanced) {
+		this.balanced = balanced;
+		allocateArrays(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructor to initialize the tree with a single element as the root.
+	 *
+	 * @param element the root element of the tree.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public ArenaBSTree(E element) throws NullPointerException {
+		this(false);
+		add(element);
+	}
+
+	private void allocateArrays(int capacity) {
+		keys = new Object[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		heights = new byte[capacity];
+		descentPath = new int[32];
+		root = NIL;
+		free = NIL;
+	}
+
+	/**
+	 * Checks if the tree rebalances itself on every add and removal.
+	 *
+	 * @return true if the tree was created in balanced mode.
+	 */
+	public boolean isBalanced() {
+		return balanced;
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException {
+		if (root == NIL) {
+			throw new NullPointerException("The tree is empty.");
+		}
+		return new Node(root);
+	}
+
+	@Override
+	public int getHeight() {
+		if (balanced) {
+			return heightOf(root);
+		}
+		if (heightStale) {
+			height = calculateHeight();
+			heightStale = false;
+		}
+		return height;
+	}
+
+	/**
+	 * Measures the height of the tree by visiting it one level at a time, with no
+	 * recursion.
+	 *
+	 * @return the number of levels of the tree.
+	 */
+	private int calculateHeight() {
+		int levels = 0;
+		int[] queue = new int[Math.max(size, 1)];
+		int head = 0;
+		int tail = 0;
+		if (root != NIL) {
+			queue[tail++] = root;
+		}
+		while (head < tail) {
+			levels++;
+			for (int levelEnd = tail; head < levelEnd; head++) {
+				int node = queue[head];
+				if (left[node] != NIL) {
+					queue[tail++] = left[node];
+				}
+				if (right[node] != NIL) {
+					queue[tail++] = right[node];
+				}
+			}
+		}
+		return levels;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == NIL;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(keys, 0, used, null);
+		used = 0;
+		free = NIL;
+		root = NIL;
+		size = 0;
+		height = 0;
+		heightStale = false;
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		return find(entry) != NIL;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Cannot search a null value.");
+		}
+		int node = find(entry);
+		return node == NIL ? null : new Node(node);
+	}
+
+	private int find(E entry) {
+		int node = root;
+		while (node != NIL) {
+			int comparison = entry.compareTo(elementAt(node));
+			if (comparison == 0) {
+				return node;
+			}
+			node = comparison < 0 ? left[node] : right[node];
+		}
+		return NIL;
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		int sizeBefore = size;
+		insert(newEntry);
+		return size != sizeBefore;
+	}
+
+	@Override
+	public BSTreeNode<E> addIfAbsent(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+		return new Node(insert(newEntry));
+	}
+
+	/**
+	 * Finds the node holding an equal element, or adds a node for the element in
+	 * a single descent and rebalances the path to it in balanced mode.
+	 *
+	 * @param newEntry the element to find or add.
+	 * @return the index of the node holding the element.
+	 */
+	private int insert(E newEntry) {
+		if (root == NIL) {
+			root = allocate(newEntry);
+			size++;
+			height = 1;
+			return root;
+		}
+
+		int depth = 0;
+		int current = root;
+		while (true) {
+			if (depth == descentPath.length) {
+				descentPath = Arrays.copyOf(descentPath, depth * 2);
+			}
+			descentPath[depth++] = current;
+			int comparison = newEntry.compareTo(elementAt(current));
+			if (comparison == 0) {
+				return current;
+			}
+			int child = comparison < 0 ? left[current] : right[current];
+			if (child == NIL) {
+				int added = allocate(newEntry);
+				if (comparison < 0) {
+					left[current] = added;
+				} else {
+					right[current] = added;
+				}
+				size++;
+				if (balanced) {
+					rebalancePath(depth);
+				}
+				height = Math.max(height, depth + 1);
+				return added;
+			}
+			current = child;
+		}
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin() {
+		return removeExtreme(true);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax() {
+		return removeExtreme(false);
+	}
+
+	/**
+	 * Removes the smallest or largest node, rebalancing the path to it in
+	 * balanced mode, and puts its slot on the free list.
+	 *
+	 * @param min true to remove the smallest node, false for the largest.
+	 * @return a detached node holding the removed element, or null if the tree is
+	 *         empty.
+	 */
+	private BSTreeNode<E> removeExtreme(boolean min) {
+		if (root == NIL) {
+			return null;
+		}
+
+		int depth = 0;
+		int current = root;
+		int next = min ? left[current] : right[current];
+		while (next != NIL) {
+			if (depth == descentPath.length) {
+				descentPath = Arrays.copyOf(descentPath, depth * 2);
+			}
+			descentPath[depth++] = current;
+			current = next;
+			next = min ? left[current] : right[current];
+		}
+
+		int replacement = min ? right[current] : left[current];
+		if (depth == 0) {
+			root = replacement;
+		} else if (min) {
+			left[descentPath[depth - 1]] = replacement;
+		} else {
+			right[descentPath[depth - 1]] = replacement;
+		}
+		size--;
+		if (balanced) {
+			rebalancePath(depth);
+		} else {
+			heightStale = true;
+		}
+
+		E element = elementAt(current);
+		release(current);
+		return new BSTreeNode<>(element);
+	}
+
+	/**
+	 * Takes a slot from the free list, or the next unused slot, growing the
+	 * arrays when they are full.
+	 *
+	 * @param element the element to store in the slot.
+	 * @return the index of the new leaf node.
+	 */
+	private int allocate(E element) {
+		int node;
+		if (free != NIL) {
+			node = free;
+			free = left[node];
+		} else {
+			if (used == keys.length) {
+				int capacity = keys.length * 2;
+				keys = Arrays.copyOf(keys, capacity);
+				left = Arrays.copyOf(left, capacity);
+				right = Arrays.copyOf(right, capacity);
+				heights = Arrays.copyOf(heights, capacity);
+			}
+			node = used++;
+		}
+		keys[node] = element;
+		left[node] = NIL;
+		right[node] = NIL;
+		heights[node] = 1;
+		return node;
+	}
+
+	/**
+	 * Puts the slot of a removed node on the free list and drops its element.
+	 *
+	 * @param node the index of the removed node.
+	 */
+	private void release(int node) {
+		keys[node] = null;
+		left[node] = free;
+		free = node;
+	}
+
+	@SuppressWarnings("unchecked")
+	private E elementAt(int node) {
+		return (E) keys[node];
+	}
+
+	/**
+	 * Walks the recorded root-to-parent path bottom-up, updating heights and
+	 * rotating any node that went out of balance.
+	 *
+	 * @param depth the number of nodes recorded in the path.
+	 */
+	private void rebalancePath(int depth) {
+		for (int i = depth - 1; i >= 0; i--) {
+			int node = descentPath[i];
+			int subtree = rebalance(node);
+			if (subtree != node) {
+				if (i == 0) {
+					root = subtree;
+				} else if (left[descentPath[i - 1]] == node) {
+					left[descentPath[i - 1]] = subtree;
+				} else {
+					right[descentPath[i - 1]] = subtree;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the AVL balance of a single node whose children are balanced.
+	 *
+	 * @param node the node to rebalance.
+	 * @return the root of the rebalanced subtree.
+	 */
+	private int rebalance(int node) {
+		updateHeight(node);
+		int balance = heightOf(left[node]) - heightOf(right[node]);
+		if (balance > 1) {
+			if (heightOf(left[left[node]]) < heightOf(right[left[node]])) {
+				left[node] = rotateLeft(left[node]);
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (heightOf(right[right[node]]) < heightOf(left[right[node]])) {
+				right[node] = rotateRight(right[node]);
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private int rotateLeft(int node) {
+		int pivot = right[node];
+		right[node] = left[pivot];
+		left[pivot] = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private int rotateRight(int node) {
+		int pivot = left[node];
+		left[node] = right[pivot];
+		right[pivot] = node;
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private void updateHeight(int node) {
+		heights[node] = (byte) (1 + Math.max(heightOf(left[node]), heightOf(right[node])));
+	}
+
+	private int heightOf(int node) {
+		return node == NIL ? 0 : heights[node];
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return new Iterator<E>() {
+			private final IndexStack stack = new IndexStack();
+
+			{
+				pushLeft(root);
+			}
+
+			private void pushLeft(int node) {
+				while (node != NIL) {
+					stack.push(node);
+					node = left[node];
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				int node = stack.pop();
+				pushLeft(right[node]);
+				return elementAt(node);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return new Iterator<E>() {
+			private final IndexStack stack = new IndexStack();
+
+			{
+				if (root != NIL) {
+					stack.push(root);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				int node = stack.pop();
+				if (right[node] != NIL) {
+					stack.push(right[node]);
+				}
+				if (left[node] != NIL) {
+					stack.push(left[node]);
+				}
+				return elementAt(node);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return new Iterator<E>() {
+			private final IndexStack stack = new IndexStack();
+
+			{
+				descend(root);
+			}
+
+			/**
+			 * Pushes the path from a node down to the first node of its subtree in
+			 * post-order, preferring left children over right ones.
+			 */
+			private void descend(int node) {
+				while (node != NIL) {
+					stack.push(node);
+					node = left[node] != NIL ? left[node] : right[node];
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				int node = stack.pop();
+				if (!stack.isEmpty() && left[stack.peek()] == node) {
+					descend(right[stack.peek()]);
+				}
+				return elementAt(node);
+			}
+		};
+	}
+
+	/**
+	 * Growable stack of node indices, so the iterators box nothing.
+	 */
+	private static final class IndexStack {
+		private int[] items = new int[16];
+		private int count;
+
+		void push(int node) {
+			if (count == items.length) {
+				items = Arrays.copyOf(items, count * 2);
+			}
+			items[count++] = node;
+		}
+
+		int pop() {
+			return items[--count];
+		}
+
+		int peek() {
+			return items[count - 1];
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+	}
+
+	/**
+	 * View of a node slot. Its element and children are read from the arrays when
+	 * asked for.
+	 */
+	private final class Node extends NodeView<E> {
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		private Node(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public E getElement() {
+			return elementAt(index);
+		}
+
+		@Override
+		public void setElement(E element) {
+			keys[index] = element;
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft() {
+			return left[index] == NIL ? null : new Node(left[index]);
+		}
+
+		@Override
+		public BSTreeNode<E> getRight() {
+			return right[index] == NIL ? null : new Node(right[index]);
+		}
+	}
+
+	/**
+	 * Writes the tree as its size followed by its elements in order.
+	 *
+	 * @param out the stream to write the tree to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		Iterator<E> iterator = inorderIterator();
+		while (iterator.hasNext()) {
+			out.writeObject(iterator.next());
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #writeObject(ObjectOutputStream)}. Every
+	 * element is stored in the slot of its in-order position and the links of a
+	 * perfectly balanced tree are built over the slots in O(n).
+	 *
+	 * @param in the stream to read the tree from.
+	 * @throws IOException            if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of an element cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int count = in.readInt();
+		allocateArrays(Math.max(count, INITIAL_CAPACITY));
+		for (int i = 0; i < count; i++) {
+			keys[i] = in.readObject();
+		}
+		used = count;
+		size = count;
+		root = link(0, count);
+		height = heightOf(root);
+	}
+
+	/**
+	 * Links the slots in the range [from, to) into a balanced subtree.
+	 *
+	 * @param from index of the first slot of the subtree.
+	 * @param to   index one past the last slot of the subtree.
+	 * @return the index of the root of the subtree, or NIL if the range is empty.
+	 */
+	private int link(int from, int to) {
+		if (from >= to) {
+			return NIL;
+		}
+		int middle = (from + to) >>> 1;
+		left[middle] = link(from, middle);
+		right[middle] = link(middle + 1, to);
+		updateHeight(middle);
+		return middle;
+	}
+}
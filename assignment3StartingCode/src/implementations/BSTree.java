@@ -1,8 +1,17 @@
 package implementations;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.NoSuchElementException;
-import java.util.Stack;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import utilities.BSTreeADT;
 import utilities.Iterator;
@@ -10,6 +19,26 @@ import utilities.Iterator;
 /**
  * Binary Search Tree (BST) implementation for storing elements in a hierarchical structure.
  * 
+ * <p>
+ * A tree created in balanced mode keeps itself AVL-balanced: every add and
+ * removal rebalances the nodes along the changed path, so the height stays
+ * O(log n) even when elements arrive in sorted order.
+ * </p>
+ * 
+ * <p>
+ * The height is never measured recursively. A balanced tree keeps the height of
+ * every node. A plain tree keeps the depth of its deepest node, which only grows
+ * on an add; after a removal it is measured again, level by level, the next time
+ * it is asked for, so even a degenerate tree of millions of nodes cannot
+ * overflow the stack.
+ * </p>
+ * 
+ * <p>
+ * Every node also records the size of its subtree, kept up to date by adds,
+ * removals and rotations in both modes. {@link #rank(Comparable)} and
+ * {@link #select(int)} use it to answer order-statistic queries in O(height).
+ * </p>
+ * 
  * @param <E> Type of elements stored in the tree, must implement Comparable.
  */
 public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Serializable {
@@ -18,6 +47,10 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 
 	private BSTreeNode<E> root;
 	private int size;
+	private boolean balanced;
+	private transient BSTreeNode<E>[] descentPath;
+	private transient int height;
+	private transient boolean heightStale;
 	
 	/**
      * Default constructor. Initializes an empty binary search tree.
@@ -27,6 +60,16 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 		size = 0;
 	}
 
+	/**
+     * Constructor to initialize an empty tree, optionally in balanced mode.
+     * 
+     * @param balanced true to keep the tree AVL-balanced on every add and removal.
+     */
+	public BSTree(boolean balanced) {
+		this();
+		this.balanced = balanced;
+	}
+
 	/**
      * Constructor to initialize the tree with a single element as the root.
      * 
@@ -34,6 +77,8 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
      */
 	public BSTree(E element) {
 		this.root = new BSTreeNode<E>(element, null, null);
+		this.size = 1;
+		this.height = 1;
 	}
 
 	@Override
@@ -44,18 +89,128 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 		return root;
 	}
 
+	/**
+	 * Builds a perfectly balanced tree from elements that are already sorted, in
+	 * O(n) time. The middle element of every range becomes the root of its
+	 * subtree, so the resulting height is the minimum possible.
+	 * 
+	 * @param <E>      Type of elements stored in the tree.
+	 * @param sorted   the elements in strictly ascending order.
+	 * @param balanced true to keep the built tree balanced on later adds and removals.
+	 * @return a new tree holding the given elements.
+	 * @throws NullPointerException     if the array or one of its elements is null.
+	 * @throws IllegalArgumentException if the elements are not strictly ascending.
+	 */
+	public static <E extends Comparable<? super E>> BSTree<E> fromSorted(E[] sorted, boolean balanced)
+			throws NullPointerException, IllegalArgumentException {
+		return fromSorted(Arrays.asList(sorted), balanced);
+	}
+
+	/**
+	 * Builds a perfectly balanced tree from the elements returned by an iterator
+	 * that yields them in sorted order, such as the in-order iterator of another
+	 * tree, in O(n) time.
+	 * 
+	 * @param <E>      Type of elements stored in the tree.
+	 * @param sorted   an iterator returning the elements in strictly ascending order.
+	 * @param balanced true to keep the built tree balanced on later adds and removals.
+	 * @return a new tree holding the iterated elements.
+	 * @throws NullPointerException     if one of the elements is null.
+	 * @throws IllegalArgumentException if the elements are not strictly ascending.
+	 */
+	public static <E extends Comparable<? super E>> BSTree<E> fromSorted(Iterator<E> sorted, boolean balanced)
+			throws NullPointerException, IllegalArgumentException {
+		List<E> elements = new ArrayList<>();
+		while (sorted.hasNext()) {
+			elements.add(sorted.next());
+		}
+		return fromSorted(elements, balanced);
+	}
+
+	private static <E extends Comparable<? super E>> BSTree<E> fromSorted(List<E> sorted, boolean balanced) {
+		for (int i = 0; i < sorted.size(); i++) {
+			E element = sorted.get(i);
+			if (element == null) {
+				throw new NullPointerException("Cannot add a null value.");
+			}
+			if (i > 0 && sorted.get(i - 1).compareTo(element) >= 0) {
+				throw new IllegalArgumentException("Elements must be in strictly ascending order.");
+			}
+		}
+
+		BSTree<E> tree = new BSTree<>(balanced);
+		tree.root = buildBalanced(sorted, 0, sorted.size());
+		tree.size = sorted.size();
+		tree.height = heightOf(tree.root);
+		return tree;
+	}
+
+	/**
+	 * Builds a balanced subtree from the sorted elements in the range [from, to).
+	 * 
+	 * @param sorted the sorted elements.
+	 * @param from   index of the first element of the subtree.
+	 * @param to     index one past the last element of the subtree.
+	 * @return the root of the subtree, or null if the range is empty.
+	 */
+	static <E> BSTreeNode<E> buildBalanced(List<E> sorted, int from, int to) {
+		if (from >= to) {
+			return null;
+		}
+		int middle = (from + to) >>> 1;
+		BSTreeNode<E> node = new BSTreeNode<E>(sorted.get(middle),
+				buildBalanced(sorted, from, middle), buildBalanced(sorted, middle + 1, to));
+		node.setHeight(1 + Math.max(heightOf(node.getLeft()), heightOf(node.getRight())));
+		node.setSubtreeSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
+		return node;
+	}
+
+	/**
+	 * Checks if the tree rebalances itself on every add and removal.
+	 * 
+	 * @return true if the tree was created in balanced mode.
+	 */
+	public boolean isBalanced() {
+		return balanced;
+	}
+
 	@Override
 	public int getHeight() {
-		return calculateHeight(root);
+		if (balanced) {
+			return heightOf(root);
+		}
+		if (heightStale) {
+			height = calculateHeight();
+			heightStale = false;
+		}
+		return height;
 	}
 	
-	private int calculateHeight(BSTreeNode<E> node) {
-		if (node == null) {
-			return 0;
+	/**
+	 * Measures the height of the tree by visiting it one level at a time, with no
+	 * recursion.
+	 * 
+	 * @return the number of levels of the tree.
+	 */
+	private int calculateHeight() {
+		int levels = 0;
+		ArrayDeque<BSTreeNode<E>> level = new ArrayDeque<>();
+		if (root != null) {
+			level.add(root);
+		}
+		while (!level.isEmpty()) {
+			levels++;
+			for (int remaining = level.size(); remaining > 0; remaining--) {
+				BSTreeNode<E> node = level.poll();
+				if (node.getLeft() != null) {
+					level.add(node.getLeft());
+				}
+				if (node.getRight() != null) {
+					level.add(node.getRight());
+				}
+			}
 		}
-		int leftHeight = calculateHeight(node.getLeft());
-	    int rightHeight = calculateHeight(node.getRight());
-	    return 1 + Math.max(leftHeight, rightHeight);
+		return levels;
 	}
 
 	@Override
@@ -72,6 +227,8 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	public void clear() {
 		root = null;
 		size = 0;
+		height = 0;
+		heightStale = false;
 	}
 
 	@Override
@@ -114,41 +271,255 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	    return null;
 	}
 
+	/**
+	 * Finds the smallest element greater than or equal to the given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the least element not below entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E ceiling(E entry) throws NullPointerException {
+		return elementOf(ceilingNode(root, entry, true));
+	}
+
+	/**
+	 * Finds the smallest element strictly greater than the given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the least element above entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E higher(E entry) throws NullPointerException {
+		return elementOf(ceilingNode(root, entry, false));
+	}
+
+	/**
+	 * Finds the largest element less than or equal to the given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the greatest element not above entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E floor(E entry) throws NullPointerException {
+		return elementOf(floorNode(root, entry, true));
+	}
+
+	/**
+	 * Finds the largest element strictly less than the given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the greatest element below entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E lower(E entry) throws NullPointerException {
+		return elementOf(floorNode(root, entry, false));
+	}
+
+	/**
+	 * Counts the elements of the tree that are smaller than the given one, which
+	 * is the position the element has, or would have, in ascending order. The
+	 * subtree sizes kept in the nodes answer it in a single descent.
+	 * 
+	 * @param entry the element to rank.
+	 * @return the number of elements smaller than entry.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public int rank(E entry) throws NullPointerException {
+		return rankIn(root, entry);
+	}
+
+	/**
+	 * Finds the element at a position of the ascending order in a single descent.
+	 * 
+	 * @param index the zero-based position of the element.
+	 * @return the element with exactly index smaller elements in the tree.
+	 * @throws IndexOutOfBoundsException if index is negative or not less than the
+	 *                                   size of the tree.
+	 */
+	public E select(int index) throws IndexOutOfBoundsException {
+		return selectIn(root, index);
+	}
+
+	static <E extends Comparable<? super E>> int rankIn(BSTreeNode<E> node, E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		int rank = 0;
+		while (node != null) {
+			int comparison = entry.compareTo(node.getElement());
+			if (comparison < 0) {
+				node = node.getLeft();
+			} else {
+				rank += sizeOf(node.getLeft());
+				if (comparison == 0) {
+					break;
+				}
+				rank++;
+				node = node.getRight();
+			}
+		}
+		return rank;
+	}
+
+	static <E> E selectIn(BSTreeNode<E> node, int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= sizeOf(node)) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + sizeOf(node));
+		}
+		while (true) {
+			int leftSize = sizeOf(node.getLeft());
+			if (index < leftSize) {
+				node = node.getLeft();
+			} else if (index == leftSize) {
+				return node.getElement();
+			} else {
+				index -= leftSize + 1;
+				node = node.getRight();
+			}
+		}
+	}
+
+	/**
+	 * Finds, in a single descent, the node holding the smallest element above
+	 * the given one, or equal to it if inclusive.
+	 * 
+	 * @param node      the root of the subtree to search.
+	 * @param entry     the element to compare with.
+	 * @param inclusive true if an equal element qualifies.
+	 * @return the node found, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	static <E extends Comparable<? super E>> BSTreeNode<E> ceilingNode(BSTreeNode<E> node, E entry,
+			boolean inclusive) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		BSTreeNode<E> best = null;
+		while (node != null) {
+			int comparison = entry.compareTo(node.getElement());
+			if (comparison == 0 && inclusive) {
+				return node;
+			}
+			if (comparison < 0) {
+				best = node;
+				node = node.getLeft();
+			} else {
+				node = node.getRight();
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Finds, in a single descent, the node holding the largest element below the
+	 * given one, or equal to it if inclusive.
+	 * 
+	 * @param node      the root of the subtree to search.
+	 * @param entry     the element to compare with.
+	 * @param inclusive true if an equal element qualifies.
+	 * @return the node found, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	static <E extends Comparable<? super E>> BSTreeNode<E> floorNode(BSTreeNode<E> node, E entry,
+			boolean inclusive) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		BSTreeNode<E> best = null;
+		while (node != null) {
+			int comparison = entry.compareTo(node.getElement());
+			if (comparison == 0 && inclusive) {
+				return node;
+			}
+			if (comparison > 0) {
+				best = node;
+				node = node.getRight();
+			} else {
+				node = node.getLeft();
+			}
+		}
+		return best;
+	}
+
+	static <E> E elementOf(BSTreeNode<E> node) {
+		return node == null ? null : node.getElement();
+	}
+
 	@Override
 	public boolean add(E newEntry) throws NullPointerException {
 		if (newEntry == null) {
 			throw new NullPointerException("Cannot add a null value.");
 		}
 
+		int sizeBefore = size;
+		addIfAbsent(newEntry);
+		return size != sizeBefore;
+	}
+
+	@Override
+	public BSTreeNode<E> addIfAbsent(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
 		if (root == null) {
 			root = new BSTreeNode<E>(newEntry);
 			size++;
-			return true;
+			height = 1;
+			return root;
 		}
 
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
 		BSTreeNode<E> current = root;
 		while (true) {
+			if (depth == path.length) {
+				path = descentPath = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth++] = current;
 			int comparison = newEntry.compareTo(current.getElement());
 
 			if (comparison == 0) {
-				return false;
+				return current;
 			} else if (comparison < 0) {
 				if (current.getLeft() == null) {
-					current.setLeft(new BSTreeNode<>(newEntry));
-					size++;
-					return true;
+					BSTreeNode<E> added = new BSTreeNode<>(newEntry);
+					current.setLeft(added);
+					return added(added, path, depth);
 				}
 				current = current.getLeft();
 			} else {
 				if (current.getRight() == null) {
-					current.setRight(new BSTreeNode<>(newEntry));
-					size++;
-					return true;
+					BSTreeNode<E> added = new BSTreeNode<>(newEntry);
+					current.setRight(added);
+					return added(added, path, depth);
 				}
 				current = current.getRight();
 			}
 		}
+	}
 
+	/**
+	 * Updates the tree after a node was linked below the last node of the
+	 * recorded path: the subtree sizes along the path grow by one and, in
+	 * balanced mode, the path is rebalanced.
+	 * 
+	 * @param added the node just added.
+	 * @param path  the nodes visited from the root downwards.
+	 * @param depth the number of nodes recorded in the path.
+	 * @return the added node.
+	 */
+	private BSTreeNode<E> added(BSTreeNode<E> added, BSTreeNode<E>[] path, int depth) {
+		size++;
+		if (balanced) {
+			rebalancePath(path, depth);
+		} else {
+			for (int i = 0; i < depth; i++) {
+				path[i].setSubtreeSize(path[i].getSubtreeSize() + 1);
+				path[i] = null;
+			}
+		}
+		height = Math.max(height, depth + 1);
+		return added;
 	}
 
 	@Override
@@ -157,6 +528,11 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 			return null;
 		}
 		
+		if (balanced) {
+			return removeExtremeBalanced(true);
+		}
+		
+		heightStale = true;
 		if (root.getLeft() == null) {
 			BSTreeNode<E> minNode = root;
 			root = root.getRight();		
@@ -166,10 +542,12 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 		
 		BSTreeNode<E> parent = root;
 	    BSTreeNode<E> current = root.getLeft();
+	    parent.setSubtreeSize(parent.getSubtreeSize() - 1);
 
 	    while (current.getLeft() != null) {
 	        parent = current;
 	        current = current.getLeft();
+	        parent.setSubtreeSize(parent.getSubtreeSize() - 1);
 	    }
 
 	    parent.setLeft(current.getRight());
@@ -183,12 +561,18 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
 	        return null;
 	    }
 
+		if (balanced) {
+			return removeExtremeBalanced(false);
+		}
+
+        heightStale = true;
         BSTreeNode<E> parent = null;
         BSTreeNode<E> current = root;
 
         while (current.getRight() != null) {
             parent = current;
             current = current.getRight();
+            parent.setSubtreeSize(parent.getSubtreeSize() - 1);
         }
 
         if (parent == null) {
@@ -201,136 +585,430 @@ public class BSTree<E extends Comparable<? super E>> implements BSTreeADT<E>, Se
         return current;
 	}
 
-	@Override
-	public Iterator<E> inorderIterator() {
-	    return new InorderIterator<>(root);
+	/**
+	 * Removes the element equal to the given one from the tree. A node with two
+	 * children is replaced by its in-order successor, which is unlinked from the
+	 * bottom of the right subtree. The subtree sizes along the changed path are
+	 * updated and, in balanced mode, the path is rebalanced.
+	 * 
+	 * @param entry the element to remove.
+	 * @return the removed node, or null if no equal element is in the tree.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public BSTreeNode<E> remove(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Cannot remove a null value.");
+		}
+
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		BSTreeNode<E> current = root;
+		while (current != null) {
+			int comparison = entry.compareTo(current.getElement());
+			if (comparison == 0) {
+				break;
+			}
+			if (depth == path.length) {
+				path = descentPath = Arrays.copyOf(path, depth * 2);
+			}
+			path[depth++] = current;
+			current = comparison < 0 ? current.getLeft() : current.getRight();
+		}
+		if (current == null) {
+			Arrays.fill(path, 0, depth, null);
+			return null;
+		}
+
+		BSTreeNode<E> parent = depth == 0 ? null : path[depth - 1];
+		BSTreeNode<E> replacement;
+		if (current.getLeft() == null) {
+			replacement = current.getRight();
+		} else if (current.getRight() == null) {
+			replacement = current.getLeft();
+		} else {
+			if (depth == path.length) {
+				path = descentPath = Arrays.copyOf(path, depth * 2);
+			}
+			int replacementDepth = depth++;
+			BSTreeNode<E> successorParent = current;
+			BSTreeNode<E> successor = current.getRight();
+			while (successor.getLeft() != null) {
+				if (depth == path.length) {
+					path = descentPath = Arrays.copyOf(path, depth * 2);
+				}
+				path[depth++] = successor;
+				successorParent = successor;
+				successor = successor.getLeft();
+			}
+			if (successorParent != current) {
+				successorParent.setLeft(successor.getRight());
+				successor.setRight(current.getRight());
+			}
+			successor.setLeft(current.getLeft());
+			path[replacementDepth] = successor;
+			replacement = successor;
+		}
+
+		if (parent == null) {
+			root = replacement;
+		} else if (parent.getLeft() == current) {
+			parent.setLeft(replacement);
+		} else {
+			parent.setRight(replacement);
+		}
+		size--;
+		if (balanced) {
+			rebalancePath(path, depth);
+		} else {
+			heightStale = true;
+			for (int i = depth - 1; i >= 0; i--) {
+				path[i].setSubtreeSize(1 + sizeOf(path[i].getLeft()) + sizeOf(path[i].getRight()));
+				path[i] = null;
+			}
+		}
+		return current;
 	}
-	
-	//Adapted from: geeksforgeeks
-	//Source: https://www.geeksforgeeks.org/binary-tree-iterator-for-inorder-traversal/
 
-	public class InorderIterator<E> implements Iterator<E> {
-	    private Stack<BSTreeNode<E>> traversal;
+	/**
+	 * Removes the smallest or largest node of a balanced tree and rebalances the
+	 * nodes on the way back up to the root.
+	 * 
+	 * @param min true to remove the smallest node, false for the largest.
+	 * @return the removed node.
+	 */
+	private BSTreeNode<E> removeExtremeBalanced(boolean min) {
+		BSTreeNode<E>[] path = pathBuffer();
+		int depth = 0;
+		BSTreeNode<E> current = root;
+		BSTreeNode<E> next = min ? current.getLeft() : current.getRight();
+		while (next != null) {
+			path[depth++] = current;
+			current = next;
+			next = min ? current.getLeft() : current.getRight();
+		}
 
-	    public InorderIterator(BSTreeNode<E> root) {
-	        traversal = new Stack<>();
-	        moveLeft(root);
-	    }
+		BSTreeNode<E> replacement = min ? current.getRight() : current.getLeft();
+		if (depth == 0) {
+			root = replacement;
+		} else if (min) {
+			path[depth - 1].setLeft(replacement);
+		} else {
+			path[depth - 1].setRight(replacement);
+		}
+		size--;
+		rebalancePath(path, depth);
+		return current;
+	}
 
-	    private void moveLeft(BSTreeNode<E> current) {
-	        while (current != null) {
-	            traversal.push(current);
-	            current = current.getLeft();
-	        }
-	    }
+	/**
+	 * Returns a reusable buffer large enough to hold any root-to-leaf path of the
+	 * balanced tree. Descents through a plain tree grow it as they go.
+	 * 
+	 * @return the path buffer.
+	 */
+	@SuppressWarnings("unchecked")
+	private BSTreeNode<E>[] pathBuffer() {
+		int needed = heightOf(root) + 1;
+		if (descentPath == null || descentPath.length < needed) {
+			descentPath = (BSTreeNode<E>[]) new BSTreeNode<?>[Math.max(needed, 32)];
+		}
+		return descentPath;
+	}
 
-	    @Override
-	    public boolean hasNext() {
-	        return !traversal.isEmpty();
-	    }
+	/**
+	 * Walks a recorded root-to-parent path bottom-up, updating heights and
+	 * rotating any node that went out of balance. Rotated subtrees are
+	 * re-attached to their parent, or become the new root.
+	 * 
+	 * @param path  the nodes visited from the root downwards.
+	 * @param depth the number of nodes recorded in the path.
+	 */
+	private void rebalancePath(BSTreeNode<E>[] path, int depth) {
+		for (int i = depth - 1; i >= 0; i--) {
+			BSTreeNode<E> node = path[i];
+			path[i] = null;
+			BSTreeNode<E> subtree = rebalance(node);
+			if (subtree != node) {
+				if (i == 0) {
+					root = subtree;
+				} else if (path[i - 1].getLeft() == node) {
+					path[i - 1].setLeft(subtree);
+				} else {
+					path[i - 1].setRight(subtree);
+				}
+			}
+		}
+	}
 
-	    @Override
-	    public E next() {
-	        if (!hasNext()) {
-	            throw new NoSuchElementException();
-	        }
+	/**
+	 * Restores the AVL balance of a single node whose children are balanced.
+	 * 
+	 * @param node the node to rebalance.
+	 * @return the root of the rebalanced subtree.
+	 */
+	private BSTreeNode<E> rebalance(BSTreeNode<E> node) {
+		updateNode(node);
+		int balance = heightOf(node.getLeft()) - heightOf(node.getRight());
+		if (balance > 1) {
+			if (heightOf(node.getLeft().getLeft()) < heightOf(node.getLeft().getRight())) {
+				node.setLeft(rotateLeft(node.getLeft()));
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (heightOf(node.getRight().getRight()) < heightOf(node.getRight().getLeft())) {
+				node.setRight(rotateRight(node.getRight()));
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
 
-	        BSTreeNode<E> current = traversal.pop();
-	        if (current.getRight() != null) {
-	            moveLeft(current.getRight());
-	        }
+	private BSTreeNode<E> rotateLeft(BSTreeNode<E> node) {
+		BSTreeNode<E> pivot = node.getRight();
+		node.setRight(pivot.getLeft());
+		pivot.setLeft(node);
+		updateNode(node);
+		updateNode(pivot);
+		return pivot;
+	}
 
-	        return current.getElement();
-	    }
+	private BSTreeNode<E> rotateRight(BSTreeNode<E> node) {
+		BSTreeNode<E> pivot = node.getLeft();
+		node.setLeft(pivot.getRight());
+		pivot.setRight(node);
+		updateNode(node);
+		updateNode(pivot);
+		return pivot;
 	}
-	
-	@Override
-	public Iterator<E> preorderIterator() {
-		return new PreorderIterator<>(root);
+
+	/**
+	 * Recomputes the height and subtree size of a node from its children.
+	 * 
+	 * @param node the node to update.
+	 */
+	private void updateNode(BSTreeNode<E> node) {
+		node.setHeight(1 + Math.max(heightOf(node.getLeft()), heightOf(node.getRight())));
+		node.setSubtreeSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
 	}
 
-	//Adapted from: geeksforgeeks
-	//Source: https://www.geeksforgeeks.org/iterative-preorder-traversal/
-	 public class PreorderIterator<E> implements Iterator<E> {
+	static int heightOf(BSTreeNode<?> node) {
+		return node == null ? 0 : node.getHeight();
+	}
 
-	        private Stack<BSTreeNode<E>> stack;
+	static int sizeOf(BSTreeNode<?> node) {
+		return node == null ? 0 : node.getSubtreeSize();
+	}
 
-	        public PreorderIterator(BSTreeNode<E> root) {
-	            stack = new Stack<>();
-	            if (root != null) {
-	                stack.push(root);
-	            }
-	        }
+	/**
+	 * Writes the tree as its size followed by its elements in order, instead of
+	 * the default nested node graph. The stream stays flat no matter how deep the
+	 * tree is and holds no per-node overhead.
+	 * 
+	 * @param out the stream to write the tree to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("root", null);
+		fields.put("size", size);
+		fields.put("balanced", balanced);
+		out.writeFields();
+
+		Iterator<E> iterator = inorderIterator();
+		while (iterator.hasNext()) {
+			out.writeObject(iterator.next());
+		}
+	}
 
-	        @Override
-	        public boolean hasNext() {
-	            return !stack.isEmpty();
-	        }
+	/**
+	 * Reads a tree written by {@link #writeObject(ObjectOutputStream)} and rebuilds
+	 * it perfectly balanced in O(n). Streams written before the flat format carry
+	 * the node graph in the root field and are restored as they are.
+	 * 
+	 * @param in the stream to read the tree from.
+	 * @throws IOException            if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of an element cannot be found.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		root = (BSTreeNode<E>) fields.get("root", null);
+		size = fields.get("size", 0);
+		balanced = fields.get("balanced", false);
+		heightStale = true;
+		if (root != null) {
+			countSubtrees(root);
+			return;
+		}
+
+		List<E> elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			elements.add((E) in.readObject());
+		}
+		root = buildBalanced(elements, 0, size);
+	}
+
+	/**
+	 * Sets the subtree size of every node below a root restored from a stream
+	 * written before nodes recorded it. Nodes are visited in reverse pre-order,
+	 * which reaches every child before its parent, with no recursion.
+	 * 
+	 * @param root the root of the restored tree.
+	 */
+	private static <E> void countSubtrees(BSTreeNode<E> root) {
+		List<BSTreeNode<E>> preorder = new ArrayList<>();
+		ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			BSTreeNode<E> node = stack.pop();
+			preorder.add(node);
+			if (node.getRight() != null) {
+				stack.push(node.getRight());
+			}
+			if (node.getLeft() != null) {
+				stack.push(node.getLeft());
+			}
+		}
+		for (int i = preorder.size() - 1; i >= 0; i--) {
+			BSTreeNode<E> node = preorder.get(i);
+			node.setSubtreeSize(1 + sizeOf(node.getLeft()) + sizeOf(node.getRight()));
+		}
+	}
+
+	/**
+	 * Runs an action on every element of the tree in ascending order, using O(1)
+	 * auxiliary space however deep the tree is.
+	 * 
+	 * <p>
+	 * The walk follows the Morris scheme: before descending into the left subtree
+	 * of a node, the node is linked from the right of its in-order predecessor,
+	 * and the walk returns along that temporary link once the subtree is done,
+	 * removing it again. Every node is visited at most three times, so the walk
+	 * takes O(n) time, and every link is restored by the time it returns. If the
+	 * action throws, the walk finishes restoring the links without running the
+	 * action again and then rethrows.
+	 * </p>
+	 * 
+	 * <p>
+	 * Since the links change while the walk runs, nothing else may use the tree
+	 * until it returns, including other traversals. Concurrent readers should use
+	 * the iterators instead.
+	 * </p>
+	 * 
+	 * @param action the action to run on each element.
+	 * @throws NullPointerException if the action is null.
+	 */
+	public void forEachInorder(Consumer<? super E> action) throws NullPointerException {
+		if (action == null) {
+			throw new NullPointerException("Cannot run a null action.");
+		}
+
+		Throwable failure = null;
+		BSTreeNode<E> current = root;
+		while (current != null) {
+			BSTreeNode<E> next;
+			if (current.getLeft() == null) {
+				next = current.getRight();
+			} else {
+				BSTreeNode<E> predecessor = current.getLeft();
+				while (predecessor.getRight() != null && predecessor.getRight() != current) {
+					predecessor = predecessor.getRight();
+				}
+				if (predecessor.getRight() == null) {
+					predecessor.setRight(current);
+					current = current.getLeft();
+					continue;
+				}
+				predecessor.setRight(null);
+				next = current.getRight();
+			}
+			if (failure == null) {
+				try {
+					action.accept(current.getElement());
+				} catch (RuntimeException | Error e) {
+					failure = e;
+				}
+			}
+			current = next;
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure != null) {
+			throw (Error) failure;
+		}
+	}
 
-	        @Override
-	        public E next() {
-	            if (!hasNext()) {
-	                throw new NoSuchElementException();
-	            }
-
-	            BSTreeNode<E> currentNode = stack.pop();
-	            if (currentNode.getRight() != null) {
-	                stack.push(currentNode.getRight());
-	            }
-	            if (currentNode.getLeft() != null) {
-	                stack.push(currentNode.getLeft());
-	            }
-
-	            return currentNode.getElement();
-	        }
-	    }
-	
 	@Override
-	public Iterator<E> postorderIterator() {
-		return new PostorderIterator(root);
+	public Iterator<E> inorderIterator() {
+		return TreeIterators.inorder(root);
 	}
-	
-	//Adapted from: geeksforgeeks
-	//Source: https://www.geeksforgeeks.org/iterative-postorder-traversal/
 
-	public class PostorderIterator implements Iterator<E> {
-	    private final Stack<E> stack = new Stack<>();
+	@Override
+	public Iterator<E> preorderIterator() {
+		return TreeIterators.preorder(root);
+	}
 
-	    public PostorderIterator(BSTreeNode<E> root) {
-	        if (root != null) {
-	            prePostorder(root);
-	        }
-	    }
+	@Override
+	public Iterator<E> postorderIterator() {
+		return TreeIterators.postorder(root);
+	}
 
-	    private void prePostorder(BSTreeNode<E> node) {
-	        Stack<BSTreeNode<E>> tempStack = new Stack<>();
-	        tempStack.push(node);
+	/**
+	 * Creates an iterator over the elements between two bounds, in ascending
+	 * order. It seeks to the lower bound in O(height) and stops at the upper
+	 * bound, so only the elements in the range are visited.
+	 * 
+	 * @param from          the lower bound, or null for none.
+	 * @param fromInclusive true if an element equal to the lower bound is included.
+	 * @param to            the upper bound, or null for none.
+	 * @param toInclusive   true if an element equal to the upper bound is included.
+	 * @return an iterator over the elements in the range.
+	 * @throws IllegalArgumentException if the lower bound is above the upper bound.
+	 */
+	public Iterator<E> rangeIterator(E from, boolean fromInclusive, E to, boolean toInclusive)
+			throws IllegalArgumentException {
+		checkRange(from, to);
+		return TreeIterators.range(root, from, fromInclusive, to, toInclusive);
+	}
 
-	        while (!tempStack.isEmpty()) {
-	            BSTreeNode<E> current = tempStack.pop();
-	            stack.push(current.getElement());
+	static <E extends Comparable<? super E>> void checkRange(E from, E to) throws IllegalArgumentException {
+		if (from != null && to != null && from.compareTo(to) > 0) {
+			throw new IllegalArgumentException("The lower bound must not be above the upper bound.");
+		}
+	}
 
-	            if (current.getLeft() != null) {
-	                tempStack.push(current.getLeft());
-	            }
-	            if (current.getRight() != null) {
-	                tempStack.push(current.getRight());
-	            }
-	        }
-	    }
+	/**
+	 * Creates a spliterator over the elements of the tree in ascending order. It
+	 * splits by subtree, handing the left part of the tree to the prefix, so the
+	 * tree can be processed by a parallel stream. The tree must not be changed
+	 * while the spliterator is in use.
+	 * 
+	 * @return the in-order spliterator.
+	 */
+	public Spliterator<E> spliterator() {
+		return TreeIterators.inorderSpliterator(root, size);
+	}
 
-	    @Override
-	    public boolean hasNext() {
-	        return !stack.isEmpty();
-	    }
+	/**
+	 * Creates a sequential stream over the elements of the tree in ascending
+	 * order.
+	 * 
+	 * @return the stream of elements.
+	 */
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
 
-	    @Override
-	    public E next() {
-	        if (!hasNext()) {
-	            throw new NoSuchElementException();
-	        }
-	        return stack.pop();
-	    }
+	/**
+	 * Creates a parallel stream over the elements of the tree, split by subtree.
+	 * Ordered operations still see the elements in ascending order.
+	 * 
+	 * @return the parallel stream of elements.
+	 */
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
 	}
 
 }
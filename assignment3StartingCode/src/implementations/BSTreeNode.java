@@ -12,6 +12,8 @@ public class BSTreeNode<E> implements Serializable {
 
     private E element;
     private BSTreeNode<E> left, right;
+    private int height = 1;
+    private int subtreeSize = 1;
     
     /**
      * Constructs a new BSTreeNode with the specified element and child nodes.
@@ -89,4 +91,42 @@ public class BSTreeNode<E> implements Serializable {
     public void setRight(BSTreeNode<E> right) {
         this.right = right;
     }
+
+    /**
+     * Retrieves the height of the subtree rooted at this node. The value is only
+     * kept up to date by trees running in balanced mode.
+     * 
+     * @return The height of the subtree rooted at this node.
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /**
+     * Sets the height of the subtree rooted at this node.
+     * 
+     * @param height The new height of the subtree.
+     */
+    void setHeight(int height) {
+        this.height = height;
+    }
+
+    /**
+     * Retrieves the number of nodes in the subtree rooted at this node, the node
+     * itself included.
+     * 
+     * @return The number of nodes in the subtree rooted at this node.
+     */
+    int getSubtreeSize() {
+        return subtreeSize;
+    }
+
+    /**
+     * Sets the number of nodes in the subtree rooted at this node.
+     * 
+     * @param subtreeSize The new number of nodes in the subtree.
+     */
+    void setSubtreeSize(int subtreeSize) {
+        this.subtreeSize = subtreeSize;
+    }
 }
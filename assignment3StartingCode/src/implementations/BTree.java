@@ -0,0 +1,721 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * B-tree implementation of the BSTreeADT: every node holds a sorted array of up
+ * to 2t - 1 elements and, unless it is a leaf, one child more than it has
+ * elements, where t is the minimum degree of the tree.
+ *
+ * <p>
+ * A lookup binary-searches the elements of one node per level, and the tree is
+ * about log<sub>2t</sub>(n) levels high instead of log<sub>2</sub>(n), so with
+ * the default minimum degree of 32 it takes four or five node visits, each one
+ * reading a single contiguous array, where a balanced binary tree follows twenty
+ * or more references to scattered nodes. Every leaf is at the same depth, so the
+ * tree needs no rebalancing mode. Full nodes are split on the way down during an
+ * add, and nodes with the minimum number of elements are filled up on the way
+ * down during a removal, so neither ever walks back up.
+ * </p>
+ *
+ * <p>
+ * {@link #getHeight()} counts levels of nodes. The nodes returned by
+ * {@link #getRoot()}, {@link #search(Comparable)} and
+ * {@link #addIfAbsent(Comparable)} are views of one element of a node, which
+ * present the tree as a binary search tree: the left child of an element is the
+ * first element of the child before it, and its right child the next element of
+ * the node, or the first element of the last child after the last element. The
+ * element of a view can be replaced by an equal one, which is written into the
+ * node in place, but views cannot be relinked, and a view is only valid until
+ * the tree is next changed.
+ * The pre-order iterator visits the elements of a node before its children, and
+ * the post-order iterator after them; both visit children from left to right.
+ * </p>
+ *
+ * @param <E> Type of elements stored in the tree, must implement Comparable.
+ */
+public class BTree<E extends Comparable<? super E>> implements BSTreeADT<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The minimum degree used by the default constructor, giving nodes of up to
+	 * 63 elements.
+	 */
+	public static final int DEFAULT_MINIMUM_DEGREE = 32;
+
+	private final int minimumDegree;
+	private transient Node root;
+	private transient int size;
+	private transient int height;
+
+	/**
+	 * A node of the tree: its elements in ascending order and, for an internal
+	 * node, its children.
+	 */
+	private static final class Node {
+		private final Object[] elements;
+		private final Node[] children;
+		private int count;
+
+		private Node(int maxElements, boolean leaf) {
+			elements = new Object[maxElements];
+			children = leaf ? null : new Node[maxElements + 1];
+		}
+
+		private boolean isLeaf() {
+			return children == null;
+		}
+	}
+
+	/**
+	 * Default constructor. Initializes an empty tree with the default minimum
+	 * degree.
+	 */
+	public BTree() {
+		this(DEFAULT_MINIMUM_DEGREE);
+	}
+
+	/**
+	 * Constructor to initialize an empty tree with the given minimum degree.
+	 *
+	 * @param minimumDegree the minimum number of children of every internal node
+	 *                      but the root; nodes hold up to twice as many elements
+	 *                      minus one.
+	 * @throws IllegalArgumentException if the minimum degree is smaller than 2.
+	 */
+	public BTree(int minimumDegree) throws IllegalArgumentException {
+		if (minimumDegree < 2) {
+			throw new IllegalArgumentException("The minimum degree of a B-tree must be at least 2.");
+		}
+		this.minimumDegree = minimumDegree;
+	}
+
+	/**
+	 * The minimum degree of the tree.
+	 *
+	 * @return the minimum number of children of every internal node but the root.
+	 */
+	public int getMinimumDegree() {
+		return minimumDegree;
+	}
+
+	private int maxElements() {
+		return 2 * minimumDegree - 1;
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException {
+		if (size == 0) {
+			throw new NullPointerException("The tree is empty.");
+		}
+		return new Entry(root, 0);
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+		size = 0;
+		height = 0;
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		return search(entry) != null;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Cannot search a null value.");
+		}
+		Node node = root;
+		while (node != null) {
+			int position = positionIn(node, entry);
+			if (position >= 0) {
+				return new Entry(node, position);
+			}
+			node = node.isLeaf() ? null : node.children[-position - 1];
+		}
+		return null;
+	}
+
+	/**
+	 * Binary-searches the elements of a node.
+	 *
+	 * @param node  the node to search.
+	 * @param entry the element to look for.
+	 * @return the index of the equal element, or (-(insertion point) - 1), where
+	 *         the insertion point is the index of the first greater element.
+	 */
+	private int positionIn(Node node, E entry) {
+		int low = 0;
+		int high = node.count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int comparison = entry.compareTo(elementAt(node, middle));
+			if (comparison > 0) {
+				low = middle + 1;
+			} else if (comparison < 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private E elementAt(Node node, int index) {
+		return (E) node.elements[index];
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		int sizeBefore = size;
+		addIfAbsent(newEntry);
+		return size != sizeBefore;
+	}
+
+	/**
+	 * Adds an element in a single descent from the root, splitting every full
+	 * node on the way so that the leaf it lands in has room for it.
+	 */
+	@Override
+	public BSTreeNode<E> addIfAbsent(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		if (root == null) {
+			root = new Node(maxElements(), true);
+			height = 1;
+		} else if (root.count == maxElements()) {
+			Node newRoot = new Node(maxElements(), false);
+			newRoot.children[0] = root;
+			splitChild(newRoot, 0);
+			root = newRoot;
+			height++;
+		}
+
+		Node node = root;
+		while (true) {
+			int position = positionIn(node, newEntry);
+			if (position >= 0) {
+				return new Entry(node, position);
+			}
+			int insertion = -position - 1;
+			if (node.isLeaf()) {
+				System.arraycopy(node.elements, insertion, node.elements, insertion + 1, node.count - insertion);
+				node.elements[insertion] = newEntry;
+				node.count++;
+				size++;
+				return new Entry(node, insertion);
+			}
+			if (node.children[insertion].count == maxElements()) {
+				splitChild(node, insertion);
+				int comparison = newEntry.compareTo(elementAt(node, insertion));
+				if (comparison == 0) {
+					return new Entry(node, insertion);
+				}
+				if (comparison > 0) {
+					insertion++;
+				}
+			}
+			node = node.children[insertion];
+		}
+	}
+
+	/**
+	 * Splits a full child around its middle element, which moves up into the
+	 * parent between the two halves.
+	 *
+	 * @param parent a node that is not full.
+	 * @param index  the index of the full child in the parent.
+	 */
+	private void splitChild(Node parent, int index) {
+		int t = minimumDegree;
+		Node child = parent.children[index];
+		Node sibling = new Node(maxElements(), child.isLeaf());
+		System.arraycopy(child.elements, t, sibling.elements, 0, t - 1);
+		if (!child.isLeaf()) {
+			System.arraycopy(child.children, t, sibling.children, 0, t);
+			Arrays.fill(child.children, t, 2 * t, null);
+		}
+		sibling.count = t - 1;
+
+		System.arraycopy(parent.children, index + 1, parent.children, index + 2, parent.count - index);
+		parent.children[index + 1] = sibling;
+		System.arraycopy(parent.elements, index, parent.elements, index + 1, parent.count - index);
+		parent.elements[index] = child.elements[t - 1];
+		parent.count++;
+
+		Arrays.fill(child.elements, t - 1, child.count, null);
+		child.count = t - 1;
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin() {
+		return removeExtreme(true);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax() {
+		return removeExtreme(false);
+	}
+
+	/**
+	 * Removes the smallest or largest element in a single descent, making sure
+	 * every node entered has more than the minimum number of elements so that the
+	 * leaf can give one up.
+	 *
+	 * @param min true to remove the smallest element, false for the largest.
+	 * @return a detached node holding the removed element, or null if the tree is
+	 *         empty.
+	 */
+	private BSTreeNode<E> removeExtreme(boolean min) {
+		if (size == 0) {
+			return null;
+		}
+
+		Node node = root;
+		while (!node.isLeaf()) {
+			int index = fillChild(node, min ? 0 : node.count);
+			Node child = node.children[index];
+			if (node == root && root.count == 0) {
+				root = child;
+				height--;
+			}
+			node = child;
+		}
+
+		E element;
+		if (min) {
+			element = elementAt(node, 0);
+			System.arraycopy(node.elements, 1, node.elements, 0, node.count - 1);
+		} else {
+			element = elementAt(node, node.count - 1);
+		}
+		node.elements[--node.count] = null;
+		size--;
+		if (size == 0) {
+			clear();
+		}
+		return new BSTreeNode<>(element);
+	}
+
+	/**
+	 * Makes sure a child has more than the minimum number of elements, by taking
+	 * one from a sibling through the parent or by merging it with a sibling.
+	 *
+	 * @param parent the parent of the child.
+	 * @param index  the index of the child in the parent.
+	 * @return the index of the node now holding the elements of the child, which
+	 *         moves one to the left after a merge with its left sibling.
+	 */
+	private int fillChild(Node parent, int index) {
+		int t = minimumDegree;
+		if (parent.children[index].count >= t) {
+			return index;
+		}
+		if (index > 0 && parent.children[index - 1].count >= t) {
+			borrowFromLeft(parent, index);
+			return index;
+		}
+		if (index < parent.count && parent.children[index + 1].count >= t) {
+			borrowFromRight(parent, index);
+			return index;
+		}
+		if (index < parent.count) {
+			merge(parent, index);
+			return index;
+		}
+		merge(parent, index - 1);
+		return index - 1;
+	}
+
+	/**
+	 * Moves the separating element of the parent down to the front of a child,
+	 * and the last element of its left sibling up in its place.
+	 */
+	private void borrowFromLeft(Node parent, int index) {
+		Node child = parent.children[index];
+		Node sibling = parent.children[index - 1];
+		System.arraycopy(child.elements, 0, child.elements, 1, child.count);
+		child.elements[0] = parent.elements[index - 1];
+		if (!child.isLeaf()) {
+			System.arraycopy(child.children, 0, child.children, 1, child.count + 1);
+			child.children[0] = sibling.children[sibling.count];
+			sibling.children[sibling.count] = null;
+		}
+		child.count++;
+		parent.elements[index - 1] = sibling.elements[sibling.count - 1];
+		sibling.elements[--sibling.count] = null;
+	}
+
+	/**
+	 * Moves the separating element of the parent down to the end of a child, and
+	 * the first element of its right sibling up in its place.
+	 */
+	private void borrowFromRight(Node parent, int index) {
+		Node child = parent.children[index];
+		Node sibling = parent.children[index + 1];
+		child.elements[child.count] = parent.elements[index];
+		if (!child.isLeaf()) {
+			child.children[child.count + 1] = sibling.children[0];
+			System.arraycopy(sibling.children, 1, sibling.children, 0, sibling.count);
+			sibling.children[sibling.count] = null;
+		}
+		child.count++;
+		parent.elements[index] = sibling.elements[0];
+		System.arraycopy(sibling.elements, 1, sibling.elements, 0, sibling.count - 1);
+		sibling.elements[--sibling.count] = null;
+	}
+
+	/**
+	 * Merges a child, the separating element of the parent and the right sibling
+	 * of the child into the child, and removes the sibling from the parent.
+	 */
+	private void merge(Node parent, int index) {
+		Node child = parent.children[index];
+		Node sibling = parent.children[index + 1];
+		child.elements[child.count] = parent.elements[index];
+		System.arraycopy(sibling.elements, 0, child.elements, child.count + 1, sibling.count);
+		if (!child.isLeaf()) {
+			System.arraycopy(sibling.children, 0, child.children, child.count + 1, sibling.count + 1);
+		}
+		child.count += sibling.count + 1;
+
+		System.arraycopy(parent.elements, index + 1, parent.elements, index, parent.count - index - 1);
+		System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.count - index - 1);
+		parent.count--;
+		parent.elements[parent.count] = null;
+		parent.children[parent.count + 1] = null;
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return new Iterator<E>() {
+			private final Frames frames = new Frames();
+
+			{
+				if (size > 0) {
+					pushLeft(root);
+				}
+			}
+
+			private void pushLeft(Node node) {
+				while (node != null) {
+					frames.push(node, 0);
+					node = node.isLeaf() ? null : node.children[0];
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !frames.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (frames.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				Node node = frames.node();
+				int index = frames.position();
+				if (index + 1 == node.count) {
+					frames.pop();
+				} else {
+					frames.setPosition(index + 1);
+				}
+				if (!node.isLeaf()) {
+					pushLeft(node.children[index + 1]);
+				}
+				return elementAt(node, index);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return new Iterator<E>() {
+			private final Frames pending = new Frames();
+			private Node current;
+			private int index;
+
+			{
+				if (size > 0) {
+					pending.push(root, 0);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return current != null && index < current.count || !pending.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				if (current == null || index == current.count) {
+					current = pending.node();
+					index = 0;
+					pending.pop();
+					if (!current.isLeaf()) {
+						for (int i = current.count; i >= 0; i--) {
+							pending.push(current.children[i], 0);
+						}
+					}
+				}
+				return elementAt(current, index++);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return new Iterator<E>() {
+			private final Frames frames = new Frames();
+			private Node current;
+			private int index;
+
+			{
+				if (size > 0) {
+					frames.push(root, 0);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return current != null && index < current.count || !frames.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				if (current == null || index == current.count) {
+					while (true) {
+						Node node = frames.node();
+						int child = frames.position();
+						if (node.isLeaf() || child > node.count) {
+							frames.pop();
+							current = node;
+							index = 0;
+							break;
+						}
+						frames.setPosition(child + 1);
+						frames.push(node.children[child], 0);
+					}
+				}
+				return elementAt(current, index++);
+			}
+		};
+	}
+
+	/**
+	 * Stack of nodes, each with a position in it, used by the iterators.
+	 */
+	private static final class Frames {
+		private Node[] nodes = new Node[8];
+		private int[] positions = new int[8];
+		private int count;
+
+		void push(Node node, int position) {
+			if (count == nodes.length) {
+				nodes = Arrays.copyOf(nodes, count * 2);
+				positions = Arrays.copyOf(positions, count * 2);
+			}
+			nodes[count] = node;
+			positions[count] = position;
+			count++;
+		}
+
+		void pop() {
+			nodes[--count] = null;
+		}
+
+		Node node() {
+			return nodes[count - 1];
+		}
+
+		int position() {
+			return positions[count - 1];
+		}
+
+		void setPosition(int position) {
+			positions[count - 1] = position;
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+	}
+
+	/**
+	 * View of one element of a node as a node of a binary search tree.
+	 */
+	private final class Entry extends NodeView<E> {
+		private static final long serialVersionUID = 1L;
+
+		private final Node node;
+		private final int index;
+
+		private Entry(Node node, int index) {
+			this.node = node;
+			this.index = index;
+		}
+
+		@Override
+		public E getElement() {
+			return elementAt(node, index);
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft() {
+			return node.isLeaf() ? null : new Entry(node.children[index], 0);
+		}
+
+		@Override
+		public BSTreeNode<E> getRight() {
+			if (index + 1 < node.count) {
+				return new Entry(node, index + 1);
+			}
+			return node.isLeaf() ? null : new Entry(node.children[index + 1], 0);
+		}
+
+		/**
+		 * Replaces the element in its node. The element must keep its place in the
+		 * order of the tree.
+		 */
+		@Override
+		public void setElement(E element) {
+			if (element == null) {
+				throw new NullPointerException("Cannot store a null value.");
+			}
+			node.elements[index] = element;
+		}
+	}
+
+	/**
+	 * Writes the tree as its size followed by its elements in order.
+	 *
+	 * @param out the stream to write the tree to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		Iterator<E> iterator = inorderIterator();
+		while (iterator.hasNext()) {
+			out.writeObject(iterator.next());
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #writeObject(ObjectOutputStream)} and loads
+	 * its elements bottom-up into the fewest levels that can hold them, in O(n).
+	 *
+	 * @param in the stream to read the tree from.
+	 * @throws IOException            if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of an element cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int count = in.readInt();
+		Object[] sorted = new Object[count];
+		for (int i = 0; i < count; i++) {
+			sorted[i] = in.readObject();
+		}
+		size = count;
+		height = 0;
+		while (count > capacity(height)) {
+			height++;
+		}
+		root = count == 0 ? null : load(sorted, 0, count, height);
+	}
+
+	/**
+	 * The number of elements a tree of the given height holds when every node is
+	 * full, capped at Long.MAX_VALUE.
+	 */
+	private long capacity(int levels) {
+		long capacity = 1;
+		for (int i = 0; i < levels; i++) {
+			if (capacity > Long.MAX_VALUE / (2 * minimumDegree)) {
+				return Long.MAX_VALUE;
+			}
+			capacity *= 2 * minimumDegree;
+		}
+		return capacity - 1;
+	}
+
+	/**
+	 * Builds a subtree of the given height over a sorted range, spreading the
+	 * elements evenly over as few children as can hold them. Each child then
+	 * ends up at least half full, which is more than the minimum a node needs.
+	 *
+	 * @param sorted the elements in ascending order.
+	 * @param from   index of the first element of the subtree.
+	 * @param to     index one past the last element of the subtree.
+	 * @param levels the height of the subtree.
+	 * @return the root of the subtree.
+	 */
+	private Node load(Object[] sorted, int from, int to, int levels) {
+		int count = to - from;
+		if (levels == 1) {
+			Node leaf = new Node(maxElements(), true);
+			System.arraycopy(sorted, from, leaf.elements, 0, count);
+			leaf.count = count;
+			return leaf;
+		}
+
+		long childCapacity = capacity(levels - 1);
+		int children = (int) ((count + childCapacity + 1) / (childCapacity + 1));
+		Node node = new Node(maxElements(), false);
+		int childElements = count - (children - 1);
+		int start = from;
+		for (int i = 0; i < children; i++) {
+			int share = childElements / children + (i < childElements % children ? 1 : 0);
+			node.children[i] = load(sorted, start, start + share, levels - 1);
+			start += share;
+			if (i < children - 1) {
+				node.elements[i] = sorted[start++];
+			}
+		}
+		node.count = children - 1;
+		return node;
+	}
+}
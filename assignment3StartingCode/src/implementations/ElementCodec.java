@@ -0,0 +1,82 @@
+package implementations;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts the elements of an {@link OffHeapBSTree} to and from the bytes it
+ * stores outside the Java heap.
+ *
+ * <p>
+ * An element is written with relative puts into a buffer positioned where it
+ * goes, and read back with absolute gets from its offset, so the tree never has
+ * to copy an encoded element to the heap. A codec should also override
+ * {@link #compare(Comparable, ByteBuffer, int, int)} to compare against the
+ * encoded bytes directly, or every step of a search decodes an element.
+ * </p>
+ *
+ * @param <E> Type of elements the codec converts.
+ */
+public interface ElementCodec<E extends Comparable<? super E>> extends Serializable {
+
+	/**
+	 * The number of bytes an element is encoded to.
+	 *
+	 * @param element the element to measure.
+	 * @return the encoded length in bytes.
+	 */
+	int encodedLength(E element);
+
+	/**
+	 * Writes an element at the position of a buffer, advancing it by exactly
+	 * {@link #encodedLength(Comparable)} bytes.
+	 *
+	 * @param element the element to encode.
+	 * @param target  the buffer to write to.
+	 */
+	void encode(E element, ByteBuffer target);
+
+	/**
+	 * Reads an element back from its bytes without moving the buffer.
+	 *
+	 * @param source the buffer holding the element.
+	 * @param offset the index of the first byte of the element.
+	 * @param length the number of bytes of the element.
+	 * @return the decoded element.
+	 */
+	E decode(ByteBuffer source, int offset, int length);
+
+	/**
+	 * Compares an element with an encoded one, consistently with
+	 * {@link Comparable#compareTo(Object)}.
+	 *
+	 * @param element the element to compare.
+	 * @param source  the buffer holding the encoded element.
+	 * @param offset  the index of the first byte of the encoded element.
+	 * @param length  the number of bytes of the encoded element.
+	 * @return a negative number, zero or a positive number if the element is
+	 *         smaller than, equal to or greater than the encoded one.
+	 */
+	default int compare(E element, ByteBuffer source, int offset, int length) {
+		return element.compareTo(decode(source, offset, length));
+	}
+
+	/**
+	 * A codec storing strings as their UTF-16 code units and comparing them
+	 * without decoding.
+	 *
+	 * @return the string codec.
+	 */
+	static ElementCodec<String> strings() {
+		return StandardCodecs.Strings.INSTANCE;
+	}
+
+	/**
+	 * A codec storing integers in four bytes.
+	 *
+	 * @return the integer codec.
+	 */
+	static ElementCodec<Integer> integers() {
+		return StandardCodecs.Integers.INSTANCE;
+	}
+}
@@ -0,0 +1,47 @@
+package implementations;
+
+/**
+ * Base of the nodes handed out by trees that do not store their elements in
+ * linked BSTreeNodes. A view reads its element and children from the tree when
+ * asked for; it has no links of its own, so it cannot be relinked.
+ *
+ * @param <E> The type of element stored in the node.
+ */
+abstract class NodeView<E> extends BSTreeNode<E> {
+	private static final long serialVersionUID = 1L;
+
+	NodeView() {
+		super(null);
+	}
+
+	@Override
+	public abstract E getElement();
+
+	@Override
+	public abstract BSTreeNode<E> getLeft();
+
+	@Override
+	public abstract BSTreeNode<E> getRight();
+
+	/**
+	 * Views cannot be relinked; the links belong to the tree that keeps them in
+	 * order.
+	 *
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public final void setLeft(BSTreeNode<E> left) {
+		throw new UnsupportedOperationException("A view of a tree node cannot be relinked.");
+	}
+
+	/**
+	 * Views cannot be relinked; the links belong to the tree that keeps them in
+	 * order.
+	 *
+	 * @throws UnsupportedOperationException always.
+	 */
+	@Override
+	public final void setRight(BSTreeNode<E> right) {
+		throw new UnsupportedOperationException("A view of a tree node cannot be relinked.");
+	}
+}
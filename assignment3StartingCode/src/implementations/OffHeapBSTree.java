@@ -0,0 +1,898 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Binary search tree whose nodes and elements are stored outside the Java heap,
+ * in direct byte buffers.
+ *
+ * <p>
+ * Like {@link ArenaBSTree}, a node is an index, here of a fixed-size record in
+ * a node page: the indices of its two children, the address of its element and,
+ * in balanced mode, the height of its subtree. Elements are encoded by an
+ * {@link ElementCodec} and appended to key pages, each prefixed by its length;
+ * {@link serialization.WordInfoCodec} stores a word together with its postings,
+ * so a word repository keeps its line numbers off the heap as well. Pages have a fixed size and are never copied, so the tree grows by adding
+ * pages and can hold more data than fits in a single buffer. The garbage
+ * collector only sees the page objects, however many elements there are.
+ * </p>
+ *
+ * <p>
+ * Searches compare the searched element with the encoded ones through the
+ * codec, and the iterators decode every element they return. The nodes
+ * returned by {@link #getRoot()}, {@link #search(Comparable)} and
+ * {@link #addIfAbsent(Comparable)} are views of a record: their element is
+ * decoded on every call to getElement, and setElement encodes the element again,
+ * which is how a changed mutable element is written back. They cannot be
+ * relinked. Records of removed nodes are reused by later adds. A rewritten
+ * element is encoded over its old bytes when it fits there, or when it is the
+ * last element of the key pages; otherwise it is appended and its old bytes
+ * become garbage, like those of removed elements. Once the garbage fills half
+ * of the key pages, the live elements are copied into fresh pages, so however
+ * often elements are updated, the key pages stay within about twice their size.
+ * </p>
+ *
+ * @param <E> Type of elements stored in the tree, must implement Comparable.
+ */
+public class OffHeapBSTree<E extends Comparable<? super E>> implements BSTreeADT<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int NIL = -1;
+
+	private static final int LEFT = 0;
+	private static final int RIGHT = 4;
+	private static final int KEY = 8;
+	private static final int HEIGHT = 16;
+	private static final int NODE_BYTES = 20;
+	private static final int NODE_PAGE_SHIFT = 16;
+	private static final int NODE_PAGE_MASK = (1 << NODE_PAGE_SHIFT) - 1;
+	private static final int KEY_PAGE_BYTES = 1 << 20;
+
+	private final ElementCodec<E> codec;
+	private final boolean balanced;
+	private transient ByteBuffer[] nodePages;
+	private transient ByteBuffer[] keyPages;
+	private transient int keyPageCount;
+	private transient long garbage;
+	private transient int root;
+	private transient int size;
+	private transient int used;
+	private transient int free;
+	private transient int[] descentPath;
+	private transient int height;
+	private transient boolean heightStale;
+
+	/**
+	 * Constructor to initialize an empty tree.
+	 *
+	 * @param codec the codec encoding the elements.
+	 * @throws NullPointerException if the codec is null.
+	 */
+	public OffHeapBSTree(ElementCodec<E> codec) throws NullPointerException {
+		this(codec, false);
+	}
+
+	/**
+	 * Constructor to initialize an empty tree, optionally in balanced mode.
+	 *
+	 * @param codec    the codec encoding the elements.
+	 * @param balanced true to keep the tree AVL-balanced on every add and removal.
+	 * @throws NullPointerException if the codec is null.
+	 */
+	public OffHeapBSTree(ElementCodec<E> codec, boolean balanced) throws NullPointerException {
+		if (codec == null) {
+			throw new NullPointerException("Cannot store elements without a codec.");
+		}
+		this.codec = codec;
+		this.balanced = balanced;
+		initialize();
+	}
+
+	private void initialize() {
+		nodePages = new ByteBuffer[4];
+		keyPages = new ByteBuffer[4];
+		keyPageCount = 0;
+		garbage = 0;
+		descentPath = new int[32];
+		root = NIL;
+		free = NIL;
+		used = 0;
+		size = 0;
+		height = 0;
+		heightStale = false;
+	}
+
+	/**
+	 * Checks if the tree rebalances itself on every add and removal.
+	 *
+	 * @return true if the tree was created in balanced mode.
+	 */
+	public boolean isBalanced() {
+		return balanced;
+	}
+
+	/**
+	 * The number of bytes held outside the heap by the pages of the tree.
+	 *
+	 * @return the capacity of all node and key pages, in bytes.
+	 */
+	public long offHeapBytes() {
+		long nodeBytes = (long) NODE_BYTES << NODE_PAGE_SHIFT;
+		int nodePageCount = (used + NODE_PAGE_MASK) >>> NODE_PAGE_SHIFT;
+		return nodePageCount * nodeBytes + (long) keyPageCount * KEY_PAGE_BYTES;
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException {
+		if (root == NIL) {
+			throw new NullPointerException("The tree is empty.");
+		}
+		return new Node(root);
+	}
+
+	@Override
+	public int getHeight() {
+		if (balanced) {
+			return heightOf(root);
+		}
+		if (heightStale) {
+			height = calculateHeight();
+			heightStale = false;
+		}
+		return height;
+	}
+
+	/**
+	 * Measures the height of the tree by visiting it one level at a time, with no
+	 * recursion.
+	 *
+	 * @return the number of levels of the tree.
+	 */
+	private int calculateHeight() {
+		int levels = 0;
+		int[] queue = new int[Math.max(size, 1)];
+		int head = 0;
+		int tail = 0;
+		if (root != NIL) {
+			queue[tail++] = root;
+		}
+		while (head < tail) {
+			levels++;
+			for (int levelEnd = tail; head < levelEnd; head++) {
+				int node = queue[head];
+				if (left(node) != NIL) {
+					queue[tail++] = left(node);
+				}
+				if (right(node) != NIL) {
+					queue[tail++] = right(node);
+				}
+			}
+		}
+		return levels;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return root == NIL;
+	}
+
+	/**
+	 * Removes every element and drops all pages, so that their memory is
+	 * released once the buffers are collected.
+	 */
+	@Override
+	public void clear() {
+		initialize();
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		return find(entry) != NIL;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Cannot search a null value.");
+		}
+		int node = find(entry);
+		return node == NIL ? null : new Node(node);
+	}
+
+	private int find(E entry) {
+		int node = root;
+		while (node != NIL) {
+			int comparison = compareTo(entry, node);
+			if (comparison == 0) {
+				return node;
+			}
+			node = comparison < 0 ? left(node) : right(node);
+		}
+		return NIL;
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		int sizeBefore = size;
+		insert(newEntry);
+		return size != sizeBefore;
+	}
+
+	@Override
+	public BSTreeNode<E> addIfAbsent(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+		return new Node(insert(newEntry));
+	}
+
+	/**
+	 * Finds the node holding an equal element, or adds a node for the element in
+	 * a single descent and rebalances the path to it in balanced mode.
+	 *
+	 * @param newEntry the element to find or add.
+	 * @return the index of the node holding the element.
+	 */
+	private int insert(E newEntry) {
+		if (root == NIL) {
+			root = allocate(newEntry);
+			size++;
+			height = 1;
+			return root;
+		}
+
+		int depth = 0;
+		int current = root;
+		while (true) {
+			if (depth == descentPath.length) {
+				descentPath = Arrays.copyOf(descentPath, depth * 2);
+			}
+			descentPath[depth++] = current;
+			int comparison = compareTo(newEntry, current);
+			if (comparison == 0) {
+				return current;
+			}
+			int child = comparison < 0 ? left(current) : right(current);
+			if (child == NIL) {
+				int added = allocate(newEntry);
+				if (comparison < 0) {
+					setLeft(current, added);
+				} else {
+					setRight(current, added);
+				}
+				size++;
+				if (balanced) {
+					rebalancePath(depth);
+				}
+				height = Math.max(height, depth + 1);
+				return added;
+			}
+			current = child;
+		}
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin() {
+		return removeExtreme(true);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax() {
+		return removeExtreme(false);
+	}
+
+	/**
+	 * Removes the smallest or largest node, rebalancing the path to it in
+	 * balanced mode, and puts its record on the free list.
+	 *
+	 * @param min true to remove the smallest node, false for the largest.
+	 * @return a detached node holding the removed element, or null if the tree is
+	 *         empty.
+	 */
+	private BSTreeNode<E> removeExtreme(boolean min) {
+		if (root == NIL) {
+			return null;
+		}
+
+		int depth = 0;
+		int current = root;
+		int next = min ? left(current) : right(current);
+		while (next != NIL) {
+			if (depth == descentPath.length) {
+				descentPath = Arrays.copyOf(descentPath, depth * 2);
+			}
+			descentPath[depth++] = current;
+			current = next;
+			next = min ? left(current) : right(current);
+		}
+
+		int replacement = min ? right(current) : left(current);
+		if (depth == 0) {
+			root = replacement;
+		} else if (min) {
+			setLeft(descentPath[depth - 1], replacement);
+		} else {
+			setRight(descentPath[depth - 1], replacement);
+		}
+		size--;
+		if (balanced) {
+			rebalancePath(depth);
+		} else {
+			heightStale = true;
+		}
+
+		E element = elementAt(current);
+		setLeft(current, free);
+		free = current;
+		discardKey(current);
+		return new BSTreeNode<>(element);
+	}
+
+	/**
+	 * Takes a record from the free list, or the next unused record, adding a node
+	 * page when the last one is full, and stores the element for it.
+	 *
+	 * @param element the element of the new node.
+	 * @return the index of the new leaf node.
+	 */
+	private int allocate(E element) {
+		long key = appendKey(element);
+		int node;
+		if (free != NIL) {
+			node = free;
+			free = left(node);
+		} else {
+			int page = used >>> NODE_PAGE_SHIFT;
+			if (page == nodePages.length) {
+				nodePages = Arrays.copyOf(nodePages, page * 2);
+			}
+			if (nodePages[page] == null) {
+				nodePages[page] = ByteBuffer.allocateDirect(NODE_BYTES << NODE_PAGE_SHIFT)
+						.order(ByteOrder.nativeOrder());
+			}
+			node = used++;
+		}
+		setLeft(node, NIL);
+		setRight(node, NIL);
+		setKey(node, key);
+		setHeight(node, 1);
+		return node;
+	}
+
+	/**
+	 * Encodes an element after the last one in the key pages, starting a new page
+	 * when it does not fit in the last one.
+	 *
+	 * @param element the element to encode.
+	 * @return the address of the element: its page in the high half and its
+	 *         offset in the low half.
+	 * @throws IllegalArgumentException if the encoded element is larger than a key
+	 *                                  page.
+	 */
+	private long appendKey(E element) throws IllegalArgumentException {
+		int length = codec.encodedLength(element);
+		ByteBuffer page = keyPageFor(length);
+		int offset = page.position();
+		encodeKey(element, length, page, offset);
+		return (long) (keyPageCount - 1) << 32 | offset;
+	}
+
+	/**
+	 * Encodes an element with its length at an offset of a key page, leaving the
+	 * position of the buffer after it.
+	 */
+	private void encodeKey(E element, int length, ByteBuffer page, int offset) {
+		page.position(offset);
+		page.putInt(length);
+		codec.encode(element, page);
+		if (page.position() != offset + Integer.BYTES + length) {
+			throw new IllegalStateException("The codec wrote a different number of bytes than it announced.");
+		}
+	}
+
+	/**
+	 * Stores a new encoding of the element of a node. It is written over the old
+	 * one when it is no longer, or when the old one is the last in the key pages
+	 * and the page has room; otherwise it is appended and the old bytes are
+	 * discarded.
+	 *
+	 * @param node    the node whose element is replaced.
+	 * @param element the element to encode.
+	 * @throws IllegalArgumentException if the encoded element is larger than a key
+	 *                                  page.
+	 */
+	private void rewriteKey(int node, E element) throws IllegalArgumentException {
+		long key = key(node);
+		int pageIndex = (int) (key >>> 32);
+		ByteBuffer page = keyPages[pageIndex];
+		int offset = (int) key;
+		int oldLength = page.getInt(offset);
+		int length = codec.encodedLength(element);
+		boolean last = pageIndex == keyPageCount - 1 && page.position() == offset + Integer.BYTES + oldLength;
+		if (last && length >= 0 && length <= KEY_PAGE_BYTES - Integer.BYTES - offset) {
+			encodeKey(element, length, page, offset);
+		} else if (length >= 0 && length <= oldLength) {
+			encodeKey(element, length, page.duplicate(), offset);
+			garbage += oldLength - length;
+		} else {
+			setKey(node, appendKey(element));
+			garbage += Integer.BYTES + oldLength;
+			compactKeysIfWasteful();
+		}
+	}
+
+	/**
+	 * Counts the bytes of the element of a removed node as garbage.
+	 */
+	private void discardKey(int node) {
+		long key = key(node);
+		garbage += Integer.BYTES + keyPages[(int) (key >>> 32)].getInt((int) key);
+		compactKeysIfWasteful();
+	}
+
+	/**
+	 * Copies the elements of the tree into fresh key pages, in order and without
+	 * decoding them, once garbage fills at least one page and half of the key
+	 * pages. The copy is linear in the live bytes, which are no more than the
+	 * garbage that triggered it.
+	 */
+	private void compactKeysIfWasteful() {
+		if (garbage < KEY_PAGE_BYTES || garbage * 2 < (long) keyPageCount * KEY_PAGE_BYTES) {
+			return;
+		}
+		ByteBuffer[] oldPages = keyPages;
+		keyPages = new ByteBuffer[4];
+		keyPageCount = 0;
+		garbage = 0;
+		InorderNodes nodes = new InorderNodes();
+		while (nodes.hasNext()) {
+			int node = nodes.next();
+			long key = key(node);
+			ByteBuffer source = oldPages[(int) (key >>> 32)].duplicate();
+			int offset = (int) key;
+			int length = source.getInt(offset);
+			source.limit(offset + Integer.BYTES + length);
+			source.position(offset);
+			ByteBuffer page = keyPageFor(length);
+			int newOffset = page.position();
+			page.put(source);
+			setKey(node, (long) (keyPageCount - 1) << 32 | newOffset);
+		}
+	}
+
+	/**
+	 * Returns the last key page, or a new one if the last has no room for an
+	 * element of the given length.
+	 */
+	private ByteBuffer keyPageFor(int length) throws IllegalArgumentException {
+		if (length < 0 || length > KEY_PAGE_BYTES - Integer.BYTES) {
+			throw new IllegalArgumentException("Cannot store an element of " + length + " bytes.");
+		}
+		if (keyPageCount == 0 || keyPages[keyPageCount - 1].remaining() < Integer.BYTES + length) {
+			if (keyPageCount == keyPages.length) {
+				keyPages = Arrays.copyOf(keyPages, keyPageCount * 2);
+			}
+			keyPages[keyPageCount++] = ByteBuffer.allocateDirect(KEY_PAGE_BYTES);
+		}
+		return keyPages[keyPageCount - 1];
+	}
+
+	private int compareTo(E element, int node) {
+		long key = key(node);
+		ByteBuffer page = keyPages[(int) (key >>> 32)];
+		int offset = (int) key;
+		return codec.compare(element, page, offset + Integer.BYTES, page.getInt(offset));
+	}
+
+	private E elementAt(int node) {
+		long key = key(node);
+		ByteBuffer page = keyPages[(int) (key >>> 32)];
+		int offset = (int) key;
+		return codec.decode(page, offset + Integer.BYTES, page.getInt(offset));
+	}
+
+	private ByteBuffer nodePage(int node) {
+		return nodePages[node >>> NODE_PAGE_SHIFT];
+	}
+
+	private static int recordOf(int node) {
+		return (node & NODE_PAGE_MASK) * NODE_BYTES;
+	}
+
+	private int left(int node) {
+		return nodePage(node).getInt(recordOf(node) + LEFT);
+	}
+
+	private int right(int node) {
+		return nodePage(node).getInt(recordOf(node) + RIGHT);
+	}
+
+	private long key(int node) {
+		return nodePage(node).getLong(recordOf(node) + KEY);
+	}
+
+	private int heightOf(int node) {
+		return node == NIL ? 0 : nodePage(node).getInt(recordOf(node) + HEIGHT);
+	}
+
+	private void setLeft(int node, int child) {
+		nodePage(node).putInt(recordOf(node) + LEFT, child);
+	}
+
+	private void setRight(int node, int child) {
+		nodePage(node).putInt(recordOf(node) + RIGHT, child);
+	}
+
+	private void setKey(int node, long key) {
+		nodePage(node).putLong(recordOf(node) + KEY, key);
+	}
+
+	private void setHeight(int node, int height) {
+		nodePage(node).putInt(recordOf(node) + HEIGHT, height);
+	}
+
+	/**
+	 * Walks the recorded root-to-parent path bottom-up, updating heights and
+	 * rotating any node that went out of balance.
+	 *
+	 * @param depth the number of nodes recorded in the path.
+	 */
+	private void rebalancePath(int depth) {
+		for (int i = depth - 1; i >= 0; i--) {
+			int node = descentPath[i];
+			int subtree = rebalance(node);
+			if (subtree != node) {
+				if (i == 0) {
+					root = subtree;
+				} else if (left(descentPath[i - 1]) == node) {
+					setLeft(descentPath[i - 1], subtree);
+				} else {
+					setRight(descentPath[i - 1], subtree);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the AVL balance of a single node whose children are balanced.
+	 *
+	 * @param node the node to rebalance.
+	 * @return the root of the rebalanced subtree.
+	 */
+	private int rebalance(int node) {
+		updateHeight(node);
+		int balance = heightOf(left(node)) - heightOf(right(node));
+		if (balance > 1) {
+			if (heightOf(left(left(node))) < heightOf(right(left(node)))) {
+				setLeft(node, rotateLeft(left(node)));
+			}
+			return rotateRight(node);
+		}
+		if (balance < -1) {
+			if (heightOf(right(right(node))) < heightOf(left(right(node)))) {
+				setRight(node, rotateRight(right(node)));
+			}
+			return rotateLeft(node);
+		}
+		return node;
+	}
+
+	private int rotateLeft(int node) {
+		int pivot = right(node);
+		setRight(node, left(pivot));
+		setLeft(pivot, node);
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private int rotateRight(int node) {
+		int pivot = left(node);
+		setLeft(node, right(pivot));
+		setRight(pivot, node);
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	private void updateHeight(int node) {
+		setHeight(node, 1 + Math.max(heightOf(left(node)), heightOf(right(node))));
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return new Iterator<E>() {
+			private final InorderNodes nodes = new InorderNodes();
+
+			@Override
+			public boolean hasNext() {
+				return nodes.hasNext();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				return elementAt(nodes.next());
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return new Iterator<E>() {
+			private final IndexStack stack = new IndexStack();
+
+			{
+				if (root != NIL) {
+					stack.push(root);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				int node = stack.pop();
+				if (right(node) != NIL) {
+					stack.push(right(node));
+				}
+				if (left(node) != NIL) {
+					stack.push(left(node));
+				}
+				return elementAt(node);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return new Iterator<E>() {
+			private final IndexStack stack = new IndexStack();
+
+			{
+				descend(root);
+			}
+
+			/**
+			 * Pushes the path from a node down to the first node of its subtree in
+			 * post-order, preferring left children over right ones.
+			 */
+			private void descend(int node) {
+				while (node != NIL) {
+					stack.push(node);
+					node = left(node) != NIL ? left(node) : right(node);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				int node = stack.pop();
+				if (!stack.isEmpty() && left(stack.peek()) == node) {
+					descend(right(stack.peek()));
+				}
+				return elementAt(node);
+			}
+		};
+	}
+
+	/**
+	 * In-order walk over the node indices, shared by the in-order iterator and
+	 * serialization, which copies encoded elements without decoding them.
+	 */
+	private final class InorderNodes {
+		private final IndexStack stack = new IndexStack();
+
+		InorderNodes() {
+			pushLeft(root);
+		}
+
+		private void pushLeft(int node) {
+			while (node != NIL) {
+				stack.push(node);
+				node = left(node);
+			}
+		}
+
+		boolean hasNext() {
+			return !stack.isEmpty();
+		}
+
+		int next() throws NoSuchElementException {
+			if (stack.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			int node = stack.pop();
+			pushLeft(right(node));
+			return node;
+		}
+	}
+
+	/**
+	 * Growable stack of node indices, so the iterators box nothing.
+	 */
+	private static final class IndexStack {
+		private int[] items = new int[16];
+		private int count;
+
+		void push(int node) {
+			if (count == items.length) {
+				items = Arrays.copyOf(items, count * 2);
+			}
+			items[count++] = node;
+		}
+
+		int pop() {
+			return items[--count];
+		}
+
+		int peek() {
+			return items[count - 1];
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+	}
+
+	/**
+	 * View of a node record. Its element is decoded and its children are read
+	 * from the node pages when asked for.
+	 */
+	private final class Node extends NodeView<E> {
+		private static final long serialVersionUID = 1L;
+
+		private final int index;
+
+		private Node(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public E getElement() {
+			return elementAt(index);
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft() {
+			return left(index) == NIL ? null : new Node(left(index));
+		}
+
+		@Override
+		public BSTreeNode<E> getRight() {
+			return right(index) == NIL ? null : new Node(right(index));
+		}
+
+		/**
+		 * Encodes the element again, over its old bytes when it fits there. The
+		 * element must keep its place in the order of the tree.
+		 */
+		@Override
+		public void setElement(E element) {
+			if (element == null) {
+				throw new NullPointerException("Cannot store a null value.");
+			}
+			rewriteKey(index, element);
+		}
+	}
+
+	/**
+	 * Writes the tree as its size followed by the encoded bytes of its elements in
+	 * order, each prefixed by its length. No element is decoded.
+	 *
+	 * @param out the stream to write the tree to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		byte[] buffer = new byte[64];
+		InorderNodes nodes = new InorderNodes();
+		while (nodes.hasNext()) {
+			long key = key(nodes.next());
+			ByteBuffer page = keyPages[(int) (key >>> 32)].duplicate();
+			int offset = (int) key;
+			int length = page.getInt(offset);
+			if (length > buffer.length) {
+				buffer = new byte[Math.max(length, buffer.length * 2)];
+			}
+			page.position(offset + Integer.BYTES);
+			page.get(buffer, 0, length);
+			out.writeInt(length);
+			out.write(buffer, 0, length);
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #writeObject(ObjectOutputStream)} into fresh
+	 * pages. Every element gets the record of its in-order position and the links
+	 * of a perfectly balanced tree are built over the records in O(n).
+	 *
+	 * @param in the stream to read the tree from.
+	 * @throws IOException            if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of the codec cannot be found.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		initialize();
+		int count = in.readInt();
+		byte[] buffer = new byte[64];
+		for (int i = 0; i < count; i++) {
+			int length = in.readInt();
+			if (length > buffer.length) {
+				buffer = new byte[Math.max(length, buffer.length * 2)];
+			}
+			in.readFully(buffer, 0, length);
+			ByteBuffer page = keyPageFor(length);
+			int offset = page.position();
+			page.putInt(length);
+			page.put(buffer, 0, length);
+
+			int pageIndex = i >>> NODE_PAGE_SHIFT;
+			if (pageIndex == nodePages.length) {
+				nodePages = Arrays.copyOf(nodePages, pageIndex * 2);
+			}
+			if (nodePages[pageIndex] == null) {
+				nodePages[pageIndex] = ByteBuffer.allocateDirect(NODE_BYTES << NODE_PAGE_SHIFT)
+						.order(ByteOrder.nativeOrder());
+			}
+			setKey(i, (long) (keyPageCount - 1) << 32 | offset);
+		}
+		used = count;
+		size = count;
+		root = link(0, count);
+		height = heightOf(root);
+	}
+
+	/**
+	 * Links the records in the range [from, to) into a balanced subtree.
+	 *
+	 * @param from index of the first record of the subtree.
+	 * @param to   index one past the last record of the subtree.
+	 * @return the index of the root of the subtree, or NIL if the range is empty.
+	 */
+	private int link(int from, int to) {
+		if (from >= to) {
+			return NIL;
+		}
+		int middle = (from + to) >>> 1;
+		setLeft(middle, link(from, middle));
+		setRight(middle, link(middle + 1, to));
+		updateHeight(middle);
+		return middle;
+	}
+}
@@ -0,0 +1,575 @@
+package implementations;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Persistent binary search tree: every change creates a new version of the tree
+ * and leaves the previous versions untouched.
+ *
+ * <p>
+ * An add or removal copies only the nodes on the path from the root to the
+ * changed node and shares every other node with the previous version. Nodes are
+ * never modified once they belong to a published version, so a version can be
+ * read without locking while the tree keeps changing. Changes are serialized
+ * with each other, and each one publishes its new version with a single volatile
+ * write, so a reader sees either the whole change or none of it.
+ * </p>
+ *
+ * <p>
+ * {@link #snapshot()} captures the current version in O(1). Lookups and
+ * iterators work on the version current when they start, so a traversal never
+ * sees a half-finished change. In balanced mode the copied path is AVL-balanced
+ * as it is rebuilt, copying the few extra nodes a rotation touches. Every node
+ * records the height and size of its subtree, so {@link #getHeight()} is O(1)
+ * in both modes and {@link #rank(Comparable)} and {@link #select(int)} take
+ * O(height).
+ * </p>
+ *
+ * <p>
+ * The nodes of a version are shared with every snapshot that holds it, so the
+ * tree never hands them out. {@link #getRoot()}, {@link #search(Comparable)} and
+ * {@link #addIfAbsent(Comparable)} return read-only views of them, whose
+ * setters throw UnsupportedOperationException, and {@link #removeMin()} and
+ * {@link #removeMax()} return a detached node holding the removed element.
+ * </p>
+ *
+ * @param <E> Type of elements stored in the tree, must implement Comparable.
+ */
+public class PersistentBSTree<E extends Comparable<? super E>> implements BSTreeADT<E> {
+
+	private static final long serialVersionUID = 1L;
+
+	private boolean balanced;
+	private transient volatile Version<E> current;
+	private transient BSTreeNode<E>[] descentPath;
+	private transient boolean[] descentLeft;
+
+	/**
+	 * An immutable version of the tree: its root and its size.
+	 */
+	private static final class Version<E> {
+		private final BSTreeNode<E> root;
+		private final int size;
+
+		private Version(BSTreeNode<E> root, int size) {
+			this.root = root;
+			this.size = size;
+		}
+	}
+
+	/**
+	 * Default constructor. Initializes an empty persistent tree.
+	 */
+	public PersistentBSTree() {
+		this(false);
+	}
+
+	/**
+	 * Constructor to initialize an empty persistent tree, optionally in balanced
+	 * mode.
+	 *
+	 * @param balanced true to keep every version AVL-balanced.
+	 */
+	public PersistentBSTree(boolean balanced) {
+		this(balanced, new Version<E>(null, 0));
+	}
+
+	private PersistentBSTree(boolean balanced, Version<E> version) {
+		this.balanced = balanced;
+		this.current = version;
+	}
+
+	/**
+	 * Captures the current version of the tree in O(1). The snapshot shares all
+	 * nodes with this tree; later changes to either tree are not seen by the
+	 * other.
+	 *
+	 * @return a tree holding the current version.
+	 */
+	public PersistentBSTree<E> snapshot() {
+		return new PersistentBSTree<>(balanced, current);
+	}
+
+	/**
+	 * Checks if the versions of the tree are kept balanced.
+	 *
+	 * @return true if the tree was created in balanced mode.
+	 */
+	public boolean isBalanced() {
+		return balanced;
+	}
+
+	@Override
+	public BSTreeNode<E> getRoot() throws NullPointerException {
+		BSTreeNode<E> root = current.root;
+		if (root == null) {
+			throw new NullPointerException("The tree is empty.");
+		}
+		return new View<>(root);
+	}
+
+	@Override
+	public int getHeight() {
+		return BSTree.heightOf(current.root);
+	}
+
+	@Override
+	public int size() {
+		return current.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return current.root == null;
+	}
+
+	@Override
+	public synchronized void clear() {
+		current = new Version<E>(null, 0);
+	}
+
+	@Override
+	public boolean contains(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		return find(entry) != null;
+	}
+
+	@Override
+	public BSTreeNode<E> search(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to search for a null value.");
+		}
+		return View.of(find(entry));
+	}
+
+	private BSTreeNode<E> find(E entry) {
+		BSTreeNode<E> node = current.root;
+		while (node != null) {
+			int comparison = entry.compareTo(node.getElement());
+			if (comparison == 0) {
+				return node;
+			}
+			node = comparison < 0 ? node.getLeft() : node.getRight();
+		}
+		return null;
+	}
+
+	/**
+	 * Counts the elements of the current version that are smaller than the given
+	 * one.
+	 * 
+	 * @param entry the element to rank.
+	 * @return the number of elements smaller than entry.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public int rank(E entry) throws NullPointerException {
+		return BSTree.rankIn(current.root, entry);
+	}
+
+	/**
+	 * Finds the element at a position of the ascending order of the current
+	 * version.
+	 * 
+	 * @param index the zero-based position of the element.
+	 * @return the element with exactly index smaller elements in the tree.
+	 * @throws IndexOutOfBoundsException if index is negative or not less than the
+	 *                                   size of the tree.
+	 */
+	public E select(int index) throws IndexOutOfBoundsException {
+		return BSTree.selectIn(current.root, index);
+	}
+
+	/**
+	 * Finds the smallest element of the current version greater than or equal to
+	 * the given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the least element not below entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E ceiling(E entry) throws NullPointerException {
+		return BSTree.elementOf(BSTree.ceilingNode(current.root, entry, true));
+	}
+
+	/**
+	 * Finds the smallest element of the current version strictly greater than the
+	 * given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the least element above entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E higher(E entry) throws NullPointerException {
+		return BSTree.elementOf(BSTree.ceilingNode(current.root, entry, false));
+	}
+
+	/**
+	 * Finds the largest element of the current version less than or equal to the
+	 * given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the greatest element not above entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E floor(E entry) throws NullPointerException {
+		return BSTree.elementOf(BSTree.floorNode(current.root, entry, true));
+	}
+
+	/**
+	 * Finds the largest element of the current version strictly less than the
+	 * given one.
+	 * 
+	 * @param entry the element to compare with.
+	 * @return the greatest element below entry, or null if there is none.
+	 * @throws NullPointerException if the element being passed in is null.
+	 */
+	public E lower(E entry) throws NullPointerException {
+		return BSTree.elementOf(BSTree.floorNode(current.root, entry, false));
+	}
+
+	@Override
+	public boolean add(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		int sizeBefore = current.size;
+		addIfAbsent(newEntry);
+		return current.size != sizeBefore;
+	}
+
+	@Override
+	public synchronized BSTreeNode<E> addIfAbsent(E newEntry) throws NullPointerException {
+		if (newEntry == null) {
+			throw new NullPointerException("Cannot add a null value.");
+		}
+
+		Version<E> version = current;
+		BSTreeNode<E>[] path = pathBuffer(version.root);
+		int depth = 0;
+		BSTreeNode<E> node = version.root;
+		while (node != null) {
+			int comparison = newEntry.compareTo(node.getElement());
+			if (comparison == 0) {
+				clearPath(depth);
+				return new View<>(node);
+			}
+			path[depth] = node;
+			descentLeft[depth++] = comparison < 0;
+			node = comparison < 0 ? node.getLeft() : node.getRight();
+		}
+
+		BSTreeNode<E> added = new BSTreeNode<>(newEntry);
+		current = new Version<>(copyPath(depth, added, false), version.size + 1);
+		return new View<>(added);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMin() {
+		return removeExtreme(true);
+	}
+
+	@Override
+	public BSTreeNode<E> removeMax() {
+		return removeExtreme(false);
+	}
+
+	/**
+	 * Removes the smallest or largest node from the current version, copying the
+	 * path down to it.
+	 *
+	 * @param min true to remove the smallest node, false for the largest.
+	 * @return a detached node holding the removed element, or null if the tree is
+	 *         empty.
+	 */
+	private synchronized BSTreeNode<E> removeExtreme(boolean min) {
+		Version<E> version = current;
+		if (version.root == null) {
+			return null;
+		}
+
+		BSTreeNode<E>[] path = pathBuffer(version.root);
+		int depth = 0;
+		BSTreeNode<E> node = version.root;
+		BSTreeNode<E> next = min ? node.getLeft() : node.getRight();
+		while (next != null) {
+			path[depth] = node;
+			descentLeft[depth++] = min;
+			node = next;
+			next = min ? node.getLeft() : node.getRight();
+		}
+
+		BSTreeNode<E> replacement = min ? node.getRight() : node.getLeft();
+		current = new Version<>(copyPath(depth, replacement, true), version.size - 1);
+		return new BSTreeNode<>(node.getElement());
+	}
+
+	/**
+	 * Read-only view of a node shared between versions. Two views are equal when
+	 * they show the same node.
+	 */
+	private static final class View<E> extends NodeView<E> {
+		private static final long serialVersionUID = 1L;
+
+		private final BSTreeNode<E> node;
+
+		private View(BSTreeNode<E> node) {
+			this.node = node;
+		}
+
+		private static <E> View<E> of(BSTreeNode<E> node) {
+			return node == null ? null : new View<>(node);
+		}
+
+		@Override
+		public E getElement() {
+			return node.getElement();
+		}
+
+		@Override
+		public BSTreeNode<E> getLeft() {
+			return of(node.getLeft());
+		}
+
+		@Override
+		public BSTreeNode<E> getRight() {
+			return of(node.getRight());
+		}
+
+		/**
+		 * The node may belong to snapshots, so its element cannot be replaced.
+		 *
+		 * @throws UnsupportedOperationException always.
+		 */
+		@Override
+		public void setElement(E element) {
+			throw new UnsupportedOperationException("Nodes of a PersistentBSTree are shared with its snapshots.");
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof View && ((View<?>) other).node == node;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(node);
+		}
+	}
+
+	/**
+	 * Rebuilds the recorded path bottom-up on top of a new subtree, copying every
+	 * node on it and rebalancing the copies in balanced mode.
+	 *
+	 * @param depth        the number of nodes recorded in the path.
+	 * @param subtree      the new subtree below the last node of the path.
+	 * @param sharedSiblings true if the children off the path may belong to
+	 *                     published versions and must be copied before a
+	 *                     rotation changes them. After an add, every child a
+	 *                     rotation changes is already a copy on the path.
+	 * @return the root of the new version.
+	 */
+	private BSTreeNode<E> copyPath(int depth, BSTreeNode<E> subtree, boolean sharedSiblings) {
+		for (int i = depth - 1; i >= 0; i--) {
+			BSTreeNode<E> original = descentPath[i];
+			descentPath[i] = null;
+			BSTreeNode<E> copy = descentLeft[i] ? new BSTreeNode<>(original.getElement(), subtree, original.getRight())
+					: new BSTreeNode<>(original.getElement(), original.getLeft(), subtree);
+			subtree = balanced ? rebalance(copy, sharedSiblings) : updateNode(copy);
+		}
+		return subtree;
+	}
+
+	/**
+	 * Restores the AVL balance of a freshly copied node whose children are
+	 * balanced.
+	 *
+	 * @param node           the copied node to rebalance.
+	 * @param sharedChildren true if the children of the node may be shared.
+	 * @return the root of the rebalanced subtree.
+	 */
+	private BSTreeNode<E> rebalance(BSTreeNode<E> node, boolean sharedChildren) {
+		updateNode(node);
+		int balance = BSTree.heightOf(node.getLeft()) - BSTree.heightOf(node.getRight());
+		if (balance > 1) {
+			BSTreeNode<E> left = sharedChildren ? copy(node.getLeft()) : node.getLeft();
+			if (BSTree.heightOf(left.getLeft()) < BSTree.heightOf(left.getRight())) {
+				left = rotateLeft(left, sharedChildren);
+			}
+			node.setLeft(left);
+			return rotateRight(node, false);
+		}
+		if (balance < -1) {
+			BSTreeNode<E> right = sharedChildren ? copy(node.getRight()) : node.getRight();
+			if (BSTree.heightOf(right.getRight()) < BSTree.heightOf(right.getLeft())) {
+				right = rotateRight(right, sharedChildren);
+			}
+			node.setRight(right);
+			return rotateLeft(node, false);
+		}
+		return node;
+	}
+
+	private BSTreeNode<E> rotateLeft(BSTreeNode<E> node, boolean sharedPivot) {
+		BSTreeNode<E> pivot = sharedPivot ? copy(node.getRight()) : node.getRight();
+		node.setRight(pivot.getLeft());
+		pivot.setLeft(node);
+		updateNode(node);
+		return updateNode(pivot);
+	}
+
+	private BSTreeNode<E> rotateRight(BSTreeNode<E> node, boolean sharedPivot) {
+		BSTreeNode<E> pivot = sharedPivot ? copy(node.getLeft()) : node.getLeft();
+		node.setLeft(pivot.getRight());
+		pivot.setRight(node);
+		updateNode(node);
+		return updateNode(pivot);
+	}
+
+	private static <E> BSTreeNode<E> copy(BSTreeNode<E> node) {
+		BSTreeNode<E> copy = new BSTreeNode<>(node.getElement(), node.getLeft(), node.getRight());
+		copy.setHeight(node.getHeight());
+		copy.setSubtreeSize(node.getSubtreeSize());
+		return copy;
+	}
+
+	private static <E> BSTreeNode<E> updateNode(BSTreeNode<E> node) {
+		node.setHeight(1 + Math.max(BSTree.heightOf(node.getLeft()), BSTree.heightOf(node.getRight())));
+		node.setSubtreeSize(1 + BSTree.sizeOf(node.getLeft()) + BSTree.sizeOf(node.getRight()));
+		return node;
+	}
+
+	/**
+	 * Returns reusable buffers large enough to record any root-to-leaf path of a
+	 * version. Only the writer holding the lock uses them.
+	 *
+	 * @param root the root of the version about to be changed.
+	 * @return the path buffer.
+	 */
+	@SuppressWarnings("unchecked")
+	private BSTreeNode<E>[] pathBuffer(BSTreeNode<E> root) {
+		int needed = BSTree.heightOf(root) + 1;
+		if (descentPath == null || descentPath.length < needed) {
+			int capacity = Math.max(needed, 32);
+			descentPath = (BSTreeNode<E>[]) new BSTreeNode<?>[capacity];
+			descentLeft = new boolean[capacity];
+		}
+		return descentPath;
+	}
+
+	private void clearPath(int depth) {
+		for (int i = 0; i < depth; i++) {
+			descentPath[i] = null;
+		}
+	}
+
+	@Override
+	public Iterator<E> inorderIterator() {
+		return TreeIterators.inorder(current.root);
+	}
+
+	@Override
+	public Iterator<E> preorderIterator() {
+		return TreeIterators.preorder(current.root);
+	}
+
+	@Override
+	public Iterator<E> postorderIterator() {
+		return TreeIterators.postorder(current.root);
+	}
+
+	/**
+	 * Creates an iterator over the elements of the current version between two
+	 * bounds, in ascending order, seeking to the lower bound in O(height).
+	 * 
+	 * @param from          the lower bound, or null for none.
+	 * @param fromInclusive true if an element equal to the lower bound is included.
+	 * @param to            the upper bound, or null for none.
+	 * @param toInclusive   true if an element equal to the upper bound is included.
+	 * @return an iterator over the elements in the range.
+	 * @throws IllegalArgumentException if the lower bound is above the upper bound.
+	 */
+	public Iterator<E> rangeIterator(E from, boolean fromInclusive, E to, boolean toInclusive)
+			throws IllegalArgumentException {
+		BSTree.checkRange(from, to);
+		return TreeIterators.range(current.root, from, fromInclusive, to, toInclusive);
+	}
+
+	/**
+	 * Creates a spliterator over the elements of the current version in ascending
+	 * order, split by subtree. Later changes to the tree are not seen by it.
+	 * 
+	 * @return the in-order spliterator.
+	 */
+	public Spliterator<E> spliterator() {
+		Version<E> version = current;
+		return TreeIterators.inorderSpliterator(version.root, version.size);
+	}
+
+	/**
+	 * Creates a sequential stream over the elements of the current version in
+	 * ascending order.
+	 * 
+	 * @return the stream of elements.
+	 */
+	public Stream<E> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Creates a parallel stream over the elements of the current version, split
+	 * by subtree.
+	 * 
+	 * @return the parallel stream of elements.
+	 */
+	public Stream<E> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Writes the current version as its size followed by its elements in order.
+	 *
+	 * @param out the stream to write the tree to.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		Version<E> version = current;
+		out.defaultWriteObject();
+		out.writeInt(version.size);
+		Iterator<E> iterator = TreeIterators.inorder(version.root);
+		while (iterator.hasNext()) {
+			out.writeObject(iterator.next());
+		}
+	}
+
+	/**
+	 * Reads a tree written by {@link #writeObject(ObjectOutputStream)} and rebuilds
+	 * it perfectly balanced in O(n).
+	 *
+	 * @param in the stream to read the tree from.
+	 * @throws IOException            if an I/O error occurs.
+	 * @throws ClassNotFoundException if the class of an element cannot be found.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		int size = in.readInt();
+		List<E> elements = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			elements.add((E) in.readObject());
+		}
+		current = new Version<>(BSTree.buildBalanced(elements, 0, size), size);
+	}
+}
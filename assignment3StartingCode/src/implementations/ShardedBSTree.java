@@ -0,0 +1,213 @@
+package implementations;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Thread-safe ordered index made of several BSTrees, each holding one range of
+ * the keyspace behind its own lock. The shards may also be any other
+ * implementation of the BSTreeADT, such as a {@link BTree}.
+ *
+ * <p>
+ * The ranges are given by ascending split points: shard 0 holds the elements
+ * smaller than the first split point, shard i the elements from split point
+ * i - 1 up to, but excluding, split point i, and the last shard everything from
+ * the last split point on. An element is routed to its shard by a binary search
+ * over the split points, and only that shard is locked while the element is
+ * added or looked up, so threads working on different ranges never wait for each
+ * other.
+ * </p>
+ *
+ * <p>
+ * Because the shards cover consecutive ranges, visiting them in order gives the
+ * elements in globally ascending order. The iterator is meant for reading the
+ * index once the writers are done, for example to build a report; it does not
+ * lock the shards.
+ * </p>
+ *
+ * @param <E> Type of elements stored in the index, must implement Comparable.
+ */
+public class ShardedBSTree<E extends Comparable<? super E>> {
+
+	private final E[] splitPoints;
+	private final BSTreeADT<E>[] shards;
+
+	/**
+	 * Constructs an empty index with one shard more than there are split points.
+	 *
+	 * @param splitPoints the first element of every shard but the first, in
+	 *                    strictly ascending order.
+	 * @param balanced    true to keep every shard AVL-balanced.
+	 * @throws NullPointerException     if a split point is null.
+	 * @throws IllegalArgumentException if the split points are not in strictly
+	 *                                  ascending order.
+	 */
+	public ShardedBSTree(E[] splitPoints, boolean balanced) throws NullPointerException, IllegalArgumentException {
+		this(splitPoints, () -> new BSTree<>(balanced));
+	}
+
+	/**
+	 * Constructs an empty index with one shard more than there are split points,
+	 * each created by the given factory.
+	 *
+	 * @param splitPoints the first element of every shard but the first, in
+	 *                    strictly ascending order.
+	 * @param newShard    the factory creating an empty shard.
+	 * @throws NullPointerException     if a split point is null.
+	 * @throws IllegalArgumentException if the split points are not in strictly
+	 *                                  ascending order.
+	 */
+	@SuppressWarnings("unchecked")
+	public ShardedBSTree(E[] splitPoints, Supplier<? extends BSTreeADT<E>> newShard)
+			throws NullPointerException, IllegalArgumentException {
+		for (int i = 0; i < splitPoints.length; i++) {
+			if (splitPoints[i] == null) {
+				throw new NullPointerException("Cannot split on a null value.");
+			}
+			if (i > 0 && splitPoints[i - 1].compareTo(splitPoints[i]) >= 0) {
+				throw new IllegalArgumentException("Split points must be in strictly ascending order.");
+			}
+		}
+		this.splitPoints = Arrays.copyOf(splitPoints, splitPoints.length);
+		this.shards = (BSTreeADT<E>[]) new BSTreeADT<?>[splitPoints.length + 1];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = newShard.get();
+		}
+	}
+
+	/**
+	 * The number of shards of the index.
+	 *
+	 * @return number of shards.
+	 */
+	public int shardCount() {
+		return shards.length;
+	}
+
+	/**
+	 * Finds the shard whose range holds an element.
+	 *
+	 * @param entry the element to route.
+	 * @return the index of the shard.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public int shardOf(E entry) throws NullPointerException {
+		if (entry == null) {
+			throw new NullPointerException("Unable to route a null value.");
+		}
+		int low = 0;
+		int high = splitPoints.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (entry.compareTo(splitPoints[middle]) < 0) {
+				high = middle;
+			} else {
+				low = middle + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * The number of elements in the index. While writers are active, the count
+	 * may miss their latest additions.
+	 *
+	 * @return number of elements in the index.
+	 */
+	public int size() {
+		int size = 0;
+		for (BSTreeADT<E> shard : shards) {
+			synchronized (shard) {
+				size += shard.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Determines if an element is in the index.
+	 *
+	 * @param entry the element to look for.
+	 * @return true if the element is in the index.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public boolean contains(E entry) throws NullPointerException {
+		BSTreeADT<E> shard = shards[shardOf(entry)];
+		synchronized (shard) {
+			return shard.contains(entry);
+		}
+	}
+
+	/**
+	 * Adds an element to the index if it is not there yet.
+	 *
+	 * @param newEntry the element to add.
+	 * @return true if the element was added, false if an equal element is already
+	 *         in the index.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public boolean add(E newEntry) throws NullPointerException {
+		BSTreeADT<E> shard = shards[shardOf(newEntry)];
+		synchronized (shard) {
+			return shard.add(newEntry);
+		}
+	}
+
+	/**
+	 * Adds an element to the index if no equal element is there yet, then runs
+	 * an action on the stored element while its shard is still locked. The action
+	 * may safely update the stored element; it must not use the index. The element
+	 * is then handed back to its node through setElement, so that shards whose
+	 * nodes decode a copy of their element, like {@link OffHeapBSTree}, keep the
+	 * update.
+	 *
+	 * @param newEntry the element to add.
+	 * @param action   the action to run on the stored element.
+	 * @return the stored element: the existing one, or newEntry if it was added.
+	 * @throws NullPointerException if the element is null.
+	 */
+	public E addIfAbsent(E newEntry, Consumer<? super E> action) throws NullPointerException {
+		BSTreeADT<E> shard = shards[shardOf(newEntry)];
+		synchronized (shard) {
+			BSTreeNode<E> node = shard.addIfAbsent(newEntry);
+			E stored = node.getElement();
+			action.accept(stored);
+			node.setElement(stored);
+			return stored;
+		}
+	}
+
+	/**
+	 * Creates an iterator visiting every shard in order, which yields all
+	 * elements in ascending order.
+	 *
+	 * @return the in-order iterator over the index.
+	 */
+	public Iterator<E> inorderIterator() {
+		return new Iterator<E>() {
+			private int shard;
+			private Iterator<E> current = shards[0].inorderIterator();
+
+			@Override
+			public boolean hasNext() {
+				while (!current.hasNext() && shard + 1 < shards.length) {
+					current = shards[++shard].inorderIterator();
+				}
+				return current.hasNext();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return current.next();
+			}
+		};
+	}
+}
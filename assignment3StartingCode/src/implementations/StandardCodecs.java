@@ -0,0 +1,83 @@
+package implementations;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The codecs returned by {@link ElementCodec#strings()} and
+ * {@link ElementCodec#integers()}. They are enums so that a deserialized tree
+ * gets the same instances back.
+ */
+final class StandardCodecs {
+
+	private StandardCodecs() {
+	}
+
+	/**
+	 * Strings as their UTF-16 code units, two bytes each, which keeps comparison
+	 * identical to {@link String#compareTo(String)}.
+	 */
+	enum Strings implements ElementCodec<String> {
+		INSTANCE;
+
+		@Override
+		public int encodedLength(String element) {
+			return element.length() * 2;
+		}
+
+		@Override
+		public void encode(String element, ByteBuffer target) {
+			for (int i = 0; i < element.length(); i++) {
+				target.putChar(element.charAt(i));
+			}
+		}
+
+		@Override
+		public String decode(ByteBuffer source, int offset, int length) {
+			char[] chars = new char[length / 2];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = source.getChar(offset + i * 2);
+			}
+			return new String(chars);
+		}
+
+		@Override
+		public int compare(String element, ByteBuffer source, int offset, int length) {
+			int encodedChars = length / 2;
+			int common = Math.min(element.length(), encodedChars);
+			for (int i = 0; i < common; i++) {
+				int difference = element.charAt(i) - source.getChar(offset + i * 2);
+				if (difference != 0) {
+					return difference;
+				}
+			}
+			return element.length() - encodedChars;
+		}
+	}
+
+	/**
+	 * Integers in four bytes.
+	 */
+	enum Integers implements ElementCodec<Integer> {
+		INSTANCE;
+
+		@Override
+		public int encodedLength(Integer element) {
+			return Integer.BYTES;
+		}
+
+		@Override
+		public void encode(Integer element, ByteBuffer target) {
+			target.putInt(element);
+		}
+
+		@Override
+		public Integer decode(ByteBuffer source, int offset, int length) {
+			return source.getInt(offset);
+		}
+
+		@Override
+		public int compare(Integer element, ByteBuffer source, int offset, int length) {
+			return Integer.compare(element, source.getInt(offset));
+		}
+	}
+}
@@ -0,0 +1,348 @@
+package implementations;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import utilities.Iterator;
+
+/**
+ * Iterators over the nodes below a root, in the three traversal orders and over
+ * a range, and a spliterator over them in order.
+ *
+ * <p>
+ * The iterators are lazy: they keep only the nodes on the path to the next
+ * element on an explicit stack, so they start in constant time, hold O(height)
+ * nodes and cannot overflow the call stack however deep the tree is. They read
+ * the links of the nodes as they go and make no copy of the tree.
+ * </p>
+ */
+final class TreeIterators {
+
+	private TreeIterators() {
+	}
+
+	/**
+	 * Creates an iterator over the elements below a root in ascending order.
+	 * 
+	 * @param root the root of the tree, or null for an empty tree.
+	 * @return the in-order iterator.
+	 */
+	static <E> Iterator<E> inorder(BSTreeNode<E> root) {
+		return new Iterator<E>() {
+			private final ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+
+			{
+				pushLeft(root);
+			}
+
+			private void pushLeft(BSTreeNode<E> node) {
+				while (node != null) {
+					stack.push(node);
+					node = node.getLeft();
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				BSTreeNode<E> node = stack.pop();
+				pushLeft(node.getRight());
+				return node.getElement();
+			}
+		};
+	}
+
+	/**
+	 * Creates an iterator over the elements below a root, each node before its
+	 * left and then its right subtree.
+	 * 
+	 * @param root the root of the tree, or null for an empty tree.
+	 * @return the pre-order iterator.
+	 */
+	static <E> Iterator<E> preorder(BSTreeNode<E> root) {
+		return new Iterator<E>() {
+			private final ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+
+			{
+				if (root != null) {
+					stack.push(root);
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				BSTreeNode<E> node = stack.pop();
+				if (node.getRight() != null) {
+					stack.push(node.getRight());
+				}
+				if (node.getLeft() != null) {
+					stack.push(node.getLeft());
+				}
+				return node.getElement();
+			}
+		};
+	}
+
+	/**
+	 * Creates an iterator over the elements below a root, each node after its
+	 * left and then its right subtree.
+	 * 
+	 * @param root the root of the tree, or null for an empty tree.
+	 * @return the post-order iterator.
+	 */
+	static <E> Iterator<E> postorder(BSTreeNode<E> root) {
+		return new Iterator<E>() {
+			private final ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+
+			{
+				descend(root);
+			}
+
+			/**
+			 * Pushes the path from a node down to the first node of its subtree in
+			 * post-order, preferring left children over right ones.
+			 */
+			private void descend(BSTreeNode<E> node) {
+				while (node != null) {
+					stack.push(node);
+					node = node.getLeft() != null ? node.getLeft() : node.getRight();
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				return !stack.isEmpty();
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (stack.isEmpty()) {
+					throw new NoSuchElementException();
+				}
+				BSTreeNode<E> node = stack.pop();
+				BSTreeNode<E> parent = stack.peek();
+				if (parent != null && parent.getLeft() == node) {
+					descend(parent.getRight());
+				}
+				return node.getElement();
+			}
+		};
+	}
+
+	/**
+	 * Creates an iterator over the elements below a root that lie between two
+	 * bounds, in ascending order. The iterator seeks to the lower bound in
+	 * O(height), keeping only the nodes on the way down that are within it, and
+	 * stops as soon as the next element passes the upper bound.
+	 * 
+	 * @param root          the root of the tree, or null for an empty tree.
+	 * @param from          the lower bound, or null for none.
+	 * @param fromInclusive true if an element equal to the lower bound is included.
+	 * @param to            the upper bound, or null for none.
+	 * @param toInclusive   true if an element equal to the upper bound is included.
+	 * @return the range iterator.
+	 */
+	static <E extends Comparable<? super E>> Iterator<E> range(BSTreeNode<E> root, E from, boolean fromInclusive,
+			E to, boolean toInclusive) {
+		return new Iterator<E>() {
+			private final ArrayDeque<BSTreeNode<E>> stack = new ArrayDeque<>();
+
+			{
+				BSTreeNode<E> node = root;
+				while (node != null) {
+					int comparison = from == null ? 1 : node.getElement().compareTo(from);
+					if (comparison > 0 || comparison == 0 && fromInclusive) {
+						stack.push(node);
+						node = node.getLeft();
+					} else {
+						node = node.getRight();
+					}
+				}
+			}
+
+			private void pushLeft(BSTreeNode<E> node) {
+				while (node != null) {
+					stack.push(node);
+					node = node.getLeft();
+				}
+			}
+
+			@Override
+			public boolean hasNext() {
+				if (stack.isEmpty()) {
+					return false;
+				}
+				if (to == null) {
+					return true;
+				}
+				int comparison = stack.peek().getElement().compareTo(to);
+				return comparison < 0 || comparison == 0 && toInclusive;
+			}
+
+			@Override
+			public E next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				BSTreeNode<E> node = stack.pop();
+				pushLeft(node.getRight());
+				return node.getElement();
+			}
+		};
+	}
+
+	/**
+	 * Creates a spliterator over the elements below a root in ascending order,
+	 * which splits by subtree so that the elements can be processed in parallel.
+	 * 
+	 * @param root the root of the tree, or null for an empty tree.
+	 * @param size the number of elements below the root.
+	 * @return the in-order spliterator.
+	 */
+	static <E> Spliterator<E> inorderSpliterator(BSTreeNode<E> root, int size) {
+		return new InorderSpliterator<>(root, size);
+	}
+
+	/**
+	 * In-order spliterator over a part of a tree.
+	 *
+	 * <p>
+	 * The remaining elements are those of a whole subtree not entered yet,
+	 * followed by those of a stack of nodes as kept by the in-order iterator:
+	 * each node's element, then its right subtree. A spliterator split off as a
+	 * prefix may end at a last node, whose right subtree belongs to the suffix.
+	 * </p>
+	 *
+	 * <p>
+	 * A split hands the left half of the unentered subtree, with its root, to the
+	 * prefix and keeps the right half. Once the subtree has been entered, the
+	 * shallowest node on the stack whose right subtree is still to come becomes
+	 * the split point instead, so the suffix keeps the largest subtree left. Both
+	 * take O(height) time and never copy elements. The size is only known before
+	 * the first split; after that it is halved on every split as an estimate.
+	 * </p>
+	 */
+	private static final class InorderSpliterator<E> implements Spliterator<E> {
+		private static final int CHARACTERISTICS = ORDERED | DISTINCT | SORTED | NONNULL;
+
+		private BSTreeNode<E> subtree;
+		private final ArrayDeque<BSTreeNode<E>> stack;
+		private final BSTreeNode<E> last;
+		private long estimate;
+		private boolean exact;
+
+		private InorderSpliterator(BSTreeNode<E> root, int size) {
+			this(root, new ArrayDeque<>(), null, size);
+			exact = true;
+		}
+
+		private InorderSpliterator(BSTreeNode<E> subtree, ArrayDeque<BSTreeNode<E>> stack, BSTreeNode<E> last,
+				long estimate) {
+			this.subtree = subtree;
+			this.stack = stack;
+			this.last = last;
+			this.estimate = estimate;
+		}
+
+		private void pushLeft(BSTreeNode<E> node) {
+			while (node != null) {
+				stack.push(node);
+				node = node.getLeft();
+			}
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super E> action) {
+			if (subtree != null) {
+				pushLeft(subtree);
+				subtree = null;
+			}
+			if (stack.isEmpty()) {
+				return false;
+			}
+			BSTreeNode<E> node = stack.pop();
+			if (node != last) {
+				pushLeft(node.getRight());
+			}
+			if (estimate > 0) {
+				estimate--;
+			}
+			action.accept(node.getElement());
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super E> action) {
+			while (tryAdvance(action)) {
+			}
+		}
+
+		@Override
+		public Spliterator<E> trySplit() {
+			InorderSpliterator<E> prefix;
+			if (subtree != null) {
+				BSTreeNode<E> node = subtree;
+				ArrayDeque<BSTreeNode<E>> prefixStack = new ArrayDeque<>();
+				prefixStack.push(node);
+				prefix = new InorderSpliterator<>(node.getLeft(), prefixStack, node, estimate >>> 1);
+				subtree = node.getRight();
+			} else {
+				BSTreeNode<E> split = null;
+				java.util.Iterator<BSTreeNode<E>> shallowestFirst = stack.descendingIterator();
+				while (split == null && shallowestFirst.hasNext()) {
+					BSTreeNode<E> node = shallowestFirst.next();
+					if (node != last && node.getRight() != null) {
+						split = node;
+					}
+				}
+				if (split == null) {
+					return null;
+				}
+				ArrayDeque<BSTreeNode<E>> prefixStack = new ArrayDeque<>();
+				BSTreeNode<E> node;
+				do {
+					node = stack.pop();
+					prefixStack.addLast(node);
+				} while (node != split);
+				prefix = new InorderSpliterator<>(null, prefixStack, split, estimate >>> 1);
+				subtree = split.getRight();
+			}
+			estimate -= prefix.estimate;
+			exact = false;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return estimate;
+		}
+
+		@Override
+		public int characteristics() {
+			return exact ? CHARACTERISTICS | SIZED : CHARACTERISTICS;
+		}
+
+		@Override
+		public Comparator<? super E> getComparator() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package serialization;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Buffered reader over a file channel for the binary repository formats.
+ *
+ * <p>
+ * Mirrors {@link ChannelWriter}: the channel is read in large chunks and
+ * values are decoded straight out of the buffer. A CRC32 checksum is kept over
+ * every byte consumed so a trailer written by the writer can be verified.
+ * </p>
+ */
+class ChannelReader implements Closeable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final CRC32 checksum = new CRC32();
+	private int checkedUpTo;
+	private byte[] scratch = new byte[64];
+	private long filled;
+
+	/**
+	 * Constructs a reader starting at the channel's current position.
+	 * 
+	 * @param channel    The channel to read from.
+	 * @param bufferSize The size of the read buffer in bytes.
+	 */
+	ChannelReader(FileChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		buffer.flip();
+	}
+
+	/**
+	 * Retrieves the number of bytes consumed so far.
+	 * 
+	 * @return The number of bytes consumed.
+	 */
+	long position() {
+		return filled - buffer.remaining();
+	}
+
+	/**
+	 * Restarts the checksum, so the next trailer is verified against the bytes
+	 * consumed from now on.
+	 */
+	void resetChecksum() {
+		checkedUpTo = buffer.position();
+		checksum.reset();
+	}
+
+	/**
+	 * Checks if every byte of the channel has been consumed.
+	 * 
+	 * @return true if there is nothing left to read.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	boolean atEnd() throws IOException {
+		return !buffer.hasRemaining() && !fill(1, false);
+	}
+
+	int readByte() throws IOException {
+		require(1);
+		return buffer.get() & 0xFF;
+	}
+
+	int readInt() throws IOException {
+		require(4);
+		return buffer.getInt();
+	}
+
+	long readLong() throws IOException {
+		require(8);
+		return buffer.getLong();
+	}
+
+	/**
+	 * Reads an int written by {@link ChannelWriter#writeVarInt(int)}.
+	 * 
+	 * @return The value read.
+	 * @throws IOException If an I/O error occurs or the value is malformed.
+	 */
+	int readVarInt() throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			int b = readByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer.");
+	}
+
+	/**
+	 * Reads a run of values written by {@link ChannelWriter#writeVarInt(int)}
+	 * without decoding them.
+	 * 
+	 * @param count The number of values in the run.
+	 * @return The encoded bytes of the values.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	byte[] readVarIntRun(int count) throws IOException {
+		int length = 0;
+		while (count > 0) {
+			if (length == scratch.length) {
+				scratch = Arrays.copyOf(scratch, length * 2);
+			}
+			int b = readByte();
+			scratch[length++] = (byte) b;
+			if ((b & 0x80) == 0) {
+				count--;
+			}
+		}
+		return Arrays.copyOf(scratch, length);
+	}
+
+	void readBytes(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!buffer.hasRemaining()) {
+				require(1);
+			}
+			int chunk = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	/**
+	 * Reads a string written by {@link ChannelWriter#writeString(String)}.
+	 * 
+	 * @return The string read.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	String readString() throws IOException {
+		int length = readVarInt();
+		if (length < 0) {
+			throw new IOException("Malformed string length.");
+		}
+		if (length <= buffer.remaining() || fill(length, false)) {
+			String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+			buffer.position(buffer.position() + length);
+			return value;
+		}
+		if (scratch.length < length) {
+			scratch = new byte[Math.max(length, scratch.length * 2)];
+		}
+		readBytes(scratch, 0, length);
+		return new String(scratch, 0, length, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads the CRC32 trailer and compares it with the checksum of every byte
+	 * consumed since the reader was created or the checksum was last reset.
+	 * 
+	 * @throws IOException If an I/O error occurs or the checksums differ.
+	 */
+	void verifyChecksum() throws IOException {
+		require(4);
+		updateChecksum();
+		int expected = buffer.getInt();
+		checkedUpTo = buffer.position();
+		if (expected != (int) checksum.getValue()) {
+			throw new IOException("Checksum mismatch, the file is corrupted.");
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	private void require(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			fill(bytes, true);
+		}
+	}
+
+	/**
+	 * Refills the buffer until at least the given number of bytes can be consumed
+	 * from it, if the buffer is large enough to hold them.
+	 * 
+	 * @param bytes     The number of bytes needed.
+	 * @param mustExist true to throw if the channel ends first.
+	 * @return true if the bytes are available in the buffer.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	private boolean fill(int bytes, boolean mustExist) throws IOException {
+		if (bytes > buffer.capacity()) {
+			return false;
+		}
+		updateChecksum();
+		buffer.compact();
+		checkedUpTo = 0;
+		try {
+			while (buffer.position() < bytes) {
+				int read = channel.read(buffer);
+				if (read < 0) {
+					if (mustExist) {
+						throw new EOFException("Unexpected end of file.");
+					}
+					return false;
+				}
+				filled += read;
+			}
+		} finally {
+			buffer.flip();
+		}
+		return true;
+	}
+
+	private void updateChecksum() {
+		checksum.update(buffer.array(), checkedUpTo, buffer.position() - checkedUpTo);
+		checkedUpTo = buffer.position();
+	}
+}
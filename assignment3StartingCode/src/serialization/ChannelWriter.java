@@ -0,0 +1,162 @@
+package serialization;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Buffered writer over a file channel for the binary repository formats.
+ *
+ * <p>
+ * Values are packed into a large heap buffer that is only handed to the channel
+ * when full, so each write is a few array stores. A CRC32 checksum is kept over
+ * every byte written and can be appended as a trailer.
+ * </p>
+ */
+class ChannelWriter implements Closeable {
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer;
+	private final CRC32 checksum = new CRC32();
+	private int checkedUpTo;
+	private long flushed;
+
+	/**
+	 * Constructs a writer appending to the channel at its current position.
+	 * 
+	 * @param channel    The channel to write to.
+	 * @param bufferSize The size of the write buffer in bytes.
+	 */
+	ChannelWriter(FileChannel channel, int bufferSize) {
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+	}
+
+	/**
+	 * Retrieves the number of bytes written so far, including buffered ones.
+	 * 
+	 * @return The number of bytes written.
+	 */
+	long position() {
+		return flushed + buffer.position();
+	}
+
+	void writeByte(int value) throws IOException {
+		ensure(1);
+		buffer.put((byte) value);
+	}
+
+	void writeInt(int value) throws IOException {
+		ensure(4);
+		buffer.putInt(value);
+	}
+
+	void writeLong(long value) throws IOException {
+		ensure(8);
+		buffer.putLong(value);
+	}
+
+	/**
+	 * Writes a non-negative int in 7-bit groups, low group first, using one to
+	 * five bytes.
+	 * 
+	 * @param value The value to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void writeVarInt(int value) throws IOException {
+		ensure(5);
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+			int chunk = Math.min(length, buffer.remaining());
+			buffer.put(bytes, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	/**
+	 * Writes a string as its UTF-8 byte length followed by the bytes.
+	 * 
+	 * @param value The string to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void writeString(String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Restarts the checksum, so the next trailer only covers bytes written from
+	 * now on.
+	 */
+	void resetChecksum() {
+		checkedUpTo = buffer.position();
+		checksum.reset();
+	}
+
+	/**
+	 * Appends the CRC32 of every byte written since the writer was created or the
+	 * checksum was last reset. The trailer itself is not part of the checksum.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void writeChecksum() throws IOException {
+		updateChecksum();
+		writeInt((int) checksum.getValue());
+		checkedUpTo = buffer.position();
+	}
+
+	/**
+	 * Hands the buffered bytes to the channel.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	void flush() throws IOException {
+		updateChecksum();
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			flushed += channel.write(buffer);
+		}
+		buffer.clear();
+		checkedUpTo = 0;
+	}
+
+	/**
+	 * Flushes the buffered bytes and closes the channel.
+	 * 
+	 * @throws IOException If an I/O error occurs.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+
+	private void ensure(int bytes) throws IOException {
+		if (buffer.remaining() < bytes) {
+			flush();
+		}
+	}
+
+	private void updateChecksum() {
+		checksum.update(buffer.array(), checkedUpTo, buffer.position() - checkedUpTo);
+		checkedUpTo = buffer.position();
+	}
+}
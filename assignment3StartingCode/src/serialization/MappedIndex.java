@@ -0,0 +1,401 @@
+package serialization;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+import appDomain.FileTable;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Read-only, memory-mapped index over a word repository.
+ *
+ * <p>
+ * The index file is laid out so it can be queried where it lies instead of
+ * being loaded:
+ * </p>
+ * <ul>
+ * <li>a fixed header with the section offsets,</li>
+ * <li>the repository's file table, as length-prefixed UTF-8 names in file id
+ * order,</li>
+ * <li>the word directory, one pair of ints per word pointing at its key and
+ * its entries, plus a closing pair marking where the last ones end,</li>
+ * <li>the keys, as the concatenated UTF-8 bytes of the words in order,</li>
+ * <li>the entries of every word, encoded as in {@link RepositoryFile},</li>
+ * <li>the frequency order: the positions of the words with entries, as one
+ * int each, from the most to the least frequent.</li>
+ * </ul>
+ * <p>
+ * Opening an index maps the file and reads only the header and file table.
+ * Lookups and range scans binary-search the directory in the mapping and only
+ * decode the words they return. Keys are ordered by their UTF-8 bytes, which
+ * matches the order of the words in the tree for every character outside the
+ * surrogate range, and in particular for all words the tracker extracts. The
+ * most frequent words are read by walking the start of the frequency order, so
+ * only the words returned are decoded. Indexes of version 1, written before
+ * the frequency order was stored, are still opened; they answer lookups and
+ * range scans only.
+ * </p>
+ */
+public class MappedIndex implements Closeable {
+
+	/** Magic number at the start of every index file, "WTIX". */
+	static final int MAGIC = 0x57544958;
+
+	/** Version of the index layout written by this class. */
+	static final int VERSION = 2;
+
+	private static final int VERSION_WITHOUT_FREQUENCIES = 1;
+
+	private static final int HEADER_SIZE = 40;
+	private static final int HEADER_SIZE_WITHOUT_FREQUENCIES = 32;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private MappedByteBuffer buffer;
+	private final FileTable files;
+	private final int wordCount;
+	private final int directoryOffset;
+	private final int keysOffset;
+	private final int postingsOffset;
+	private final int frequenciesOffset;
+	private final int rankedCount;
+
+	private MappedIndex(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_SIZE_WITHOUT_FREQUENCIES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a word repository index.");
+		}
+		int version = buffer.getInt(4);
+		if (version != VERSION && version != VERSION_WITHOUT_FREQUENCIES) {
+			throw new IOException("Unsupported index version " + version + ".");
+		}
+		if (version == VERSION && buffer.capacity() < HEADER_SIZE) {
+			throw new IOException("Corrupted index header.");
+		}
+		int fileCount = buffer.getInt(8);
+		wordCount = buffer.getInt(12);
+		int fileTableOffset = buffer.getInt(16);
+		directoryOffset = buffer.getInt(20);
+		keysOffset = buffer.getInt(24);
+		postingsOffset = buffer.getInt(28);
+		if (version == VERSION) {
+			frequenciesOffset = buffer.getInt(32);
+			rankedCount = buffer.getInt(36);
+		} else {
+			frequenciesOffset = postingsOffset;
+			rankedCount = -1;
+		}
+		if (fileCount < 0 || wordCount < 0 || fileTableOffset < HEADER_SIZE_WITHOUT_FREQUENCIES
+				|| directoryOffset < fileTableOffset || keysOffset - directoryOffset != (wordCount + 1) * 8L
+				|| postingsOffset < keysOffset || frequenciesOffset < postingsOffset
+				|| rankedCount > wordCount || frequenciesOffset + Math.max(rankedCount, 0) * 4L > buffer.capacity()) {
+			throw new IOException("Corrupted index header.");
+		}
+
+		files = new FileTable();
+		int[] position = { fileTableOffset };
+		for (int i = 0; i < fileCount; i++) {
+			int length = readVarInt(position);
+			files.intern(decode(position[0], length));
+			position[0] += length;
+		}
+	}
+
+	/**
+	 * Writes an index over the word repository. The index is written to a
+	 * temporary file first and moved over the target.
+	 * 
+	 * @param repository The word repository to index.
+	 * @param file       The file to write the index to.
+	 * @throws IOException If an I/O error occurs or the index would exceed 2 GB.
+	 */
+	public static void write(WordRepository repository, File file) throws IOException {
+		BSTree<WordInfo> tree = repository.getTree();
+		FileTable files = repository.getFiles();
+		int wordCount = tree.size();
+		int[] keyOffsets = new int[wordCount + 1];
+		int[] postingOffsets = new int[wordCount + 1];
+		Path target = file.toPath();
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ChannelWriter out = new ChannelWriter(channel, BUFFER_SIZE);
+			for (int i = 0; i < HEADER_SIZE; i++) {
+				out.writeByte(0);
+			}
+
+			int fileTableOffset = checkedOffset(out.position());
+			for (int i = 0; i < files.size(); i++) {
+				out.writeString(files.nameOf(i));
+			}
+
+			int directoryOffset = checkedOffset(out.position());
+			for (int i = 0; i <= wordCount; i++) {
+				out.writeLong(0);
+			}
+
+			int keysOffset = checkedOffset(out.position());
+			Iterator<WordInfo> iterator = tree.inorderIterator();
+			for (int i = 0; iterator.hasNext(); i++) {
+				keyOffsets[i] = checkedOffset(out.position() - keysOffset);
+				byte[] key = iterator.next().getWord().getBytes(StandardCharsets.UTF_8);
+				out.writeBytes(key, 0, key.length);
+			}
+			keyOffsets[wordCount] = checkedOffset(out.position() - keysOffset);
+
+			int postingsOffset = checkedOffset(out.position());
+			iterator = tree.inorderIterator();
+			for (int i = 0; iterator.hasNext(); i++) {
+				postingOffsets[i] = checkedOffset(out.position() - postingsOffset);
+				WordInfo info = iterator.next();
+				out.writeVarInt(info.getFileCount());
+				for (int j = 0; j < info.getFileCount(); j++) {
+					out.writeVarInt(info.getFileId(j));
+					RepositoryFile.writePostings(out, info.getPostings(j));
+				}
+			}
+			postingOffsets[wordCount] = checkedOffset(out.position() - postingsOffset);
+
+			int frequenciesOffset = checkedOffset(out.position());
+			int rankedCount = 0;
+			for (iterator = repository.byFrequency(); iterator.hasNext(); rankedCount++) {
+				out.writeInt(tree.rank(iterator.next()));
+			}
+			out.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).putInt(VERSION).putInt(files.size()).putInt(wordCount)
+					.putInt(fileTableOffset).putInt(directoryOffset).putInt(keysOffset).putInt(postingsOffset)
+					.putInt(frequenciesOffset).putInt(rankedCount);
+			header.flip();
+			writeFully(channel, header, 0);
+
+			ByteBuffer directory = ByteBuffer.allocate(BUFFER_SIZE);
+			long position = directoryOffset;
+			for (int i = 0; i <= wordCount; i++) {
+				if (directory.remaining() < 8) {
+					directory.flip();
+					position += writeFully(channel, directory, position);
+					directory.clear();
+				}
+				directory.putInt(keyOffsets[i]).putInt(postingOffsets[i]);
+			}
+			directory.flip();
+			writeFully(channel, directory, position);
+		}
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Opens an index by mapping its file into memory. Only the header and the
+	 * file table are read.
+	 * 
+	 * @param file The index file to open.
+	 * @return The opened index.
+	 * @throws IOException If an I/O error occurs or the file is not an index.
+	 */
+	public static MappedIndex open(File file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer.order(ByteOrder.BIG_ENDIAN);
+			return new MappedIndex(buffer);
+		}
+	}
+
+	/**
+	 * The number of words in the index.
+	 * 
+	 * @return number of words in the index.
+	 */
+	public int size() {
+		return wordCount;
+	}
+
+	/**
+	 * Retrieves the file table of the index. The file ids of the words returned
+	 * by the index refer to this table.
+	 * 
+	 * @return The file table of the index.
+	 */
+	public FileTable getFiles() {
+		return files;
+	}
+
+	/**
+	 * Looks up the word information of a single word.
+	 * 
+	 * @param word The word to look up.
+	 * @return The word information, or null if the word is not in the index.
+	 */
+	public WordInfo lookup(String word) {
+		byte[] key = word.getBytes(StandardCharsets.UTF_8);
+		int index = lowerBound(key);
+		if (index < wordCount && compareKey(index, key) == 0) {
+			return wordAt(index);
+		}
+		return null;
+	}
+
+	/**
+	 * Iterates over the word information of all words in the range [from, to),
+	 * in alphabetical order. The start of the range is found by binary search.
+	 * 
+	 * @param from The first word of the range, or null to start at the first word.
+	 * @param to   The word ending the range, or null to run to the last word.
+	 * @return An iterator over the words in range.
+	 */
+	public Iterator<WordInfo> range(String from, String to) {
+		int start = from == null ? 0 : lowerBound(from.getBytes(StandardCharsets.UTF_8));
+		int end = to == null ? wordCount : lowerBound(to.getBytes(StandardCharsets.UTF_8));
+		return new Iterator<WordInfo>() {
+			private int next = start;
+
+			@Override
+			public boolean hasNext() {
+				return next < end;
+			}
+
+			@Override
+			public WordInfo next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return wordAt(next++);
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the word information of the words with entries, from the most
+	 * to the least frequent, as the repository ordered them when the index was
+	 * written. Each word is only decoded when it is returned, so reading the
+	 * first K words costs O(K) whatever the size of the index.
+	 * 
+	 * @return An iterator over the words in frequency order, or null if the index
+	 *         was written before the frequency order was stored.
+	 */
+	public Iterator<WordInfo> byFrequency() {
+		if (rankedCount < 0) {
+			return null;
+		}
+		return new Iterator<WordInfo>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return next < rankedCount;
+			}
+
+			@Override
+			public WordInfo next() throws NoSuchElementException {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				int index = buffer.getInt(frequenciesOffset + next++ * 4);
+				if (index < 0 || index >= wordCount) {
+					throw new IllegalStateException("Corrupted index frequency order.");
+				}
+				return wordAt(index);
+			}
+		};
+	}
+
+	/**
+	 * Drops the index's reference to the mapping. The index cannot be used
+	 * afterwards. Java offers no way to unmap a buffer explicitly, so the mapped
+	 * memory, and on some platforms the lock that keeps the file from being
+	 * deleted or replaced, is only released once the buffer is garbage
+	 * collected.
+	 */
+	@Override
+	public void close() {
+		buffer = null;
+	}
+
+	/**
+	 * Finds the position of the first word that is not smaller than the key.
+	 * 
+	 * @param key The UTF-8 bytes of the word to find.
+	 * @return The position of the word, or the word count if every word is smaller.
+	 */
+	private int lowerBound(byte[] key) {
+		int low = 0;
+		int high = wordCount;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (compareKey(middle, key) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	private int compareKey(int index, byte[] key) {
+		int start = keysOffset + buffer.getInt(directoryOffset + index * 8);
+		int length = keysOffset + buffer.getInt(directoryOffset + index * 8 + 8) - start;
+		int common = Math.min(length, key.length);
+		for (int i = 0; i < common; i++) {
+			int comparison = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+			if (comparison != 0) {
+				return comparison;
+			}
+		}
+		return length - key.length;
+	}
+
+	private WordInfo wordAt(int index) {
+		int entry = directoryOffset + index * 8;
+		int keyStart = keysOffset + buffer.getInt(entry);
+		WordInfo info = new WordInfo(decode(keyStart, keysOffset + buffer.getInt(entry + 8) - keyStart));
+
+		int[] position = { postingsOffset + buffer.getInt(entry + 4) };
+		int entryCount = readVarInt(position);
+		for (int i = 0; i < entryCount; i++) {
+			int fileId = readVarInt(position);
+			info.addEntries(fileId, RepositoryFile.readPostings(buffer, position));
+		}
+		return info;
+	}
+
+	private String decode(int start, int length) {
+		byte[] bytes = new byte[length];
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(start);
+		slice.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private int readVarInt(int[] position) {
+		return RepositoryFile.readVarInt(buffer, position);
+	}
+
+	private static int checkedOffset(long offset) throws IOException {
+		if (offset > Integer.MAX_VALUE) {
+			throw new IOException("The index would exceed 2 GB.");
+		}
+		return (int) offset;
+	}
+
+	private static int writeFully(FileChannel channel, ByteBuffer source, long position) throws IOException {
+		int written = 0;
+		while (source.hasRemaining()) {
+			written += channel.write(source, position + written);
+		}
+		return written;
+	}
+}
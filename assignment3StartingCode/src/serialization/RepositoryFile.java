@@ -0,0 +1,313 @@
+package serialization;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import appDomain.FileTable;
+import appDomain.Postings;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Reads and writes a word repository in a compact, versioned binary format.
+ *
+ * <p>
+ * Unlike {@link Serialization}, no class descriptors or boxed values are
+ * written. The file holds:
+ * </p>
+ * <ul>
+ * <li>a header: the magic number, the format version and the tree flags,</li>
+ * <li>the repository's file table: every file name once, as length-prefixed
+ * UTF-8, in file id order,</li>
+ * <li>the words in ascending order, each followed by its entries as a file id,
+ * a line count and the packed line gaps of its postings,</li>
+ * <li>the frequency order: the positions of the words with entries, from the
+ * most to the least frequent,</li>
+ * <li>a CRC32 trailer over everything before it.</li>
+ * </ul>
+ * <p>
+ * Because the words are stored in order, loading rebuilds a balanced tree in
+ * linear time, and the frequency index of the repository is rebuilt from the
+ * stored order in linear time as well. Files of version 1, written before the
+ * frequency order was stored, are still read; their frequency index is sorted
+ * again on load.
+ * </p>
+ */
+public class RepositoryFile {
+
+	/** Magic number at the start of every repository file, "WTRK". */
+	static final int MAGIC = 0x5754524B;
+
+	/** Version of the format written by this class. */
+	static final int VERSION = 2;
+
+	private static final int VERSION_WITHOUT_FREQUENCIES = 1;
+
+	private static final int FLAG_BALANCED = 1;
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Saves the word repository to a file. The repository is written to a
+	 * temporary file first and moved over the target, so a failed save never
+	 * leaves a truncated repository behind.
+	 * 
+	 * @param repository The word repository to save.
+	 * @param file       The file to save the repository to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void save(WordRepository repository, File file) throws IOException {
+		BSTree<WordInfo> tree = repository.getTree();
+		FileTable files = repository.getFiles();
+
+		Path target = file.toPath();
+		Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+		try (ChannelWriter out = new ChannelWriter(FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), BUFFER_SIZE)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeByte(tree.isBalanced() ? FLAG_BALANCED : 0);
+			writeFileTable(out, files);
+
+			out.writeVarInt(tree.size());
+			Iterator<WordInfo> iterator = tree.inorderIterator();
+			while (iterator.hasNext()) {
+				WordInfo info = iterator.next();
+				out.writeString(info.getWord());
+				out.writeVarInt(info.getFileCount());
+				for (int i = 0; i < info.getFileCount(); i++) {
+					out.writeVarInt(info.getFileId(i));
+					writePostings(out, info.getPostings(i));
+				}
+			}
+
+			int ranked = 0;
+			for (iterator = repository.byFrequency(); iterator.hasNext(); iterator.next()) {
+				ranked++;
+			}
+			out.writeVarInt(ranked);
+			iterator = repository.byFrequency();
+			while (iterator.hasNext()) {
+				out.writeVarInt(tree.rank(iterator.next()));
+			}
+			out.writeChecksum();
+		}
+		Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Loads a word repository from a file written by
+	 * {@link #save(WordRepository, File)}.
+	 * 
+	 * @param file The file to load the repository from.
+	 * @return The repository, over a balanced tree holding the word information.
+	 * @throws IOException If an I/O error occurs, or the file is not a repository
+	 *                     of a supported version or fails its checksum.
+	 */
+	public static WordRepository load(File file) throws IOException {
+		try (ChannelReader in = new ChannelReader(FileChannel.open(file.toPath(), StandardOpenOption.READ),
+				BUFFER_SIZE)) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException(file + " is not a word repository.");
+			}
+			int version = in.readInt();
+			if (version != VERSION && version != VERSION_WITHOUT_FREQUENCIES) {
+				throw new IOException("Unsupported repository version " + version + ".");
+			}
+			boolean balanced = (in.readByte() & FLAG_BALANCED) != 0;
+			FileTable files = readFileTable(in);
+
+			WordInfo[] words = new WordInfo[in.readVarInt()];
+			for (int i = 0; i < words.length; i++) {
+				WordInfo info = new WordInfo(in.readString());
+				int entryCount = in.readVarInt();
+				for (int j = 0; j < entryCount; j++) {
+					int fileId = in.readVarInt();
+					if (fileId >= files.size()) {
+						throw new IOException(file + " refers to an unknown file.");
+					}
+					info.addEntries(fileId, readPostings(in));
+				}
+				words[i] = info;
+			}
+			if (version == VERSION_WITHOUT_FREQUENCIES) {
+				in.verifyChecksum();
+				return new WordRepository(BSTree.fromSorted(words, balanced), files);
+			}
+
+			WordInfo[] byFrequency = new WordInfo[in.readVarInt()];
+			for (int i = 0; i < byFrequency.length; i++) {
+				int position = in.readVarInt();
+				if (position >= words.length) {
+					throw new IOException(file + " refers to an unknown word.");
+				}
+				byFrequency[i] = words[position];
+			}
+			in.verifyChecksum();
+			return new WordRepository(BSTree.fromSorted(words, balanced), files, byFrequency);
+		} catch (IllegalArgumentException e) {
+			throw new IOException(file + " does not hold its words in order.", e);
+		}
+	}
+
+	/**
+	 * Writes a file table as its size followed by every file name in id order.
+	 * 
+	 * @param out   The writer to write to.
+	 * @param files The file table to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static void writeFileTable(ChannelWriter out, FileTable files) throws IOException {
+		out.writeVarInt(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			out.writeString(files.nameOf(i));
+		}
+	}
+
+	/**
+	 * Reads a file table written by
+	 * {@link #writeFileTable(ChannelWriter, FileTable)}.
+	 * 
+	 * @param in The reader to read from.
+	 * @return The file table, with the ids it was written with.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static FileTable readFileTable(ChannelReader in) throws IOException {
+		FileTable files = new FileTable();
+		int count = in.readVarInt();
+		for (int i = 0; i < count; i++) {
+			files.intern(in.readString());
+		}
+		return files;
+	}
+
+	/**
+	 * Writes postings as their line count followed by the packed gaps between
+	 * consecutive lines, which mostly fit in a single byte each.
+	 * 
+	 * @param out      The writer to write to.
+	 * @param postings The postings to write.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static void writePostings(ChannelWriter out, Postings postings) throws IOException {
+		byte[] packed = postings.getPacked();
+		out.writeVarInt(postings.size());
+		out.writeBytes(packed, 0, packed.length);
+	}
+
+	/**
+	 * Reads postings written by {@link #writePostings(ChannelWriter, Postings)}.
+	 * The packed gaps are kept as they are, without being decoded.
+	 * 
+	 * @param in The reader to read from.
+	 * @return The sealed postings.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	static Postings readPostings(ChannelReader in) throws IOException {
+		int count = in.readVarInt();
+		return Postings.fromPacked(in.readVarIntRun(count), count);
+	}
+
+	/**
+	 * The number of bytes postings take when written by
+	 * {@link #writePostings(ByteBuffer, Postings)}.
+	 * 
+	 * @param postings The postings to measure.
+	 * @return The encoded length in bytes.
+	 */
+	static int postingsLength(Postings postings) {
+		return varIntLength(postings.size()) + postings.getPacked().length;
+	}
+
+	/**
+	 * Writes postings into a buffer in the same layout as
+	 * {@link #writePostings(ChannelWriter, Postings)}, advancing its position.
+	 * 
+	 * @param out      The buffer to write to.
+	 * @param postings The postings to write.
+	 */
+	static void writePostings(ByteBuffer out, Postings postings) {
+		byte[] packed = postings.getPacked();
+		writeVarInt(out, postings.size());
+		out.put(packed);
+	}
+
+	/**
+	 * Reads postings written by {@link #writePostings(ByteBuffer, Postings)} or
+	 * {@link #writePostings(ChannelWriter, Postings)} from a buffer, without
+	 * moving it. The packed gaps are copied as they are, without being decoded.
+	 * 
+	 * @param in       The buffer to read from.
+	 * @param position The index to read from, advanced past the postings.
+	 * @return The sealed postings.
+	 */
+	static Postings readPostings(ByteBuffer in, int[] position) {
+		int count = readVarInt(in, position);
+		int start = position[0];
+		for (int j = 0; j < count; position[0]++) {
+			if ((in.get(position[0]) & 0x80) == 0) {
+				j++;
+			}
+		}
+		byte[] packed = new byte[position[0] - start];
+		for (int i = 0; i < packed.length; i++) {
+			packed[i] = in.get(start + i);
+		}
+		return Postings.fromPacked(packed, count);
+	}
+
+	/**
+	 * Writes a non-negative int into a buffer in the 7-bit groups of
+	 * {@link ChannelWriter#writeVarInt(int)}.
+	 * 
+	 * @param out   The buffer to write to.
+	 * @param value The value to write.
+	 */
+	static void writeVarInt(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	/**
+	 * Reads an int written in 7-bit groups from a buffer, without moving it.
+	 * 
+	 * @param in       The buffer to read from.
+	 * @param position The index to read from, advanced past the value.
+	 * @return The value read.
+	 */
+	static int readVarInt(ByteBuffer in, int[] position) {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			int b = in.get(position[0]++);
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * The number of bytes a non-negative int takes in 7-bit groups.
+	 * 
+	 * @param value The value to measure.
+	 * @return The encoded length in bytes.
+	 */
+	static int varIntLength(int value) {
+		int length = 1;
+		while ((value & ~0x7F) != 0) {
+			value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+}
@@ -0,0 +1,409 @@
+package serialization;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import appDomain.FileTable;
+import appDomain.Postings;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Append-only log of incremental updates to a word repository snapshot.
+ *
+ * <p>
+ * Each processing run appends one batch instead of rewriting the whole
+ * repository. A batch lists the files whose old entries are dropped and the
+ * word information read from those files, followed by a CRC32 of the batch.
+ * Every batch carries its own table of the file names it mentions, so it can be
+ * replayed without the file table of the snapshot it was written against; its
+ * file ids are mapped onto the reader's file table as the batch is read.
+ * Replaying the log over the snapshot it was written against restores the
+ * current repository. Because every batch first drops the entries of its
+ * files and then adds them again, replaying a batch twice gives the same
+ * result, so a crash between writing a new snapshot and clearing the log is
+ * harmless. A batch cut short by a crash fails its checksum and is discarded.
+ * Once the log grows larger than the snapshot, replaying it on every load costs
+ * more than rewriting the snapshot, and the log is compacted into a new one.
+ * </p>
+ */
+public class RepositoryLog {
+
+	/** Magic number at the start of every log file, "WTLG". */
+	static final int MAGIC = 0x57544C47;
+
+	/** Version of the log format written by this class. */
+	static final int VERSION = 1;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The frequency order of a repository: most entries first, then alphabetical.
+	 */
+	private static final Comparator<WordInfo> BY_FREQUENCY = (a, b) -> a.getTotal() != b.getTotal()
+			? Integer.compare(b.getTotal(), a.getTotal())
+			: a.compareTo(b);
+
+	/**
+	 * Receives the content of each complete batch while a log is read.
+	 */
+	private interface BatchHandler {
+		/**
+		 * Applies one batch.
+		 * 
+		 * @param removedFiles The files whose existing entries are dropped.
+		 * @param words        The word information added by the batch, with file
+		 *                     ids in the reader's file table.
+		 */
+		void apply(Set<String> removedFiles, List<WordInfo> words);
+	}
+
+	/**
+	 * Appends a batch to the log and forces it to disk. The log is created if it
+	 * does not exist yet.
+	 * 
+	 * @param log          The log file.
+	 * @param removedFiles The files whose existing entries are dropped.
+	 * @param added        The word information read from those files.
+	 * @param files        The file table the file ids of the word information
+	 *                     refer to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void append(File log, Collection<String> removedFiles, BSTree<WordInfo> added,
+			FileTable files) throws IOException {
+		FileTable batchFiles = new FileTable();
+		for (String fileName : removedFiles) {
+			batchFiles.intern(fileName);
+		}
+		int[] batchIds = new int[files.size()];
+		Arrays.fill(batchIds, -1);
+		Iterator<WordInfo> iterator = added.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			for (int i = 0; i < info.getFileCount(); i++) {
+				int fileId = info.getFileId(i);
+				if (batchIds[fileId] < 0) {
+					batchIds[fileId] = batchFiles.intern(files.nameOf(fileId));
+				}
+			}
+		}
+
+		FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		try (ChannelWriter out = new ChannelWriter(channel, BUFFER_SIZE)) {
+			if (channel.size() == 0) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+			}
+			out.resetChecksum();
+
+			RepositoryFile.writeFileTable(out, batchFiles);
+			out.writeVarInt(removedFiles.size());
+			for (String fileName : removedFiles) {
+				out.writeVarInt(batchFiles.idOf(fileName));
+			}
+
+			out.writeVarInt(added.size());
+			iterator = added.inorderIterator();
+			while (iterator.hasNext()) {
+				WordInfo info = iterator.next();
+				out.writeString(info.getWord());
+				out.writeVarInt(info.getFileCount());
+				for (int i = 0; i < info.getFileCount(); i++) {
+					out.writeVarInt(batchIds[info.getFileId(i)]);
+					RepositoryFile.writePostings(out, info.getPostings(i));
+				}
+			}
+			out.writeChecksum();
+			out.flush();
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Checks whether a log has grown larger than the snapshot it applies to and
+	 * should be compacted.
+	 * 
+	 * @param log      The log file.
+	 * @param snapshot The repository file the log applies to.
+	 * @return true if the log is larger than the snapshot.
+	 */
+	public static boolean needsCompaction(File log, File snapshot) {
+		return log.length() > snapshot.length();
+	}
+
+	/**
+	 * Compacts a log into a new snapshot: the repository, with the log already
+	 * replayed over it, is saved together with its index, and the log is deleted.
+	 * A crash before the log is deleted is harmless, since replaying the log over
+	 * the new snapshot gives the same repository.
+	 * 
+	 * @param log        The log file.
+	 * @param repository The current word repository.
+	 * @param snapshot   The repository file to rewrite.
+	 * @param index      The index file to rewrite.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void compact(File log, WordRepository repository, File snapshot, File index) throws IOException {
+		RepositoryFile.save(repository, snapshot);
+		MappedIndex.write(repository, index);
+		Files.deleteIfExists(log.toPath());
+	}
+
+	/**
+	 * Replays every complete batch of the log over a repository. A batch left
+	 * incomplete by a crash is cut off the end of the log.
+	 * 
+	 * @param log        The log file.
+	 * @param repository The word repository, as of the snapshot.
+	 * @throws IOException If an I/O error occurs or the file is not a log.
+	 */
+	public static void replay(File log, WordRepository repository) throws IOException {
+		long validLength = read(log, null, repository.getFiles(), (removedFiles, words) -> {
+			repository.removeFiles(removedFiles);
+			repository.merge(BSTree.fromSorted(words.toArray(new WordInfo[0]), true));
+		});
+		if (validLength < log.length()) {
+			try (FileChannel channel = FileChannel.open(log.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(validLength);
+			}
+		}
+	}
+
+	/**
+	 * Applies the batches of the log to the word information of a single word,
+	 * as found in the snapshot or its index. Other words are skipped without
+	 * being decoded.
+	 * 
+	 * @param log   The log file.
+	 * @param word  The word to look up.
+	 * @param info  The word information from the snapshot, or null if the word is
+	 *              not in the snapshot.
+	 * @param files The file table the file ids of the word information refer to.
+	 *              Files first named by the log are added to it.
+	 * @return The current word information, or null if the word is in neither the
+	 *         snapshot nor the log.
+	 * @throws IOException If an I/O error occurs or the file is not a log.
+	 */
+	public static WordInfo lookup(File log, String word, WordInfo info, FileTable files) throws IOException {
+		WordInfo[] current = { info };
+		read(log, word, files, (removedFiles, words) -> {
+			if (current[0] != null) {
+				for (String fileName : removedFiles) {
+					current[0].removeEntriesFromFile(files.idOf(fileName));
+				}
+			}
+			for (WordInfo added : words) {
+				if (current[0] == null) {
+					current[0] = added;
+				} else {
+					current[0].merge(added);
+				}
+			}
+		});
+		return current[0];
+	}
+
+	/**
+	 * Iterates over the current words of a repository from the most to the least
+	 * frequent, given the index of the snapshot the log applies to, without
+	 * loading the repository.
+	 *
+	 * <p>
+	 * The log is read once to collect the words its batches add, each merged with
+	 * its entry in the index, and the files its batches drop. These changed words
+	 * are put in a priority queue, and the frequency order of the index is then
+	 * merged with it: words the log changed are skipped there, and words that only
+	 * lose the entries of dropped files join the queue with their new totals. Any
+	 * other word of the index keeps its total, so every queued word ahead of it
+	 * in frequency order is returned first. Listing K words therefore decodes
+	 * only the K words plus those the log changed, at O(log n) per changed word
+	 * and O(log c) per word returned, for c changed words.
+	 * </p>
+	 *
+	 * @param log   The log file.
+	 * @param index The index of the snapshot the log applies to. Files first
+	 *              named by the log are added to its file table.
+	 * @return An iterator over the words with entries in frequency order, or null
+	 *         if the index was written before the frequency order was stored.
+	 * @throws IOException If an I/O error occurs or the file is not a log.
+	 */
+	public static Iterator<WordInfo> byFrequency(File log, MappedIndex index) throws IOException {
+		Iterator<WordInfo> indexed = index.byFrequency();
+		if (indexed == null) {
+			return null;
+		}
+		FileTable files = index.getFiles();
+		Map<String, WordInfo> changed = new HashMap<>();
+		Set<Integer> removedIds = new HashSet<>();
+		read(log, null, files, (removedFiles, words) -> {
+			for (String fileName : removedFiles) {
+				int fileId = files.idOf(fileName);
+				removedIds.add(fileId);
+				for (WordInfo info : changed.values()) {
+					info.removeEntriesFromFile(fileId);
+				}
+			}
+			for (WordInfo added : words) {
+				WordInfo current = changed.get(added.getWord());
+				if (current == null) {
+					current = index.lookup(added.getWord());
+					if (current != null) {
+						for (int fileId : removedIds) {
+							current.removeEntriesFromFile(fileId);
+						}
+					}
+				}
+				if (current == null) {
+					current = added;
+				} else {
+					current.merge(added);
+				}
+				changed.put(added.getWord(), current);
+			}
+		});
+
+		PriorityQueue<WordInfo> queue = new PriorityQueue<>(Math.max(1, changed.size()), BY_FREQUENCY);
+		for (WordInfo info : changed.values()) {
+			if (info.getTotal() > 0) {
+				queue.add(info);
+			}
+		}
+		return new Iterator<WordInfo>() {
+			private WordInfo unchanged = nextUnchanged();
+
+			/**
+			 * Advances the frequency order of the index to its next word the log
+			 * did not change, queueing the words that lost entries on the way.
+			 */
+			private WordInfo nextUnchanged() {
+				while (indexed.hasNext()) {
+					WordInfo info = indexed.next();
+					if (changed.containsKey(info.getWord())) {
+						continue;
+					}
+					boolean dropped = false;
+					for (int fileId : removedIds) {
+						if (info.hasEntriesIn(fileId)) {
+							info.removeEntriesFromFile(fileId);
+							dropped = true;
+						}
+					}
+					if (!dropped) {
+						return info;
+					}
+					if (info.getTotal() > 0) {
+						queue.add(info);
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return unchanged != null || !queue.isEmpty();
+			}
+
+			@Override
+			public WordInfo next() throws NoSuchElementException {
+				if (!queue.isEmpty() && (unchanged == null || BY_FREQUENCY.compare(queue.peek(), unchanged) < 0)) {
+					return queue.poll();
+				}
+				if (unchanged == null) {
+					throw new NoSuchElementException();
+				}
+				WordInfo info = unchanged;
+				unchanged = nextUnchanged();
+				return info;
+			}
+		};
+	}
+
+	/**
+	 * Reads the log batch by batch and hands every complete batch to the handler.
+	 * 
+	 * @param log      The log file.
+	 * @param onlyWord The only word to decode, or null to decode every word.
+	 * @param files    The file table the file ids of the batches are mapped onto.
+	 * @param handler  The handler applying each batch.
+	 * @return The length of the log up to the end of the last complete batch.
+	 * @throws IOException If an I/O error occurs or the file is not a log.
+	 */
+	private static long read(File log, String onlyWord, FileTable files, BatchHandler handler) throws IOException {
+		try (ChannelReader in = new ChannelReader(FileChannel.open(log.toPath(), StandardOpenOption.READ),
+				BUFFER_SIZE)) {
+			if (in.atEnd()) {
+				return 0;
+			}
+			if (in.readInt() != MAGIC) {
+				throw new IOException(log + " is not a repository log.");
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported log version " + version + ".");
+			}
+
+			long validLength = in.position();
+			while (!in.atEnd()) {
+				Set<String> removedFiles = new HashSet<>();
+				List<WordInfo> words = new ArrayList<>();
+				try {
+					in.resetChecksum();
+					FileTable batchFiles = RepositoryFile.readFileTable(in);
+					int[] fileIds = new int[batchFiles.size()];
+					for (int i = 0; i < fileIds.length; i++) {
+						fileIds[i] = files.intern(batchFiles.nameOf(i));
+					}
+					int removedCount = in.readVarInt();
+					for (int i = 0; i < removedCount; i++) {
+						removedFiles.add(batchFiles.nameOf(in.readVarInt()));
+					}
+
+					int wordCount = in.readVarInt();
+					for (int i = 0; i < wordCount; i++) {
+						String word = in.readString();
+						boolean wanted = onlyWord == null || onlyWord.equals(word);
+						WordInfo info = new WordInfo(word);
+						int entryCount = in.readVarInt();
+						for (int j = 0; j < entryCount; j++) {
+							int fileId = fileIds[in.readVarInt()];
+							Postings postings = RepositoryFile.readPostings(in);
+							if (wanted) {
+								info.addEntries(fileId, postings);
+							}
+						}
+						if (wanted) {
+							words.add(info);
+						}
+					}
+					in.verifyChecksum();
+				} catch (IOException | RuntimeException e) {
+					if (e instanceof EOFException || in.atEnd()) {
+						return validLength;
+					}
+					throw new IOException(log + " is corrupted.", e);
+				}
+				handler.apply(removedFiles, words);
+				validLength = in.position();
+			}
+			return validLength;
+		}
+	}
+}
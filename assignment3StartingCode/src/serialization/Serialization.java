@@ -1,5 +1,7 @@
 package serialization;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -7,6 +9,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import implementations.BSTree;
+import utilities.BSTreeADT;
 
 //Adapted from: geeksforgeeks
 //Source: https://www.geeksforgeeks.org/serialization-in-java
@@ -14,17 +17,17 @@ import implementations.BSTree;
 
 public class Serialization {
 	/**
-     * Saves the given BSTree to a file using object serialization.
+     * Saves the given tree to a file using object serialization. Any
+     * implementation of the BSTreeADT can be saved, including the array-backed
+     * and off-heap trees.
      * 
-     * @param <E>      The type of elements in the BSTree.
-     * @param t        The BSTree to be saved.
-     * @param fileName The name of the file to save the BSTree to.
+     * @param <E>      The type of elements in the tree.
+     * @param t        The tree to be saved.
+     * @param fileName The name of the file to save the tree to.
      */
-	public static <E extends Comparable<? super E>> void saveToFile(BSTree<E> t,String fileName) {
-        try {
-        	FileOutputStream file = new FileOutputStream(fileName);
-        	@SuppressWarnings("resource")
-			ObjectOutputStream out = new ObjectOutputStream(file);
+	public static <E extends Comparable<? super E>> void saveToFile(BSTreeADT<E> t,String fileName) {
+        try (ObjectOutputStream out = new ObjectOutputStream(
+        		new BufferedOutputStream(new FileOutputStream(fileName)))) {
             out.writeObject(t);
         } catch (IOException e) {
             System.out.println("Error: " + e.getMessage());
@@ -32,24 +35,52 @@ public class Serialization {
     }
 	
 	/**
-	 * Loads a BSTree from the specified file using object deserialization.
+	 * Loads a BSTree from the specified file using object deserialization. Trees
+	 * saved by {@link #saveToFile(BSTreeADT, String)} store their elements in
+	 * order and are rebuilt perfectly balanced in linear time while loading. A
+	 * file holding another BSTreeADT implementation is not a BSTree and gives the
+	 * empty tree; use {@link #loadFromFile(File, BSTreeADT)} to read any of them.
 	 * 
 	 * @param <E>      The type of elements in the BSTree.
 	 * @param fileName The file containing the serialized BSTree.
-	 * @return The deserialized BSTree object, or a new empty BSTree if an error occurs.
+	 * @return The deserialized BSTree object, or a new empty BSTree if an error
+	 *         occurs or the file holds another kind of tree.
 	 */
-	@SuppressWarnings("unchecked")
 	public static <E extends Comparable<? super E>> BSTree<E> loadFromFile(File fileName) {
-        try {
-        	FileInputStream file = new FileInputStream(fileName);
-        	@SuppressWarnings("resource")
-			ObjectInputStream in = new ObjectInputStream(file);
-        	return (BSTree<E>) in.readObject();
+		BSTreeADT<E> tree = loadFromFile(fileName, null);
+		if (tree instanceof BSTree) {
+			return (BSTree<E>) tree;
+		}
+		if (tree != null) {
+			System.out.println("Error: " + fileName + " does not hold a BSTree but " + tree.getClass().getSimpleName());
+		}
+		return new BSTree<E>();
+    }
+
+	/**
+	 * Loads a tree of any BSTreeADT implementation from the specified file using
+	 * object deserialization.
+	 * 
+	 * @param <E>      The type of elements in the tree.
+	 * @param fileName The file containing the serialized tree.
+	 * @param fallback The tree to return if an error occurs.
+	 * @return The deserialized tree, or the fallback if an error occurs or the
+	 *         file does not hold a tree.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <E extends Comparable<? super E>> BSTreeADT<E> loadFromFile(File fileName, BSTreeADT<E> fallback) {
+        try (ObjectInputStream in = new ObjectInputStream(
+        		new BufferedInputStream(new FileInputStream(fileName)))) {
+        	Object tree = in.readObject();
+        	if (tree instanceof BSTreeADT) {
+        		return (BSTreeADT<E>) tree;
+        	}
+        	System.out.println("Error: " + fileName + " does not hold a tree");
         } catch (ClassNotFoundException e) {
             System.out.println("Error" + e.getMessage());
         } catch (IOException e) {
             System.out.println("Error" + e.getMessage());
         }
-        return new BSTree<>();
+        return fallback;
     }
 }
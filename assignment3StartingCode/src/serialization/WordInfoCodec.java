@@ -0,0 +1,143 @@
+package serialization;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import appDomain.WordInfo;
+import implementations.ElementCodec;
+
+/**
+ * Encodes a {@link WordInfo} for an {@link implementations.OffHeapBSTree} in
+ * the layout of a word record of {@link RepositoryFile}: the word as
+ * length-prefixed UTF-8, the number of files, then each file id followed by
+ * its postings, so that the line numbers of a word are kept off the heap with
+ * its key. The postings are written and read by the same methods as the
+ * repository file.
+ *
+ * <p>
+ * Comparing an element with an encoded one decodes the stored word one UTF-16
+ * code unit at a time, without allocating, so the order is the same as
+ * {@link WordInfo#compareTo(WordInfo)}.
+ * </p>
+ */
+public enum WordInfoCodec implements ElementCodec<WordInfo> {
+	/**
+	 * The codec; an enum so that a deserialized tree gets the same instance back.
+	 */
+	INSTANCE;
+
+	@Override
+	public int encodedLength(WordInfo element) {
+		int wordLength = utf8Length(element.getWord());
+		int length = RepositoryFile.varIntLength(wordLength) + wordLength
+				+ RepositoryFile.varIntLength(element.getFileCount());
+		for (int i = 0; i < element.getFileCount(); i++) {
+			length += RepositoryFile.varIntLength(element.getFileId(i))
+					+ RepositoryFile.postingsLength(element.getPostings(i));
+		}
+		return length;
+	}
+
+	@Override
+	public void encode(WordInfo element, ByteBuffer target) {
+		byte[] word = element.getWord().getBytes(StandardCharsets.UTF_8);
+		RepositoryFile.writeVarInt(target, word.length);
+		target.put(word);
+		RepositoryFile.writeVarInt(target, element.getFileCount());
+		for (int i = 0; i < element.getFileCount(); i++) {
+			RepositoryFile.writeVarInt(target, element.getFileId(i));
+			RepositoryFile.writePostings(target, element.getPostings(i));
+		}
+	}
+
+	@Override
+	public WordInfo decode(ByteBuffer source, int offset, int length) {
+		int[] position = { offset };
+		byte[] word = new byte[RepositoryFile.readVarInt(source, position)];
+		for (int i = 0; i < word.length; i++) {
+			word[i] = source.get(position[0] + i);
+		}
+		position[0] += word.length;
+		WordInfo info = new WordInfo(new String(word, StandardCharsets.UTF_8));
+		int fileCount = RepositoryFile.readVarInt(source, position);
+		for (int i = 0; i < fileCount; i++) {
+			int fileId = RepositoryFile.readVarInt(source, position);
+			info.addEntries(fileId, RepositoryFile.readPostings(source, position));
+		}
+		return info;
+	}
+
+	@Override
+	public int compare(WordInfo element, ByteBuffer source, int offset, int length) {
+		String word = element.getWord();
+		int[] position = { offset };
+		int end = RepositoryFile.readVarInt(source, position);
+		end += position[0];
+		int index = 0;
+		char pendingLow = 0;
+		while (index < word.length() && (pendingLow != 0 || position[0] < end)) {
+			char stored;
+			if (pendingLow != 0) {
+				stored = pendingLow;
+				pendingLow = 0;
+			} else {
+				int codePoint = nextCodePoint(source, position);
+				if (Character.isBmpCodePoint(codePoint)) {
+					stored = (char) codePoint;
+				} else {
+					stored = Character.highSurrogate(codePoint);
+					pendingLow = Character.lowSurrogate(codePoint);
+				}
+			}
+			int difference = word.charAt(index++) - stored;
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		if (index < word.length()) {
+			return 1;
+		}
+		return pendingLow != 0 || position[0] < end ? -1 : 0;
+	}
+
+	/**
+	 * Reads one code point of well-formed UTF-8, advancing the position past it.
+	 */
+	private static int nextCodePoint(ByteBuffer source, int[] position) {
+		int first = source.get(position[0]++) & 0xFF;
+		if (first < 0x80) {
+			return first;
+		}
+		int continuation = first < 0xE0 ? 1 : first < 0xF0 ? 2 : 3;
+		int codePoint = first & (0x3F >> continuation);
+		for (int i = 0; i < continuation; i++) {
+			codePoint = (codePoint << 6) | (source.get(position[0]++) & 0x3F);
+		}
+		return codePoint;
+	}
+
+	/**
+	 * The number of bytes a string takes in UTF-8, counting an unpaired
+	 * surrogate as the replacement character {@link String#getBytes} writes.
+	 */
+	private static int utf8Length(String word) {
+		int length = 0;
+		for (int i = 0; i < word.length(); i++) {
+			char c = word.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < word.length()
+					&& Character.isLowSurrogate(word.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				length++;
+			} else {
+				length += 3;
+			}
+		}
+		return length;
+	}
+}
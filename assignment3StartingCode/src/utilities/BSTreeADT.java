@@ -20,7 +20,12 @@ import implementations.BSTreeNode;
 public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 {
 	/**
-	 * The node at the root of the Binary Search Tree will be returned.
+	 * The node at the root of the Binary Search Tree will be returned. Trees that
+	 * do not store their elements in linked BSTreeNodes return views of their
+	 * nodes instead, here and from {@link #search(Comparable)} and
+	 * {@link #addIfAbsent(Comparable)}: the children of a view can be read, and
+	 * its element replaced by an equal one, but relinking a view throws
+	 * UnsupportedOperationException.
 	 * 
 	 * @return node stored at the root of tree is returned
 	 * @throws NullPointerException if the tree is empty and there is no root node.
@@ -86,11 +91,24 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 */
 	public boolean add( E newEntry ) throws NullPointerException;
 
+	/**
+	 * Looks up the element equal to the one passed in and adds it to the tree if
+	 * no such element is stored yet. Both happen in a single descent from the
+	 * root, so callers that want to update an existing element or insert a new
+	 * one do not have to search first and add afterwards.
+	 * 
+	 * @param newEntry the element to find or add to the tree
+	 * @return the node holding the element already in the tree, or the newly
+	 *         added node if there was none
+	 * @throws NullPointerException if the element being passed in is null
+	 */
+	public BSTreeNode<E> addIfAbsent( E newEntry ) throws NullPointerException;
+
 	/**
 	 * Removes the smallest element in the tree according to the natural ordering
 	 * established by the Comparable implementation.
 	 * 
-	 * @return the removed element or null if the tree is empty
+	 * @return the node holding the removed element, or null if the tree is empty
 	 */
 	public BSTreeNode<E> removeMin();
 
@@ -98,7 +116,7 @@ public interface BSTreeADT<E extends Comparable<? super E>> extends	Serializable
 	 * Removes the largest element in the tree according to the natural ordering
 	 * established by the Comparable implementation.
 	 * 
-	 * @return the removed element or null if the tree is empty
+	 * @return the node holding the removed element, or null if the tree is empty
 	 */
 	public BSTreeNode<E> removeMax();
 
@@ -0,0 +1,138 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.BSTree;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the frequency index a repository keeps up to date as files are
+ * merged in and removed.
+ */
+public class FrequencyIndexTest {
+	// Attributes
+	private FileTable files;
+	private WordRepository repository;
+
+	/**
+	 * Initializes a repository of one file before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		files = new FileTable();
+		repository = new WordRepository(new BSTree<>(true), files);
+		repository.merge(read("a.txt", "the", 5, "cat", 3, "sat", 3, "mat", 1));
+	}
+
+	/**
+	 * Builds the words read from one file, given as alternating words and
+	 * numbers of occurrences.
+	 */
+	private BSTree<WordInfo> read(String fileName, Object... wordsAndCounts) {
+		int fileId = files.intern(fileName);
+		BSTree<WordInfo> tree = new BSTree<>(true);
+		for (int i = 0; i < wordsAndCounts.length; i += 2) {
+			WordInfo info = new WordInfo((String) wordsAndCounts[i]);
+			for (int line = 1; line <= (Integer) wordsAndCounts[i + 1]; line++) {
+				info.addEntries(fileId, line);
+			}
+			tree.add(info);
+		}
+		return tree;
+	}
+
+	/**
+	 * Lists the words of the repository with their totals in frequency order.
+	 */
+	private List<String> byFrequency() {
+		List<String> result = new ArrayList<>();
+		for (Iterator<WordInfo> iterator = repository.byFrequency(); iterator.hasNext();) {
+			WordInfo info = iterator.next();
+			result.add(info.getWord() + "=" + info.getTotal());
+		}
+		return result;
+	}
+
+	/**
+	 * Sorts the words of the repository tree by their current totals, the way the
+	 * index should order them.
+	 */
+	private List<String> sorted() {
+		List<WordInfo> words = new ArrayList<>();
+		for (Iterator<WordInfo> iterator = repository.getTree().inorderIterator(); iterator.hasNext();) {
+			WordInfo info = iterator.next();
+			if (info.getTotal() > 0) {
+				words.add(info);
+			}
+		}
+		Collections.sort(words, (a, b) -> a.getTotal() != b.getTotal() ? Integer.compare(b.getTotal(), a.getTotal())
+				: a.compareTo(b));
+		List<String> result = new ArrayList<>();
+		for (WordInfo info : words) {
+			result.add(info.getWord() + "=" + info.getTotal());
+		}
+		return result;
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordRepository#byFrequency()}
+	 * to list the most frequent words first and break ties alphabetically.
+	 */
+	@Test
+	public void testByFrequency() {
+		assertEquals(Arrays.asList("the=5", "cat=3", "sat=3", "mat=1"), byFrequency());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordRepository#merge(BSTree)}
+	 * to move words whose totals grow and index the words it adds.
+	 */
+	@Test
+	public void testMerge() {
+		repository.merge(read("b.txt", "mat", 6, "sat", 1, "hat", 3));
+		assertEquals(Arrays.asList("mat=7", "the=5", "sat=4", "cat=3", "hat=3"), byFrequency());
+		assertEquals(sorted(), byFrequency());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordRepository#removeFiles(java.util.Collection)}
+	 * to move words whose totals shrink and drop the words left without entries.
+	 */
+	@Test
+	public void testRemoveFiles() {
+		repository.merge(read("b.txt", "mat", 6, "sat", 1, "hat", 3));
+		repository.removeFiles(Collections.singletonList("a.txt"));
+		assertEquals(Arrays.asList("mat=6", "hat=3", "sat=1"), byFrequency());
+		assertEquals(sorted(), byFrequency());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordRepository#removeFiles(java.util.Collection)} and
+	 * {@link appDomain.WordRepository#merge(BSTree)}
+	 * to keep the order when a file is read again with other content, as a
+	 * processing run does.
+	 */
+	@Test
+	public void testRemoveFilesThenMerge() {
+		repository.merge(read("b.txt", "cat", 1));
+		List<String> reread = Collections.singletonList("a.txt");
+		repository.removeFiles(reread);
+		repository.merge(read("a.txt", "mat", 2, "cat", 2, "zoo", 4));
+		assertEquals(Arrays.asList("zoo=4", "cat=3", "mat=2"), byFrequency());
+		assertEquals(sorted(), byFrequency());
+	}
+}
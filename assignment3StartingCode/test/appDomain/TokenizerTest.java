@@ -0,0 +1,154 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.ShardedBSTree;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the tokenizer against the line-by-line <code>replaceAll</code> and
+ * <code>split("\\W+")</code> normalization it replaced.
+ */
+public class TokenizerTest {
+	// Attributes
+	private static final String TEXT = "The quick-brown fox, it's 2 o'clock!\r\n"
+			+ "  snake_case   CamelCase\tx86_64\r"
+			+ "caf\u00e9 na\u00efve \u00dcber\u0085stra\u00dfe\n"
+			+ "\n"
+			+ "fox 'quoted' ''\u2028end\u2029FOX. the\r\n";
+
+	private ShardedBSTree<WordInfo> index;
+
+	/**
+	 * Initializes a new, empty index before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		index = IngestTask.newIndex();
+	}
+
+	/**
+	 * Splits a text the way the tracker did before the tokenizer: line by line as
+	 * a Scanner reads them, dropping apostrophes, splitting on non-word characters
+	 * and lowercasing.
+	 */
+	private static List<String> reference(String text) {
+		Map<String, List<Integer>> words = new TreeMap<>();
+		String[] lines = text.split("\r\n|[\n\r\u2028\u2029\u0085]", -1);
+		for (int lineNumber = 1; lineNumber <= lines.length; lineNumber++) {
+			for (String word : lines[lineNumber - 1].replaceAll("'", "").split("\\W+")) {
+				if (!word.isEmpty()) {
+					words.computeIfAbsent(word.toLowerCase(), key -> new ArrayList<>()).add(lineNumber);
+				}
+			}
+		}
+		List<String> result = new ArrayList<>();
+		for (Map.Entry<String, List<Integer>> entry : words.entrySet()) {
+			result.add(entry.getKey() + " " + entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Describes every word of the index with the lines it occurs on.
+	 */
+	private List<String> describe() {
+		List<String> result = new ArrayList<>();
+		Iterator<WordInfo> iterator = index.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			result.add(info.getWord() + " " + Arrays.toString(info.getPostings(0).toArray()));
+		}
+		return result;
+	}
+
+	/**
+	 * Feeds a text to a new tokenizer in chunks of the given size.
+	 */
+	private List<String> tokenize(String text, int chunkSize) {
+		index = IngestTask.newIndex();
+		Tokenizer tokenizer = new Tokenizer(index, 0);
+		for (int from = 0; from < text.length(); from += chunkSize) {
+			tokenizer.feed(CharBuffer.wrap(text, from, Math.min(from + chunkSize, text.length())));
+		}
+		tokenizer.finish();
+		return describe();
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#feed(CharBuffer)}
+	 * to split a text into the same words and lines as the old normalization.
+	 */
+	@Test
+	public void testMatchesReference() {
+		assertEquals(reference(TEXT), tokenize(TEXT, TEXT.length()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#feed(char[], int, int)}
+	 * to read words and "\r\n" split across chunks of every size as if the
+	 * chunks were one.
+	 */
+	@Test
+	public void testFeedInChunks() {
+		List<String> expected = reference(TEXT);
+		for (int chunkSize = 1; chunkSize < TEXT.length(); chunkSize++) {
+			assertEquals("Failed for chunks of " + chunkSize, expected, tokenize(TEXT, chunkSize));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#feed(char[], int, int)}
+	 * to count a "\r\n" split between two chunks as a single line end.
+	 */
+	@Test
+	public void testFeedForCarriageReturnLineFeedAcrossChunks() {
+		Tokenizer tokenizer = new Tokenizer(index, 0);
+		char[] first = "one\r".toCharArray();
+		char[] second = "\ntwo\r\rthree".toCharArray();
+		tokenizer.feed(first, 0, first.length);
+		tokenizer.feed(second, 0, second.length);
+		tokenizer.finish();
+		assertEquals(Arrays.asList("one [1]", "three [4]", "two [2]"), describe());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#feed(CharBuffer)}
+	 * to drop apostrophes inside and around words rather than split on them.
+	 */
+	@Test
+	public void testFeedForApostrophes() {
+		assertEquals(Arrays.asList("dont [1]", "its [1]", "oclock [2]", "quoted [2]"),
+				tokenize("don't it's\n'quoted' o'clock ''", 4));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Tokenizer#feed(CharBuffer)}
+	 * to end a word at a non-ASCII letter, as <code>\W</code> does without the
+	 * Unicode character class flag.
+	 */
+	@Test
+	public void testFeedForNonAsciiLetters() {
+		String text = "caf\u00e9 na\u00efve \u00dcber stra\u00dfe \u00c9t\u00e9";
+		assertEquals(reference(text), tokenize(text, 3));
+		assertEquals(Arrays.asList("ber [1]", "caf [1]", "e [1]", "na [1]", "stra [1]", "t [1]", "ve [1]"),
+				tokenize(text, 3));
+	}
+}
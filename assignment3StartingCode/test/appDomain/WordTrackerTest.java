@@ -0,0 +1,142 @@
+package appDomain;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.ShardedBSTree;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of reading input files into the index with chunked, decoded reads.
+ */
+public class WordTrackerTest {
+	// Attributes
+	private File file;
+	private ShardedBSTree<WordInfo> index;
+
+	/**
+	 * Creates a temporary input file and an empty index before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("input", ".txt");
+		index = IngestTask.newIndex();
+	}
+
+	/**
+	 * Deletes the temporary input file after each test.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Reads a file the way the tracker did before the tokenizer, with a Scanner
+	 * over the default charset and the <code>replaceAll</code> and
+	 * <code>split("\\W+")</code> normalization.
+	 */
+	private static List<String> reference(File file) throws IOException {
+		Map<String, List<Integer>> words = new TreeMap<>();
+		try (Scanner scanner = new Scanner(file, Charset.defaultCharset().name())) {
+			for (int lineNumber = 1; scanner.hasNextLine(); lineNumber++) {
+				for (String word : scanner.nextLine().replaceAll("'", "").split("\\W+")) {
+					if (!word.isEmpty()) {
+						words.computeIfAbsent(word.toLowerCase(), key -> new ArrayList<>()).add(lineNumber);
+					}
+				}
+			}
+		}
+		List<String> result = new ArrayList<>();
+		for (Map.Entry<String, List<Integer>> entry : words.entrySet()) {
+			result.add(entry.getKey() + " " + entry.getValue());
+		}
+		return result;
+	}
+
+	/**
+	 * Reads the temporary file into the index and describes every word with the
+	 * lines it occurs on.
+	 */
+	private List<String> process() throws IOException {
+		WordTracker.processFile(index, file.getPath(), 0);
+		List<String> result = new ArrayList<>();
+		Iterator<WordInfo> iterator = index.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			result.add(info.getWord() + " " + Arrays.toString(info.getPostings(0).toArray()));
+		}
+		return result;
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#processFile(ShardedBSTree, String, int)}
+	 * to replace malformed bytes, which end the word they interrupt, rather than
+	 * fail.
+	 * @throws IOException
+	 */
+	@Test
+	public void testProcessFileForMalformedInput() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		bytes.write("ab".getBytes("US-ASCII"));
+		bytes.write(0xFF);
+		bytes.write("cd\n".getBytes("US-ASCII"));
+		bytes.write(0xC3);
+		bytes.write("(ef".getBytes("US-ASCII"));
+		bytes.write(0x80);
+		Files.write(file.toPath(), bytes.toByteArray());
+		assertEquals(Arrays.asList("ab [1]", "cd [1]", "ef [2]"), process());
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.WordTracker#processFile(ShardedBSTree, String, int)}
+	 * to read a "\r\n" and a word that straddle two reads of the file as if the
+	 * file were read at once.
+	 * @throws IOException
+	 */
+	@Test
+	public void testProcessFileAcrossReads() throws IOException {
+		int bufferSize = WordTracker.READ_BUFFER_SIZE;
+		StringBuilder text = new StringBuilder();
+		while (text.length() < bufferSize) {
+			text.append("filler words, line\n");
+		}
+		text.setLength(bufferSize - 1);
+		text.append("\r\nAfter it's\r\n");
+		while (text.length() < 2 * bufferSize) {
+			text.append("more words\n");
+		}
+		text.setLength(2 * bufferSize - 5);
+		text.append("\nstraddling\r\nlast");
+		Files.write(file.toPath(), text.toString().getBytes("US-ASCII"));
+		assertEquals("The test must split \\r\\n between reads.", "\r\n",
+				text.substring(bufferSize - 1, bufferSize + 1));
+		assertEquals("The test must split a word between reads.", "straddling",
+				text.substring(2 * bufferSize - 4, 2 * bufferSize + 6));
+
+		List<String> words = process();
+		assertEquals(reference(file), words);
+		int lines = text.substring(0, 2 * bufferSize).split("\r\n|\n").length;
+		assertTrue("Failed to read the straddling word.", words.contains("straddling [" + lines + "]"));
+		assertTrue(words.contains("last [" + (lines + 1) + "]"));
+	}
+}
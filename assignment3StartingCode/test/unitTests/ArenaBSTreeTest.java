@@ -0,0 +1,264 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.ArenaBSTree;
+import implementations.BSTreeNode;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the array-backed implementation of the BSTreeADT.
+ */
+public class ArenaBSTreeTest {
+	// Attributes
+	private ArenaBSTree<Integer> tree;
+
+	/**
+	 * Initializes a new ArenaBSTree instance before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new ArenaBSTree<Integer>();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#add(java.lang.Comparable)}
+	 * to add elements, reject duplicates and link the nodes.
+	 */
+	@Test
+	public void testAdd() {
+		assertTrue(tree.add(44));
+		assertTrue(tree.add(22));
+		assertTrue(tree.add(66));
+		assertTrue(tree.add(11));
+		assertFalse("Failed to reject a duplicate.", tree.add(22));
+		assertEquals("Failed to update size.", 4, tree.size());
+		assertEquals("Failed to update height.", 3, tree.getHeight());
+		BSTreeNode<Integer> root = tree.getRoot();
+		assertEquals("Failed to return the root.", 44, (int) root.getElement());
+		assertEquals(22, (int) root.getLeft().getElement());
+		assertEquals(11, (int) root.getLeft().getLeft().getElement());
+		assertEquals(66, (int) root.getRight().getElement());
+		assertNull(root.getRight().getLeft());
+		assertTrue(tree.contains(11));
+		assertFalse(tree.contains(55));
+		assertNull(tree.search(55));
+		assertEquals(66, (int) tree.search(66).getElement());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddForNullPointerException() {
+		tree.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#getRoot()}
+	 * to throw NullPointerException for an empty tree.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testGetRootForNullPointerException() {
+		tree.getRoot();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#addIfAbsent(java.lang.Comparable)}
+	 * to return the node holding the stored element.
+	 */
+	@Test
+	public void testAddIfAbsent() {
+		Integer first = new Integer(1234);
+		Integer second = new Integer(1234);
+		assertSame("Failed to add the element.", first, tree.addIfAbsent(first).getElement());
+		assertSame("Failed to return the stored element.", first, tree.addIfAbsent(second).getElement());
+		assertEquals("Failed to update size.", 1, tree.size());
+	}
+
+	/**
+	 * Test method for the nodes returned by
+	 * {@link implementations.ArenaBSTree#getRoot()}
+	 * to refuse being relinked.
+	 */
+	@Test(expected = UnsupportedOperationException.class)
+	public void testNodeSetLeftForUnsupportedOperationException() {
+		tree.add(2);
+		tree.add(1);
+		tree.getRoot().setLeft(null);
+	}
+
+	/**
+	 * Test method for the nodes returned by
+	 * {@link implementations.ArenaBSTree#search(java.lang.Comparable)}
+	 * to write a replacement element back to its slot.
+	 */
+	@Test
+	public void testNodeSetElement() {
+		tree.add(2);
+		tree.add(1);
+		Integer replacement = new Integer(1);
+		tree.search(1).setElement(replacement);
+		assertSame("Failed to replace the element.", replacement, tree.getRoot().getLeft().getElement());
+		assertEquals("Failed to keep size.", 2, tree.size());
+	}
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#removeMin()} and
+	 * {@link implementations.ArenaBSTree#removeMax()}
+	 * to remove the extremes and reuse their slots for later adds.
+	 */
+	@Test
+	public void testRemoveMinMax() {
+		assertNull(tree.removeMin());
+		int[] values = { 50, 30, 70, 20, 40, 60, 80 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		assertEquals(20, (int) tree.removeMin().getElement());
+		assertEquals(80, (int) tree.removeMax().getElement());
+		assertEquals(30, (int) tree.removeMin().getElement());
+		assertEquals("Failed to update size.", 4, tree.size());
+		assertEquals("Failed to update height.", 3, tree.getHeight());
+		tree.add(10);
+		tree.add(90);
+		int[] expected = { 10, 40, 50, 60, 70, 90 };
+		Iterator<Integer> it = tree.inorderIterator();
+		for (int value : expected) {
+			assertEquals("In-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#preorderIterator()} and
+	 * {@link implementations.ArenaBSTree#postorderIterator()}
+	 * to visit the nodes in pre-order and post-order.
+	 */
+	@Test
+	public void testPreorderPostorderIterators() {
+		int[] values = { 50, 30, 70, 20, 40, 80 };
+		for (int value : values) {
+			tree.add(value);
+		}
+		int[] preorder = { 50, 30, 20, 40, 70, 80 };
+		Iterator<Integer> it = tree.preorderIterator();
+		for (int value : preorder) {
+			assertEquals("Pre-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+		int[] postorder = { 20, 40, 30, 80, 70, 50 };
+		it = tree.postorderIterator();
+		for (int value : postorder) {
+			assertEquals("Post-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#inorderIterator()}
+	 * to throw NoSuchElementException when exhausted.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testInorderIteratorForNoSuchElementException() {
+		tree.inorderIterator().next();
+	}
+
+	/**
+	 * Test method for the balanced mode of
+	 * {@link implementations.ArenaBSTree#ArenaBSTree(boolean)}
+	 * to stay balanced and match a TreeSet under random adds and removals.
+	 */
+	@Test
+	public void testBalancedAgainstTreeSet() {
+		ArenaBSTree<Integer> balanced = new ArenaBSTree<>(true);
+		TreeSet<Integer> expected = new TreeSet<>();
+		Random random = new Random(23);
+		for (int i = 0; i < 5000; i++) {
+			int operation = random.nextInt(10);
+			if (operation == 0) {
+				BSTreeNode<Integer> removed = balanced.removeMin();
+				assertEquals(expected.pollFirst(), removed == null ? null : removed.getElement());
+			} else if (operation == 1) {
+				BSTreeNode<Integer> removed = balanced.removeMax();
+				assertEquals(expected.pollLast(), removed == null ? null : removed.getElement());
+			} else {
+				int value = random.nextInt(2000);
+				assertEquals(expected.add(value), balanced.add(value));
+			}
+		}
+		assertEquals("Failed to update size.", expected.size(), balanced.size());
+		assertTrue("Failed to stay balanced.",
+				balanced.getHeight() <= 1.45 * (Math.log(expected.size() + 2) / Math.log(2)));
+		Iterator<Integer> it = balanced.inorderIterator();
+		for (int value : expected) {
+			assertEquals("In-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for serializing an ArenaBSTree and reading it back as a
+	 * balanced tree with the same elements.
+	 * @throws Exception
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		for (int i = 0; i < 100; i++) {
+			tree.add(i);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(tree);
+		}
+		ArenaBSTree<?> read;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			read = (ArenaBSTree<?>) in.readObject();
+		}
+		assertEquals("Failed to restore size.", 100, read.size());
+		assertEquals("Failed to rebuild a balanced tree.", 7, read.getHeight());
+		Iterator<?> it = read.inorderIterator();
+		for (int i = 0; i < 100; i++) {
+			assertEquals("In-order iterator is out of order.", i, it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ArenaBSTree#clear()}
+	 * to empty the tree and allow it to be filled again.
+	 */
+	@Test
+	public void testClear() {
+		for (int i = 0; i < 40; i++) {
+			tree.add(i);
+		}
+		tree.clear();
+		assertTrue(tree.isEmpty());
+		assertEquals(0, tree.size());
+		assertEquals(0, tree.getHeight());
+		assertTrue(tree.add(7));
+		assertEquals(1, tree.getHeight());
+	}
+}
@@ -2,6 +2,13 @@ package unitTests;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -75,6 +82,21 @@ public class BSTreeTest {
 		assertEquals("Failed to return correct size.", 0, tree.size());
 	}
 
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#BSTree(Comparable)}
+	 * for creating a new BSTree object holding a single element.
+	 */
+	@Test
+	public void testBST_ElementConstructor() {
+		BSTree<Integer> newTree = new BSTree<Integer>(one);
+		assertEquals("Failed to return correct size.", 1, newTree.size());
+		assertEquals("Failed to return the root.", one, newTree.getRoot().getElement());
+		assertTrue(newTree.add(two));
+		assertEquals("Failed to update size.", 2, newTree.size());
+		assertEquals("Failed to select the element.", two, newTree.select(1));
+	}
+
 	/**
 	 * Test method for
 	 * {@link implementations.BSTree#add(java.lang.Comparable)}
@@ -182,6 +204,59 @@ public class BSTreeTest {
 		}
 	}
 
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#addIfAbsent(java.lang.Comparable)}
+	 * to add an item that is not yet in the tree and return its node.
+	 */
+	@Test
+	public void testAddIfAbsent_NewElement() {
+		tree.add(four);
+		tree.add(two);
+
+		BSTreeNode<Integer> node = tree.addIfAbsent(six);
+
+		int expected = 66;
+		int actual = node.getElement();
+		assertEquals("Failed to return the added element.", expected, actual);
+		assertSame("Failed to return the node stored in the tree.", node, tree.search(six));
+		assertEquals("Failed to update size correctly.", 3, tree.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#addIfAbsent(java.lang.Comparable)}
+	 * to return the existing node without adding a duplicate.
+	 */
+	@Test
+	public void testAddIfAbsent_ExistingElement() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+
+		BSTreeNode<Integer> existing = tree.search(two);
+		BSTreeNode<Integer> node = tree.addIfAbsent(new Integer(22));
+
+		assertSame("Failed to return the existing node.", existing, node);
+		assertSame("Failed to keep the existing element.", two, node.getElement());
+		assertEquals("Size should not change.", 3, tree.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BSTree#addIfAbsent(java.lang.Comparable)}
+	 * to throw a NullPointerException when passing a null.
+	 */
+	@Test
+	public void testAddIfAbsentForNullPointerException() {
+		try {
+			tree.addIfAbsent(null);
+			fail("addIfAbsent method failed to throw NullPointerException.");
+		} catch (NullPointerException e) {
+			assertTrue(true);
+		}
+	}
+
 	/**
 	 * Test method for 
 	 * {@link implementations.BSTree#clear()}
@@ -364,6 +439,153 @@ public class BSTreeTest {
 		assertEquals("Failed to return correct height.", expected, actual);
 	}
 
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#getHeight()}
+	 * to return a logarithmic height when a balanced tree is fed sorted input.
+	 */
+	@Test
+	public void testGetHeight_BalancedModeSortedInput() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 1023; i++) {
+			assertTrue(balancedTree.add(i));
+		}
+		assertEquals("Failed to update size correctly.", 1023, balancedTree.size());
+		assertEquals("Failed to keep the tree balanced.", 10, balancedTree.getHeight());
+
+		Iterator<Integer> it = balancedTree.inorderIterator();
+		int expected = 1;
+		while (it.hasNext()) {
+			assertEquals("In-order iterator is out of order ", expected++, (int) it.next());
+		}
+		assertEquals("Failed to iterate every element.", 1024, expected);
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#removeMin()} and
+	 * {@link implementations.BSTree#removeMax()}
+	 * to keep a balanced tree balanced while removing.
+	 */
+	@Test
+	public void testRemoveMinMax_BalancedMode() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 1000; i++) {
+			balancedTree.add(i);
+		}
+		for (int i = 1; i <= 400; i++) {
+			assertEquals("Failed to remove the minimum value.", i, (int) balancedTree.removeMin().getElement());
+			assertEquals("Failed to remove the maximum value.", 1001 - i, (int) balancedTree.removeMax().getElement());
+		}
+		assertEquals("Failed to update size.", 200, balancedTree.size());
+		assertTrue("Failed to keep the tree balanced.", balancedTree.getHeight() <= 9);
+		assertTrue(balancedTree.contains(401));
+		assertTrue(balancedTree.contains(600));
+		assertFalse(balancedTree.contains(400));
+		assertFalse(balancedTree.contains(601));
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#getHeight()}
+	 * to follow removals that shorten the tree.
+	 */
+	@Test
+	public void testGetHeight_AfterRemovals() {
+		tree.add(four);
+		tree.add(two);
+		tree.add(six);
+		tree.add(one);
+		tree.add(five);
+		assertEquals("Failed to return the height.", 3, tree.getHeight());
+
+		tree.removeMin();
+		assertEquals("Failed to keep the height.", 3, tree.getHeight());
+		tree.removeMax();
+		assertEquals("Failed to update the height.", 2, tree.getHeight());
+		tree.clear();
+		assertEquals("Failed to reset the height.", 0, tree.getHeight());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#getHeight()}
+	 * to measure a degenerate tree, as built from sorted input, without
+	 * overflowing the stack.
+	 */
+	@Test
+	public void testGetHeight_DegenerateTree() {
+		int count = 20000;
+		for (int i = 1; i <= count; i++) {
+			tree.add(i);
+		}
+		assertEquals("Failed to return the height.", count, tree.getHeight());
+
+		tree.removeMin();
+		assertEquals("Failed to update the height.", count - 1, tree.getHeight());
+		tree.removeMax();
+		assertEquals("Failed to update the height.", count - 2, tree.getHeight());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#fromSorted(Comparable[], boolean)}
+	 * to build a perfectly balanced tree from a sorted array.
+	 */
+	@Test
+	public void testFromSorted_Array() {
+		Integer[] sorted = { one, two, three, four, five, six, seven };
+		BSTree<Integer> built = BSTree.fromSorted(sorted, false);
+
+		assertEquals("Failed to update size correctly.", 7, built.size());
+		assertEquals("Failed to build a balanced tree.", 3, built.getHeight());
+		assertEquals("Failed to pick the middle element as root.", four, built.getRoot().getElement());
+
+		Integer[] shouldBe = { four, two, one, three, six, five, seven };
+		Iterator<Integer> it = built.preorderIterator();
+		int i = 0;
+		while (it.hasNext()) {
+			assertEquals("Preorder iterator is out of order ", shouldBe[i++], it.next());
+		}
+		assertEquals("Failed to iterate every element.", 7, i);
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#fromSorted(utilities.Iterator, boolean)}
+	 * to rebuild a degenerate tree as a balanced one.
+	 */
+	@Test
+	public void testFromSorted_Iterator() {
+		for (int i = 1; i <= 1000; i++) {
+			tree.add(i);
+		}
+		BSTree<Integer> built = BSTree.fromSorted(tree.inorderIterator(), true);
+
+		assertEquals("Failed to update size correctly.", 1000, built.size());
+		assertEquals("Failed to build a balanced tree.", 10, built.getHeight());
+		assertTrue("Failed to keep balanced mode.", built.isBalanced());
+		assertTrue(built.add(1001));
+		assertEquals("Failed to keep the tree balanced.", 10, built.getHeight());
+		assertEquals("Failed to remove the minimum value.", 1, (int) built.removeMin().getElement());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#fromSorted(Comparable[], boolean)}
+	 * to throw an IllegalArgumentException when the input is not sorted.
+	 */
+	@Test
+	public void testFromSortedForIllegalArgumentException() {
+		Integer[] unsorted = { one, three, two };
+		try {
+			BSTree.fromSorted(unsorted, false);
+			fail("fromSorted method failed to throw IllegalArgumentException.");
+		} catch (IllegalArgumentException e) {
+			assertTrue(true);
+		}
+	}
+
 	/**
 	 * Test method for 
 	 * {@link implementations.BSTree#getRoot()}
@@ -500,6 +722,390 @@ public class BSTreeTest {
 		assertEquals("Preorder iterator is out of order ", true, actual);
 	}
 
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#postorderIterator()}
+	 * to iterate lazily over a degenerate tree far deeper than the call stack
+	 * allows, children before parents.
+	 */
+	@Test
+	public void testPostorderIterator_DegenerateTree() {
+		for (int i = 1; i <= 20000; i++) {
+			tree.add(i);
+		}
+		Iterator<Integer> it = tree.postorderIterator();
+		for (int i = 20000; i >= 1; i--) {
+			assertEquals("Postorder iterator is out of order ", i, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#forEachInorder(java.util.function.Consumer)}
+	 * to visit every element in order and leave every link of the tree as it
+	 * was.
+	 */
+	@Test
+	public void testForEachInorder() {
+		Random random = new Random(13);
+		for (int i = 0; i < 300; i++) {
+			tree.add(random.nextInt(1000));
+		}
+		List<Integer> preorderBefore = new ArrayList<>();
+		Iterator<Integer> it = tree.preorderIterator();
+		while (it.hasNext()) {
+			preorderBefore.add(it.next());
+		}
+
+		List<Integer> visited = new ArrayList<>();
+		tree.forEachInorder(visited::add);
+
+		it = tree.inorderIterator();
+		for (Integer value : visited) {
+			assertEquals("Morris traversal is out of order.", it.next(), value);
+		}
+		assertFalse("Morris traversal missed elements.", it.hasNext());
+		it = tree.preorderIterator();
+		for (Integer value : preorderBefore) {
+			assertEquals("Morris traversal changed the tree.", value, it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#forEachInorder(java.util.function.Consumer)}
+	 * to walk a degenerate tree far deeper than the call stack allows.
+	 */
+	@Test
+	public void testForEachInorder_DegenerateTree() {
+		for (int i = 20000; i >= 1; i--) {
+			tree.add(i);
+		}
+		int[] expected = { 1 };
+		tree.forEachInorder(value -> assertEquals("Morris traversal is out of order.", expected[0]++, (int) value));
+		assertEquals("Morris traversal missed elements.", 20001, expected[0]);
+		assertEquals("Morris traversal changed the tree.", 20000, tree.getHeight());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#forEachInorder(java.util.function.Consumer)}
+	 * to restore the tree and rethrow when the action throws.
+	 */
+	@Test
+	public void testForEachInorder_ActionThrows() {
+		for (int value : new int[] { 40, 20, 60, 10, 30, 50, 70 }) {
+			tree.add(value);
+		}
+		List<Integer> visited = new ArrayList<>();
+		try {
+			tree.forEachInorder(value -> {
+				if (value == 30) {
+					throw new IllegalStateException();
+				}
+				visited.add(value);
+			});
+			fail("Failed to rethrow the exception of the action.");
+		} catch (IllegalStateException e) {
+			assertEquals("Ran the action after it threw.", 2, visited.size());
+		}
+		Iterator<Integer> it = tree.preorderIterator();
+		for (int value : new int[] { 40, 20, 10, 30, 60, 50, 70 }) {
+			assertEquals("Morris traversal changed the tree.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#spliterator()}
+	 * to split the tree into disjoint parts that cover every element, in order,
+	 * however far it is split.
+	 */
+	@Test
+	public void testSpliterator_Split() {
+		Random random = new Random(3);
+		for (int i = 0; i < 500; i++) {
+			tree.add(random.nextInt(2000));
+		}
+		Spliterator<Integer> whole = tree.spliterator();
+		assertEquals("Failed to report the size.", tree.size(), whole.getExactSizeIfKnown());
+		assertTrue(whole.hasCharacteristics(Spliterator.SORTED));
+
+		List<Integer> visited = new ArrayList<>();
+		Spliterator<Integer> prefix = whole.trySplit();
+		prefix.tryAdvance(visited::add);
+		collectSplit(prefix, visited, 4);
+		collectSplit(whole, visited, 6);
+
+		Iterator<Integer> expected = tree.inorderIterator();
+		for (Integer value : visited) {
+			assertEquals("Spliterator is out of order.", expected.next(), value);
+		}
+		assertFalse("Spliterator missed elements.", expected.hasNext());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#parallelStream()}
+	 * to process the elements in parallel and keep them in order for ordered
+	 * operations.
+	 */
+	@Test
+	public void testParallelStream() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		for (int i = 1; i <= 100000; i++) {
+			balancedTree.add(i);
+		}
+		assertEquals("Failed to visit every element.", 5000050000L,
+				balancedTree.parallelStream().mapToLong(Integer::longValue).sum());
+		List<Integer> collected = balancedTree.parallelStream().collect(Collectors.toList());
+		assertEquals("Failed to visit every element.", 100000, collected.size());
+		for (int i = 0; i < collected.size(); i++) {
+			assertEquals("Parallel stream is out of order.", i + 1, (int) collected.get(i));
+		}
+		assertEquals(0, new BSTree<Integer>().stream().count());
+	}
+
+	/**
+	 * Splits a spliterator recursively, prefix first, and collects the elements
+	 * of every part in order.
+	 */
+	private static void collectSplit(Spliterator<Integer> spliterator, List<Integer> visited, int depth) {
+		Spliterator<Integer> prefix = depth > 0 ? spliterator.trySplit() : null;
+		if (prefix != null) {
+			collectSplit(prefix, visited, depth - 1);
+			collectSplit(spliterator, visited, depth - 1);
+		} else {
+			spliterator.forEachRemaining(visited::add);
+		}
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#ceiling(Comparable)},
+	 * {@link implementations.BSTree#higher(Comparable)},
+	 * {@link implementations.BSTree#floor(Comparable)} and
+	 * {@link implementations.BSTree#lower(Comparable)}
+	 * to find the nearest elements around present and absent values.
+	 */
+	@Test
+	public void testCeilingFloorHigherLower() {
+		for (int value : new int[] { 40, 20, 60, 10, 30, 50, 70 }) {
+			tree.add(value);
+		}
+		assertEquals(30, (int) tree.ceiling(30));
+		assertEquals(40, (int) tree.ceiling(31));
+		assertEquals(10, (int) tree.ceiling(-5));
+		assertNull(tree.ceiling(71));
+		assertEquals(40, (int) tree.higher(30));
+		assertNull(tree.higher(70));
+		assertEquals(30, (int) tree.floor(30));
+		assertEquals(30, (int) tree.floor(39));
+		assertNull(tree.floor(9));
+		assertEquals(20, (int) tree.lower(30));
+		assertNull(tree.lower(10));
+		assertEquals(70, (int) tree.lower(1000));
+		assertNull(new BSTree<Integer>().ceiling(1));
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#ceiling(Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testCeilingForNullPointerException() {
+		tree.add(one);
+		tree.ceiling(null);
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#rank(Comparable)} and
+	 * {@link implementations.BSTree#select(int)}
+	 * to agree with a TreeSet through random adds and removals, in both modes.
+	 */
+	@Test
+	public void testRankSelect_RandomOperations() {
+		for (boolean balanced : new boolean[] { false, true }) {
+			BSTree<Integer> randomTree = new BSTree<Integer>(balanced);
+			TreeSet<Integer> expected = new TreeSet<>();
+			Random random = new Random(5);
+			for (int i = 0; i < 2000; i++) {
+				int operation = random.nextInt(10);
+				if (operation < 7) {
+					int value = random.nextInt(1000);
+					expected.add(value);
+					randomTree.add(value);
+				} else if (operation < 9) {
+					expected.pollFirst();
+					randomTree.removeMin();
+				} else {
+					expected.pollLast();
+					randomTree.removeMax();
+				}
+				if (i % 100 == 0) {
+					assertRankSelect(expected, randomTree);
+				}
+			}
+			assertRankSelect(expected, randomTree);
+		}
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#rank(Comparable)}
+	 * to count the elements below absent values.
+	 */
+	@Test
+	public void testRank_AbsentValues() {
+		for (int value : new int[] { 40, 20, 60, 10, 30, 50, 70 }) {
+			tree.add(value);
+		}
+		assertEquals(0, tree.rank(5));
+		assertEquals(0, tree.rank(10));
+		assertEquals(3, tree.rank(35));
+		assertEquals(3, tree.rank(40));
+		assertEquals(7, tree.rank(100));
+		assertEquals(0, new BSTree<Integer>().rank(1));
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#select(int)}
+	 * to throw IndexOutOfBoundsException past the last element.
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testSelectForIndexOutOfBoundsException() {
+		tree.add(one);
+		tree.select(1);
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#remove(Comparable)}
+	 * to remove leaves, nodes with one child and nodes with two children.
+	 */
+	@Test
+	public void testRemove() {
+		for (int value : new int[] { 40, 20, 60, 10, 30, 50, 70, 35 }) {
+			tree.add(value);
+		}
+		assertEquals("Failed to remove a leaf.", 10, (int) tree.remove(10).getElement());
+		assertEquals("Failed to remove a node with one child.", 30, (int) tree.remove(30).getElement());
+		assertEquals("Failed to remove the root.", 40, (int) tree.remove(40).getElement());
+		assertNull("Removed an absent element.", tree.remove(40));
+		assertEquals("Failed to update size.", 5, tree.size());
+		assertEquals("Failed to replace the root by its successor.", 50, (int) tree.getRoot().getElement());
+
+		Integer[] shouldBe = { 20, 35, 50, 60, 70 };
+		Iterator<Integer> it = tree.inorderIterator();
+		for (Integer value : shouldBe) {
+			assertEquals("In-order iterator is out of order.", value, it.next());
+		}
+		assertFalse(it.hasNext());
+		assertEquals("Failed to update the height.", 3, tree.getHeight());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#remove(Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testRemoveForNullPointerException() {
+		tree.remove(null);
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#remove(Comparable)}
+	 * to agree with a TreeSet through random adds and removals, keeping a
+	 * balanced tree balanced.
+	 */
+	@Test
+	public void testRemove_RandomOperations() {
+		for (boolean balanced : new boolean[] { false, true }) {
+			BSTree<Integer> randomTree = new BSTree<Integer>(balanced);
+			TreeSet<Integer> expected = new TreeSet<>();
+			Random random = new Random(9);
+			for (int i = 0; i < 4000; i++) {
+				int value = random.nextInt(500);
+				if (random.nextBoolean()) {
+					assertEquals(expected.add(value), randomTree.add(value));
+				} else {
+					BSTreeNode<Integer> removed = randomTree.remove(value);
+					assertEquals(expected.remove(value), removed != null);
+				}
+			}
+			assertRankSelect(expected, randomTree);
+			if (balanced) {
+				assertTrue("Failed to keep the tree balanced.", randomTree.getHeight() <= 12);
+			}
+		}
+	}
+
+	/**
+	 * Checks rank and select of every element of a tree against a TreeSet.
+	 */
+	private static void assertRankSelect(TreeSet<Integer> expected, BSTree<Integer> actual) {
+		assertEquals("Failed to update size.", expected.size(), actual.size());
+		int index = 0;
+		for (Integer value : expected) {
+			assertEquals("Failed to select the element.", value, actual.select(index));
+			assertEquals("Failed to rank the element.", index, actual.rank(value));
+			assertEquals("Failed to rank the next value.", index + 1, actual.rank(value + 1));
+			index++;
+		}
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#rangeIterator(Comparable, boolean, Comparable, boolean)}
+	 * to return exactly the elements within the bounds, honouring inclusive and
+	 * open bounds.
+	 */
+	@Test
+	public void testRangeIterator() {
+		BSTree<Integer> balancedTree = new BSTree<Integer>(true);
+		for (int i = 0; i < 100; i += 2) {
+			balancedTree.add(i);
+		}
+		assertRange(balancedTree.rangeIterator(10, true, 20, true), 10, 20);
+		assertRange(balancedTree.rangeIterator(10, false, 20, false), 12, 18);
+		assertRange(balancedTree.rangeIterator(11, true, 19, true), 12, 18);
+		assertRange(balancedTree.rangeIterator(null, false, 6, false), 0, 4);
+		assertRange(balancedTree.rangeIterator(90, true, null, false), 90, 98);
+		assertRange(balancedTree.rangeIterator(null, false, null, false), 0, 98);
+		assertFalse(balancedTree.rangeIterator(11, true, 11, true).hasNext());
+		assertFalse(balancedTree.rangeIterator(12, false, 12, true).hasNext());
+		assertFalse(balancedTree.rangeIterator(200, true, null, false).hasNext());
+	}
+
+	/**
+	 * Test method for 
+	 * {@link implementations.BSTree#rangeIterator(Comparable, boolean, Comparable, boolean)}
+	 * to reject a lower bound above the upper bound.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRangeIteratorForIllegalArgumentException() {
+		tree.rangeIterator(seven, true, one, true);
+	}
+
+	/**
+	 * Checks that an iterator returns the even numbers from first to last.
+	 */
+	private static void assertRange(Iterator<Integer> it, int first, int last) {
+		for (int expected = first; expected <= last; expected += 2) {
+			assertTrue("Range iterator stopped early.", it.hasNext());
+			assertEquals("Range iterator is out of order.", expected, (int) it.next());
+		}
+		assertFalse("Range iterator passed the upper bound.", it.hasNext());
+	}
+
 	/**
 	 * Test method for 
 	 * {@link implementations.BSTree#size()}
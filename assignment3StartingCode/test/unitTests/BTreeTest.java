@@ -0,0 +1,264 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.BSTreeNode;
+import implementations.BTree;
+import implementations.ShardedBSTree;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the B-tree implementation of the BSTreeADT.
+ */
+public class BTreeTest {
+	// Attributes
+	private BTree<Integer> tree;
+
+	/**
+	 * Initializes a new BTree of minimum degree 2, whose nodes hold at most three
+	 * elements, before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new BTree<Integer>(2);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#BTree(int)}
+	 * to reject a minimum degree smaller than 2.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorForIllegalArgumentException() {
+		new BTree<Integer>(1);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#add(java.lang.Comparable)}
+	 * to add elements, reject duplicates and split full nodes.
+	 */
+	@Test
+	public void testAdd() {
+		for (int i = 1; i <= 10; i++) {
+			assertTrue(tree.add(i));
+		}
+		assertFalse("Failed to reject a duplicate.", tree.add(5));
+		assertEquals("Failed to update size.", 10, tree.size());
+		assertEquals("Failed to split the root.", 3, tree.getHeight());
+		assertTrue(tree.contains(10));
+		assertFalse(tree.contains(11));
+		assertNull(tree.search(0));
+		assertEquals(7, (int) tree.search(7).getElement());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddForNullPointerException() {
+		tree.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#getRoot()}
+	 * to present the tree as a binary search tree whose in-order walk gives the
+	 * elements in order.
+	 */
+	@Test
+	public void testGetRootView() {
+		for (int i = 20; i > 0; i--) {
+			tree.add(i);
+		}
+		List<Integer> walked = new ArrayList<>();
+		walk(tree.getRoot(), walked);
+		assertEquals("Failed to present the nodes in order.", 20, walked.size());
+		for (int i = 0; i < walked.size(); i++) {
+			assertEquals(i + 1, (int) walked.get(i));
+		}
+	}
+
+	private static void walk(BSTreeNode<Integer> node, List<Integer> walked) {
+		if (node != null) {
+			walk(node.getLeft(), walked);
+			walked.add(node.getElement());
+			walk(node.getRight(), walked);
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#addIfAbsent(java.lang.Comparable)}
+	 * to return the node holding the stored element.
+	 */
+	@Test
+	public void testAddIfAbsent() {
+		Integer first = new Integer(1234);
+		Integer second = new Integer(1234);
+		assertSame("Failed to add the element.", first, tree.addIfAbsent(first).getElement());
+		assertSame("Failed to return the stored element.", first, tree.addIfAbsent(second).getElement());
+		assertEquals("Failed to update size.", 1, tree.size());
+	}
+
+	/**
+	 * Test method for the nodes returned by
+	 * {@link implementations.BTree#search(java.lang.Comparable)}
+	 * to write a replacement element back to its node and reject null.
+	 */
+	@Test
+	public void testNodeSetElement() {
+		for (int i = 1; i <= 10; i++) {
+			tree.add(i);
+		}
+		Integer replacement = new Integer(7);
+		BSTreeNode<Integer> node = tree.search(7);
+		node.setElement(replacement);
+		assertSame("Failed to replace the element.", replacement, tree.search(7).getElement());
+		try {
+			node.setElement(null);
+			fail("Failed to reject a null value.");
+		} catch (NullPointerException e) {
+			assertSame(replacement, tree.search(7).getElement());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#preorderIterator()} and
+	 * {@link implementations.BTree#postorderIterator()}
+	 * to visit the elements of a node before and after its children.
+	 */
+	@Test
+	public void testPreorderPostorderIterators() {
+		for (int i = 1; i <= 4; i++) {
+			tree.add(i);
+		}
+		int[] preorder = { 2, 1, 3, 4 };
+		Iterator<Integer> it = tree.preorderIterator();
+		for (int value : preorder) {
+			assertEquals("Pre-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+		int[] postorder = { 1, 3, 4, 2 };
+		it = tree.postorderIterator();
+		for (int value : postorder) {
+			assertEquals("Post-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#inorderIterator()}
+	 * to throw NoSuchElementException when exhausted.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testInorderIteratorForNoSuchElementException() {
+		tree.inorderIterator().next();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.BTree#removeMin()} and
+	 * {@link implementations.BTree#removeMax()}
+	 * to match a TreeSet under random adds and removals, which borrow from and
+	 * merge nodes.
+	 */
+	@Test
+	public void testAgainstTreeSet() {
+		TreeSet<Integer> expected = new TreeSet<>();
+		Random random = new Random(25);
+		for (int i = 0; i < 5000; i++) {
+			int operation = random.nextInt(10);
+			if (operation == 0) {
+				BSTreeNode<Integer> removed = tree.removeMin();
+				assertEquals(expected.pollFirst(), removed == null ? null : removed.getElement());
+			} else if (operation == 1) {
+				BSTreeNode<Integer> removed = tree.removeMax();
+				assertEquals(expected.pollLast(), removed == null ? null : removed.getElement());
+			} else {
+				int value = random.nextInt(2000);
+				assertEquals(expected.add(value), tree.add(value));
+			}
+		}
+		assertEquals("Failed to update size.", expected.size(), tree.size());
+		assertTrue("Failed to stay balanced.",
+				tree.getHeight() <= 1 + Math.log((expected.size() + 1) / 2.0) / Math.log(2));
+		Iterator<Integer> it = tree.inorderIterator();
+		for (int value : expected) {
+			assertEquals("In-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+		while (tree.removeMax() != null) {
+		}
+		assertTrue(tree.isEmpty());
+		assertEquals(0, tree.getHeight());
+	}
+
+	/**
+	 * Test method for serializing a BTree and loading it back into the fewest
+	 * levels that hold its elements.
+	 * @throws Exception
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		BTree<Integer> wide = new BTree<>();
+		for (int i = 0; i < 10_000; i++) {
+			wide.add(i);
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(wide);
+		}
+		BTree<?> read;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			read = (BTree<?>) in.readObject();
+		}
+		assertEquals("Failed to restore size.", 10_000, read.size());
+		assertEquals("Failed to restore the minimum degree.", BTree.DEFAULT_MINIMUM_DEGREE, read.getMinimumDegree());
+		assertEquals("Failed to load the fewest levels.", 3, read.getHeight());
+		Iterator<?> it = read.inorderIterator();
+		for (int i = 0; i < 10_000; i++) {
+			assertEquals("In-order iterator is out of order.", i, it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for a
+	 * {@link implementations.ShardedBSTree#ShardedBSTree(Comparable[], java.util.function.Supplier)}
+	 * index with BTree shards.
+	 */
+	@Test
+	public void testShardedIndexOfBTrees() {
+		ShardedBSTree<Integer> index = new ShardedBSTree<>(new Integer[] { 100, 200 }, BTree::new);
+		for (int i = 299; i >= 0; i--) {
+			assertTrue(index.add(i));
+		}
+		assertFalse(index.add(150));
+		assertEquals(300, index.size());
+		Iterator<Integer> it = index.inorderIterator();
+		for (int i = 0; i < 300; i++) {
+			assertEquals("In-order iterator is out of order.", i, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+}
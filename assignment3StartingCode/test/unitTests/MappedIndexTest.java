@@ -0,0 +1,157 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.FileTable;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import serialization.MappedIndex;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of lookups in the memory-mapped repository index.
+ */
+public class MappedIndexTest {
+	// Attributes
+	private static final String[] WORDS = { "a", "cafe", "caff", "caf\u00e9", "na\u00efve", "zebra", "z\u00fcrich",
+			"\u00df", "\u65e5\u672c" };
+
+	private File file;
+	private MappedIndex index;
+
+	/**
+	 * Writes an index over a repository of ASCII and non-ASCII words and opens it
+	 * before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		FileTable files = new FileTable();
+		int fileId = files.intern("words.txt");
+		BSTree<WordInfo> tree = new BSTree<>(true);
+		for (int i = 0; i < WORDS.length; i++) {
+			WordInfo info = new WordInfo(WORDS[i]);
+			info.addEntries(fileId, i + 1);
+			tree.add(info);
+		}
+		file = File.createTempFile("repository", ".idx");
+		MappedIndex.write(new WordRepository(tree, files), file);
+		index = MappedIndex.open(file);
+	}
+
+	/**
+	 * Closes and deletes the index after each test.
+	 */
+	@After
+	public void tearDown() {
+		index.close();
+		file.delete();
+	}
+
+	/**
+	 * Test method for the order of the test words: the tree orders them by
+	 * {@link String#compareTo(String)}, which the index must match with the order
+	 * of their UTF-8 bytes.
+	 */
+	@Test
+	public void testWordsAreInTreeOrder() {
+		String[] sorted = WORDS.clone();
+		Arrays.sort(sorted);
+		assertArrayEquals(WORDS, sorted);
+		assertEquals("Failed to index every word.", WORDS.length, index.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.MappedIndex#lookup(String)}
+	 * to find the first and the last word.
+	 */
+	@Test
+	public void testLookupFirstAndLast() {
+		WordInfo first = index.lookup("a");
+		assertEquals("a", first.getWord());
+		assertEquals("words.txt", index.getFiles().nameOf(first.getFileId(0)));
+		assertEquals("[1]", Arrays.toString(first.getPostings(0).toArray()));
+		WordInfo last = index.lookup("\u65e5\u672c");
+		assertEquals("\u65e5\u672c", last.getWord());
+		assertEquals("[" + WORDS.length + "]", Arrays.toString(last.getPostings(0).toArray()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.MappedIndex#lookup(String)}
+	 * to find every non-ASCII word with its own lines.
+	 */
+	@Test
+	public void testLookupNonAscii() {
+		for (int i = 0; i < WORDS.length; i++) {
+			WordInfo info = index.lookup(WORDS[i]);
+			assertNotNull("Failed to find " + WORDS[i], info);
+			assertEquals(WORDS[i], info.getWord());
+			assertEquals("[" + (i + 1) + "]", Arrays.toString(info.getPostings(0).toArray()));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.MappedIndex#lookup(String)}
+	 * to return null for words before, between and after the indexed ones.
+	 */
+	@Test
+	public void testLookupAbsent() {
+		assertNull(index.lookup(""));
+		assertNull(index.lookup("0"));
+		assertNull(index.lookup("caf"));
+		assertNull(index.lookup("cafes"));
+		assertNull(index.lookup("caf\u00eb"));
+		assertNull(index.lookup("\u65e5\u672c\u8a9e"));
+		assertNull(index.lookup("\uff21"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.MappedIndex#byFrequency()}
+	 * to read the words in the frequency order of the repository it was written
+	 * from.
+	 * @throws Exception
+	 */
+	@Test
+	public void testByFrequency() throws Exception {
+		FileTable files = new FileTable();
+		int fileId = files.intern("words.txt");
+		BSTree<WordInfo> tree = new BSTree<>(true);
+		for (int i = 0; i < WORDS.length; i++) {
+			WordInfo info = new WordInfo(WORDS[i]);
+			for (int line = 1; line <= i % 4 + 1; line++) {
+				info.addEntries(fileId, line);
+			}
+			tree.add(info);
+		}
+		WordRepository repository = new WordRepository(tree, files);
+		MappedIndex.write(repository, file);
+
+		try (MappedIndex rewritten = MappedIndex.open(file)) {
+			Iterator<WordInfo> words = rewritten.byFrequency();
+			assertEquals("caf\u00e9", words.next().getWord());
+			assertEquals("\u00df", words.next().getWord());
+			WordInfo third = words.next();
+			assertEquals("caff", third.getWord());
+			assertEquals("[1, 2, 3]", Arrays.toString(third.getPostings(0).toArray()));
+			Iterator<WordInfo> expected = repository.byFrequency();
+			words = rewritten.byFrequency();
+			while (expected.hasNext()) {
+				assertEquals(expected.next().getWord(), words.next().getWord());
+			}
+			assertFalse(words.hasNext());
+		}
+	}
+}
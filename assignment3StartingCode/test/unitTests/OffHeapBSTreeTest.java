@@ -0,0 +1,295 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.WordInfo;
+import implementations.BSTree;
+import implementations.BSTreeNode;
+import implementations.ElementCodec;
+import implementations.OffHeapBSTree;
+import serialization.Serialization;
+import serialization.WordInfoCodec;
+import utilities.BSTreeADT;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the off-heap implementation of the BSTreeADT.
+ */
+public class OffHeapBSTreeTest {
+	// Attributes
+	private OffHeapBSTree<String> tree;
+
+	/**
+	 * Initializes a new OffHeapBSTree of strings before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new OffHeapBSTree<String>(ElementCodec.strings());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.OffHeapBSTree#add(java.lang.Comparable)} and
+	 * {@link implementations.OffHeapBSTree#search(java.lang.Comparable)}
+	 * to add elements, reject duplicates and find them again, including strings
+	 * that are prefixes of each other.
+	 */
+	@Test
+	public void testAddSearch() {
+		assertTrue(tree.add("moon"));
+		assertTrue(tree.add("apple"));
+		assertTrue(tree.add("zebra"));
+		assertTrue(tree.add("app"));
+		assertTrue(tree.add(""));
+		assertFalse("Failed to reject a duplicate.", tree.add("apple"));
+		assertEquals("Failed to update size.", 5, tree.size());
+		assertEquals("Failed to update height.", 4, tree.getHeight());
+		assertEquals("moon", tree.getRoot().getElement());
+		assertEquals("app", tree.getRoot().getLeft().getLeft().getElement());
+		assertEquals("apple", tree.search("apple").getElement());
+		assertTrue(tree.contains(""));
+		assertFalse(tree.contains("ap"));
+		assertNull(tree.search("zebras"));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.OffHeapBSTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddForNullPointerException() {
+		tree.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.OffHeapBSTree#OffHeapBSTree(ElementCodec)}
+	 * to throw NullPointerException without a codec.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testConstructorForNullPointerException() {
+		new OffHeapBSTree<String>(null);
+	}
+
+	/**
+	 * Test method for the nodes returned by
+	 * {@link implementations.OffHeapBSTree#addIfAbsent(java.lang.Comparable)}
+	 * to write a replacement element back to the tree.
+	 */
+	@Test
+	public void testNodeSetElement() {
+		tree.add("b");
+		tree.add("a");
+		BSTreeNode<String> node = tree.addIfAbsent("a");
+		node.setElement(new String("a"));
+		assertEquals("a", tree.search("a").getElement());
+		assertEquals("Failed to keep size.", 2, tree.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.OffHeapBSTree#inorderIterator()},
+	 * {@link implementations.OffHeapBSTree#preorderIterator()} and
+	 * {@link implementations.OffHeapBSTree#postorderIterator()}
+	 * to visit the nodes in the three orders.
+	 */
+	@Test
+	public void testIterators() {
+		OffHeapBSTree<Integer> numbers = new OffHeapBSTree<>(ElementCodec.integers());
+		int[] values = { 50, 30, 70, 20, 40, 80 };
+		for (int value : values) {
+			numbers.add(value);
+		}
+		int[][] orders = { { 20, 30, 40, 50, 70, 80 }, { 50, 30, 20, 40, 70, 80 }, { 20, 40, 30, 80, 70, 50 } };
+		Iterator<?>[] iterators = { numbers.inorderIterator(), numbers.preorderIterator(),
+				numbers.postorderIterator() };
+		for (int i = 0; i < orders.length; i++) {
+			for (int value : orders[i]) {
+				assertEquals("Iterator is out of order.", value, iterators[i].next());
+			}
+			assertFalse(iterators[i].hasNext());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.OffHeapBSTree#inorderIterator()}
+	 * to throw NoSuchElementException when exhausted.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testInorderIteratorForNoSuchElementException() {
+		tree.inorderIterator().next();
+	}
+
+	/**
+	 * Test method for the balanced mode of
+	 * {@link implementations.OffHeapBSTree#OffHeapBSTree(ElementCodec, boolean)}
+	 * to match a TreeSet under random adds and removals spanning several pages.
+	 */
+	@Test
+	public void testBalancedAgainstTreeSet() {
+		OffHeapBSTree<Integer> balanced = new OffHeapBSTree<>(ElementCodec.integers(), true);
+		TreeSet<Integer> expected = new TreeSet<>();
+		Random random = new Random(24);
+		for (int i = 0; i < 100_000; i++) {
+			int operation = random.nextInt(10);
+			if (operation == 0) {
+				BSTreeNode<Integer> removed = balanced.removeMin();
+				assertEquals(expected.pollFirst(), removed == null ? null : removed.getElement());
+			} else if (operation == 1) {
+				BSTreeNode<Integer> removed = balanced.removeMax();
+				assertEquals(expected.pollLast(), removed == null ? null : removed.getElement());
+			} else {
+				int value = random.nextInt(1_000_000);
+				assertEquals(expected.add(value), balanced.add(value));
+			}
+		}
+		assertEquals("Failed to update size.", expected.size(), balanced.size());
+		assertTrue("Failed to stay balanced.",
+				balanced.getHeight() <= 1.45 * (Math.log(expected.size() + 2) / Math.log(2)));
+		Iterator<Integer> it = balanced.inorderIterator();
+		for (int value : expected) {
+			assertEquals("In-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for saving an OffHeapBSTree with
+	 * {@link serialization.Serialization#saveToFile(BSTreeADT, String)} and
+	 * reading it back as a balanced tree with the same elements.
+	 * @throws Exception
+	 */
+	@Test
+	public void testSerialization() throws Exception {
+		for (int i = 0; i < 1000; i++) {
+			tree.add("word" + i);
+		}
+		File file = File.createTempFile("offheap", ".ser");
+		try {
+			Serialization.saveToFile(tree, file.getPath());
+			BSTreeADT<String> read = Serialization.loadFromFile(file, null);
+			assertTrue("Failed to read an OffHeapBSTree.", read instanceof OffHeapBSTree);
+			assertEquals("Failed to restore size.", 1000, read.size());
+			assertEquals("Failed to rebuild a balanced tree.", 10, read.getHeight());
+			Iterator<String> expected = tree.inorderIterator();
+			Iterator<String> actual = read.inorderIterator();
+			while (expected.hasNext()) {
+				assertEquals("In-order iterator is out of order.", expected.next(), actual.next());
+			}
+			assertFalse(actual.hasNext());
+			assertTrue(read.contains("word999"));
+			assertTrue(read.add("word1000"));
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.Serialization#loadFromFile(File)}
+	 * to return an empty BSTree for a file holding an OffHeapBSTree instead of
+	 * failing the cast.
+	 * @throws Exception
+	 */
+	@Test
+	public void testLoadAsBSTree() throws Exception {
+		tree.add("word");
+		File file = File.createTempFile("offheap", ".ser");
+		try {
+			Serialization.saveToFile(tree, file.getPath());
+			BSTree<String> read = Serialization.loadFromFile(file);
+			assertTrue("Failed to fall back to an empty tree.", read.isEmpty());
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test method for an OffHeapBSTree of
+	 * {@link appDomain.WordInfo} using {@link serialization.WordInfoCodec}
+	 * to keep the postings of each word with its key, and to order words outside
+	 * ASCII, including supplementary characters, as {@link String#compareTo(String)}
+	 * does.
+	 */
+	@Test
+	public void testWordInfoCodec() {
+		OffHeapBSTree<WordInfo> words = new OffHeapBSTree<WordInfo>(WordInfoCodec.INSTANCE, true);
+		String[] keys = { "b", "a", "ab", "\u00e9t\u00e9", "\uffe0", "\ud83d\ude00", "\u00e9", "" };
+		TreeSet<String> expected = new TreeSet<>();
+		for (int i = 0; i < keys.length; i++) {
+			WordInfo info = new WordInfo(keys[i]);
+			info.addEntries(i, 1);
+			info.addEntries(i, 200 + i);
+			info.addEntries(i + 1, 70_000);
+			info.seal();
+			assertTrue(words.add(info));
+			expected.add(keys[i]);
+		}
+		assertFalse("Failed to reject a duplicate.", words.add(new WordInfo("ab")));
+		Iterator<WordInfo> it = words.inorderIterator();
+		for (String key : expected) {
+			assertEquals("In-order iterator is out of order.", key, it.next().getWord());
+		}
+		for (int i = 0; i < keys.length; i++) {
+			WordInfo found = words.search(new WordInfo(keys[i])).getElement();
+			assertEquals(keys[i], found.getWord());
+			assertEquals("Failed to keep the postings.", 3, found.getTotal());
+			assertEquals(i, found.getFileId(0));
+			assertEquals("[1, " + (200 + i) + "]", Arrays.toString(found.getPostings(0).toArray()));
+			assertEquals("[70000]", Arrays.toString(found.getPostings(1).toArray()));
+		}
+		assertNull(words.search(new WordInfo("abc")));
+	}
+
+	/**
+	 * Test method for setElement on the nodes of an
+	 * {@link implementations.OffHeapBSTree}
+	 * to rewrite an element in place when it fits, and to reclaim the bytes of
+	 * elements that outgrew their place.
+	 */
+	@Test
+	public void testNodeSetElement_ReclaimsKeyBytes() {
+		for (int i = 0; i < 1000; i++) {
+			tree.add("word" + i);
+		}
+		long bytes = tree.offHeapBytes();
+		BSTreeNode<String> node = tree.search("word500");
+		for (int i = 0; i < 1_000_000; i++) {
+			node.setElement("word500");
+		}
+		assertEquals("Failed to rewrite an element in place.", bytes, tree.offHeapBytes());
+
+		OffHeapBSTree<WordInfo> words = new OffHeapBSTree<WordInfo>(WordInfoCodec.INSTANCE);
+		words.add(new WordInfo("apple"));
+		words.add(new WordInfo("zebra"));
+		for (int line = 1; line <= 5000; line++) {
+			for (String word : new String[] { "apple", "zebra" }) {
+				BSTreeNode<WordInfo> stored = words.search(new WordInfo(word));
+				WordInfo info = stored.getElement();
+				info.addEntries(0, line);
+				stored.setElement(info);
+			}
+		}
+		assertTrue("Failed to reclaim rewritten elements.", words.offHeapBytes() <= 4 << 20);
+		Iterator<WordInfo> it = words.inorderIterator();
+		for (String word : new String[] { "apple", "zebra" }) {
+			WordInfo info = it.next();
+			assertEquals(word, info.getWord());
+			assertEquals("Failed to keep the updates.", 5000, info.getTotal());
+			assertEquals(5000, info.getPostings(0).toArray()[4999]);
+		}
+	}
+}
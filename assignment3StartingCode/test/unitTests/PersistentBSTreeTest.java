@@ -0,0 +1,336 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import implementations.BSTree;
+import implementations.BSTreeNode;
+import implementations.PersistentBSTree;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the persistent, path-copying implementation of the BSTreeADT.
+ */
+public class PersistentBSTreeTest {
+	// Attributes
+	private PersistentBSTree<Integer> tree;
+
+	/**
+	 * Initializes a new PersistentBSTree instance before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		tree = new PersistentBSTree<Integer>();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to add elements and reject duplicates.
+	 */
+	@Test
+	public void testAdd() {
+		assertTrue(tree.add(44));
+		assertTrue(tree.add(22));
+		assertTrue(tree.add(66));
+		assertFalse("Failed to reject a duplicate.", tree.add(22));
+		assertEquals("Failed to update size.", 3, tree.size());
+		assertEquals("Failed to return the root.", 44, (int) tree.getRoot().getElement());
+		assertTrue(tree.contains(66));
+		assertFalse(tree.contains(55));
+		assertNull(tree.search(55));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddForNullPointerException() {
+		tree.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#getRoot()}
+	 * to throw NullPointerException when the tree is empty.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testGetRoot_NullPointerException() {
+		tree.getRoot();
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#snapshot()}
+	 * to keep a snapshot unchanged by later adds and removals, and the tree
+	 * unchanged by changes to the snapshot.
+	 */
+	@Test
+	public void testSnapshot_Isolation() {
+		for (int i = 1; i <= 10; i++) {
+			tree.add(i * 10);
+		}
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		BSTreeNode<Integer> snapshotRoot = snapshot.getRoot();
+
+		tree.add(5);
+		tree.removeMax();
+		assertEquals("Snapshot root changed.", snapshotRoot, snapshot.getRoot());
+		assertFalse("Tree root not copied.", snapshotRoot.equals(tree.getRoot()));
+		snapshot.add(1000);
+
+		assertEquals("Snapshot changed by the tree.", 11, snapshot.size());
+		assertFalse(snapshot.contains(5));
+		assertTrue(snapshot.contains(100));
+		assertEquals("Tree changed by the snapshot.", 10, tree.size());
+		assertTrue(tree.contains(5));
+		assertFalse(tree.contains(100));
+		assertFalse(tree.contains(1000));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#getHeight()}
+	 * to stay logarithmic when a balanced tree is fed sorted input.
+	 */
+	@Test
+	public void testGetHeight_BalancedModeSortedInput() {
+		PersistentBSTree<Integer> balancedTree = new PersistentBSTree<Integer>(true);
+		for (int i = 1; i <= 1023; i++) {
+			assertTrue(balancedTree.add(i));
+		}
+		assertEquals("Failed to update size correctly.", 1023, balancedTree.size());
+		assertEquals("Failed to keep the tree balanced.", 10, balancedTree.getHeight());
+		assertAvl(balancedTree.getRoot());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#getHeight()}
+	 * to return the height of a plain tree, which sorted input degenerates.
+	 */
+	@Test
+	public void testGetHeight_PlainMode() {
+		for (int i = 1; i <= 100; i++) {
+			tree.add(i);
+		}
+		assertEquals("Failed to return the height.", 100, tree.getHeight());
+		tree.removeMin();
+		assertEquals("Failed to update the height.", 99, tree.getHeight());
+		tree.clear();
+		assertEquals("Failed to reset the height.", 0, tree.getHeight());
+		assertTrue(tree.isEmpty());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#removeMin()} and
+	 * {@link implementations.PersistentBSTree#removeMax()}
+	 * to remove the extremes of a balanced tree while every older snapshot keeps
+	 * its elements and its balance.
+	 */
+	@Test
+	public void testRemoveMinMax_Snapshots() {
+		PersistentBSTree<Integer> balancedTree = new PersistentBSTree<Integer>(true);
+		for (int i = 1; i <= 500; i++) {
+			balancedTree.add(i);
+		}
+		List<PersistentBSTree<Integer>> snapshots = new ArrayList<>();
+		for (int i = 1; i <= 200; i++) {
+			snapshots.add(balancedTree.snapshot());
+			assertEquals("Failed to remove the minimum value.", i, (int) balancedTree.removeMin().getElement());
+			assertEquals("Failed to remove the maximum value.", 501 - i, (int) balancedTree.removeMax().getElement());
+			assertAvl(balancedTree.getRoot());
+		}
+		assertEquals("Failed to update size.", 100, balancedTree.size());
+		assertNull(new PersistentBSTree<Integer>().removeMin());
+
+		for (int i = 0; i < snapshots.size(); i++) {
+			PersistentBSTree<Integer> snapshot = snapshots.get(i);
+			assertEquals("Snapshot changed by a removal.", 500 - 2 * i, snapshot.size());
+			assertAvl(snapshot.getRoot());
+			Iterator<Integer> it = snapshot.inorderIterator();
+			int expected = i + 1;
+			while (it.hasNext()) {
+				assertEquals("Snapshot changed by a removal.", expected++, (int) it.next());
+			}
+			assertEquals("Snapshot lost elements.", 501 - i, expected);
+		}
+	}
+
+	/**
+	 * Test method for the three iterators of
+	 * {@link implementations.PersistentBSTree}
+	 * to visit elements in the same orders as a BSTree of the same shape.
+	 */
+	@Test
+	public void testIterators() {
+		BSTree<Integer> reference = new BSTree<Integer>();
+		Random random = new Random(7);
+		for (int i = 0; i < 200; i++) {
+			int value = random.nextInt(1000);
+			tree.add(value);
+			reference.add(value);
+		}
+		assertSameOrder("In-order iterator is out of order.", reference.inorderIterator(), tree.inorderIterator());
+		assertSameOrder("Pre-order iterator is out of order.", reference.preorderIterator(), tree.preorderIterator());
+		assertSameOrder("Post-order iterator is out of order.", reference.postorderIterator(),
+				tree.postorderIterator());
+	}
+
+	/**
+	 * Test method for random adds and removals on a balanced tree, compared
+	 * against a TreeSet after every change.
+	 */
+	@Test
+	public void testRandomOperations_BalancedMode() {
+		PersistentBSTree<Integer> balancedTree = new PersistentBSTree<Integer>(true);
+		TreeSet<Integer> expected = new TreeSet<>();
+		Random random = new Random(11);
+		for (int i = 0; i < 3000; i++) {
+			int operation = random.nextInt(10);
+			if (operation < 7) {
+				int value = random.nextInt(2000);
+				assertEquals(expected.add(value), balancedTree.add(value));
+			} else if (operation < 9) {
+				BSTreeNode<Integer> removed = balancedTree.removeMin();
+				assertEquals(expected.pollFirst(), removed == null ? null : removed.getElement());
+			} else {
+				BSTreeNode<Integer> removed = balancedTree.removeMax();
+				assertEquals(expected.pollLast(), removed == null ? null : removed.getElement());
+			}
+			assertEquals("Failed to update size.", expected.size(), balancedTree.size());
+		}
+		assertAvl(balancedTree.getRoot());
+		Iterator<Integer> it = balancedTree.inorderIterator();
+		for (Integer value : expected) {
+			assertEquals("In-order iterator is out of order.", value, it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.PersistentBSTree#rank(Comparable)} and
+	 * {@link implementations.PersistentBSTree#select(int)}
+	 * to answer from each version, keeping snapshots unchanged by later removals.
+	 */
+	@Test
+	public void testRankSelect_Snapshots() {
+		PersistentBSTree<Integer> balancedTree = new PersistentBSTree<Integer>(true);
+		for (int i = 0; i < 100; i++) {
+			balancedTree.add(i * 2);
+		}
+		PersistentBSTree<Integer> snapshot = balancedTree.snapshot();
+		balancedTree.removeMin();
+		balancedTree.removeMax();
+		for (int i = 0; i < 100; i++) {
+			assertEquals("Failed to select the element.", i * 2, (int) snapshot.select(i));
+			assertEquals("Failed to rank the element.", i, snapshot.rank(i * 2));
+		}
+		for (int i = 0; i < 98; i++) {
+			assertEquals("Failed to select the element.", i * 2 + 2, (int) balancedTree.select(i));
+			assertEquals("Failed to rank the element.", i, balancedTree.rank(i * 2 + 1));
+		}
+	}
+
+	/**
+	 * Test method for readers iterating snapshots while a writer keeps adding:
+	 * every snapshot must be complete and sorted.
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testConcurrentReaders() throws InterruptedException {
+		PersistentBSTree<Integer> balancedTree = new PersistentBSTree<Integer>(true);
+		AtomicReference<String> failure = new AtomicReference<>();
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < 20000; i++) {
+				balancedTree.add((i * 7919) % 20000);
+			}
+		});
+		writer.start();
+		while (writer.isAlive() && failure.get() == null) {
+			PersistentBSTree<Integer> snapshot = balancedTree.snapshot();
+			Iterator<Integer> it = snapshot.inorderIterator();
+			int count = 0;
+			int previous = -1;
+			while (it.hasNext()) {
+				int value = it.next();
+				if (value <= previous) {
+					failure.set("Snapshot out of order.");
+				}
+				previous = value;
+				count++;
+			}
+			if (count != snapshot.size()) {
+				failure.set("Snapshot size does not match its elements.");
+			}
+		}
+		writer.join();
+		assertNull(failure.get(), failure.get());
+		assertEquals("Failed to add every element.", 20000, balancedTree.size());
+	}
+
+	/**
+	 * Test method for the nodes returned by
+	 * {@link implementations.PersistentBSTree#search(java.lang.Comparable)}
+	 * to refuse changes, which would reach every snapshot sharing the node.
+	 */
+	@Test
+	public void testNodesAreReadOnly() {
+		tree.add(20);
+		tree.add(10);
+		tree.add(30);
+		PersistentBSTree<Integer> snapshot = tree.snapshot();
+		BSTreeNode<Integer> node = tree.search(20);
+		try {
+			node.setLeft(null);
+			fail("Failed to refuse relinking a shared node.");
+		} catch (UnsupportedOperationException e) {
+		}
+		try {
+			node.setElement(25);
+			fail("Failed to refuse replacing the element of a shared node.");
+		} catch (UnsupportedOperationException e) {
+		}
+		assertEquals(10, (int) snapshot.getRoot().getLeft().getElement());
+		assertTrue(snapshot.contains(20));
+		BSTreeNode<Integer> removed = tree.removeMin();
+		removed.setElement(99);
+		assertTrue("Changing a removed node reached a snapshot.", snapshot.contains(10));
+	}
+
+	private static void assertSameOrder(String message, Iterator<Integer> expected, Iterator<Integer> actual) {
+		while (expected.hasNext()) {
+			assertTrue(message, actual.hasNext());
+			assertEquals(message, expected.next(), actual.next());
+		}
+		assertFalse(message, actual.hasNext());
+	}
+
+	/**
+	 * Checks the AVL balance of every node and returns the height of the
+	 * subtree.
+	 */
+	private static int assertAvl(BSTreeNode<Integer> node) {
+		if (node == null) {
+			return 0;
+		}
+		int left = assertAvl(node.getLeft());
+		int right = assertAvl(node.getRight());
+		assertTrue("Failed to keep the tree balanced.", Math.abs(left - right) <= 1);
+		return 1 + Math.max(left, right);
+	}
+}
@@ -0,0 +1,130 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.Postings;
+
+/**
+ * Class Description:
+ * Tests of the line numbers of a word in one file, packed as varint gaps.
+ */
+public class PostingsTest {
+	// Attributes
+	private Postings postings;
+
+	/**
+	 * Initializes new, empty postings before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		postings = new Postings();
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Postings#seal()}
+	 * to pack gaps of 128 and more into several bytes and read them back.
+	 */
+	@Test
+	public void testSealForLargeGaps() {
+		int[] lines = { 127, 255, 16_638, 16_639, 33_023, Integer.MAX_VALUE };
+		for (int line : lines) {
+			postings.add(line);
+		}
+		postings.seal();
+		assertTrue(postings.isSealed());
+		assertEquals(lines.length, postings.size());
+		assertEquals("Failed to pack the gaps as varints.", 1 + 2 + 2 + 1 + 3 + 5, postings.getPacked().length);
+		assertEquals(Arrays.toString(lines), Arrays.toString(postings.toArray()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Postings#seal()}
+	 * to keep a word that occurs several times on the same line as gaps of 0.
+	 */
+	@Test
+	public void testSealForDuplicateLines() {
+		postings.add(3);
+		postings.add(3);
+		postings.add(3);
+		postings.add(4);
+		assertEquals("Failed to pack the repeated lines.", Arrays.toString(new byte[] { 3, 0, 0, 1 }),
+				Arrays.toString(postings.getPacked()));
+		assertEquals("[3, 3, 3, 4]", Arrays.toString(postings.toArray()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Postings#toArray()} and
+	 * {@link appDomain.Postings#forEach(java.util.function.IntConsumer)}
+	 * to give the lines in ascending order before the postings are sealed, when
+	 * they were added out of order.
+	 */
+	@Test
+	public void testReadUnsealedOutOfOrder() {
+		postings.add(9);
+		postings.add(2);
+		postings.add(5);
+		assertFalse(postings.isSealed());
+		assertEquals("[2, 5, 9]", Arrays.toString(postings.toArray()));
+		postings.add(1);
+		List<Integer> visited = new ArrayList<>();
+		postings.forEach(visited::add);
+		assertEquals(Arrays.asList(1, 2, 5, 9), visited);
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Postings#add(int)} and
+	 * {@link appDomain.Postings#addAll(Postings)}
+	 * to unpack sealed postings and seal them again with the new lines.
+	 */
+	@Test
+	public void testAddAfterSeal() {
+		postings.add(10);
+		postings.add(300);
+		postings.seal();
+		postings.add(20);
+		assertFalse("Failed to unseal the postings.", postings.isSealed());
+		Postings other = new Postings();
+		other.add(5);
+		other.add(1_000);
+		other.seal();
+		postings.addAll(other);
+		assertEquals(5, postings.size());
+		assertEquals("[5, 10, 20, 300, 1000]", Arrays.toString(postings.toArray()));
+		postings.seal();
+		assertEquals("[5, 10, 20, 300, 1000]", Arrays.toString(postings.toArray()));
+	}
+
+	/**
+	 * Test method for
+	 * {@link appDomain.Postings#fromPacked(byte[], int)}
+	 * to wrap the packed gaps of other postings into the same lines.
+	 */
+	@Test
+	public void testFromPacked() {
+		int[] lines = { 1, 1, 2, 130, 131, 20_000, 20_000 };
+		for (int line : lines) {
+			postings.add(line);
+		}
+		byte[] packed = postings.getPacked();
+		Postings restored = Postings.fromPacked(packed, lines.length);
+		assertTrue(restored.isSealed());
+		assertEquals(lines.length, restored.size());
+		assertSame("Failed to use the packed array as it is.", packed, restored.getPacked());
+		assertEquals(Arrays.toString(lines), Arrays.toString(restored.toArray()));
+
+		restored.add(7);
+		assertEquals("[1, 1, 2, 7, 130, 131, 20000, 20000]", Arrays.toString(restored.toArray()));
+	}
+}
@@ -0,0 +1,219 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.FileTable;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import serialization.RepositoryFile;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the binary repository format written by RepositoryFile.
+ */
+public class RepositoryFileTest {
+	// Attributes
+	private File file;
+
+	/**
+	 * Creates a temporary repository file before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("repository", ".dat");
+	}
+
+	/**
+	 * Deletes the temporary repository file after each test.
+	 */
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	/**
+	 * Builds a repository of three words over two files, with line gaps that need
+	 * more than one byte.
+	 */
+	private static WordRepository sampleRepository() {
+		FileTable files = new FileTable();
+		int first = files.intern("first.txt");
+		int second = files.intern("second.txt");
+		BSTree<WordInfo> tree = new BSTree<>(true);
+		WordInfo apple = new WordInfo("apple");
+		apple.addEntries(first, 1);
+		apple.addEntries(first, 300);
+		apple.addEntries(second, 2);
+		WordInfo moon = new WordInfo("moon");
+		moon.addEntries(second, 7);
+		WordInfo zebra = new WordInfo("zebra");
+		zebra.addEntries(first, 4);
+		zebra.addEntries(first, 4);
+		zebra.addEntries(second, 100_000);
+		zebra.addEntries(second, 100_001);
+		tree.add(apple);
+		tree.add(moon);
+		tree.add(zebra);
+		return new WordRepository(tree, files);
+	}
+
+	/**
+	 * Describes every word of a repository with its files and lines, followed by
+	 * the words in frequency order.
+	 */
+	private static List<String> describe(WordRepository repository) {
+		List<String> lines = new ArrayList<>();
+		Iterator<WordInfo> iterator = repository.getTree().inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			StringBuilder line = new StringBuilder(info.getWord());
+			for (int i = 0; i < info.getFileCount(); i++) {
+				line.append(' ').append(repository.getFiles().nameOf(info.getFileId(i)))
+						.append(Arrays.toString(info.getPostings(i).toArray()));
+			}
+			lines.add(line.toString());
+		}
+		StringBuilder frequencies = new StringBuilder("by frequency:");
+		for (iterator = repository.byFrequency(); iterator.hasNext();) {
+			frequencies.append(' ').append(iterator.next().getWord());
+		}
+		lines.add(frequencies.toString());
+		return lines;
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryFile#save(WordRepository, File)} and
+	 * {@link serialization.RepositoryFile#load(File)}
+	 * to restore the words, files, lines and frequency order.
+	 * @throws IOException
+	 */
+	@Test
+	public void testRoundTrip() throws IOException {
+		WordRepository repository = sampleRepository();
+		RepositoryFile.save(repository, file);
+		WordRepository loaded = RepositoryFile.load(file);
+		assertEquals("Failed to restore the repository.", describe(repository), describe(loaded));
+		assertEquals("by frequency: zebra apple moon", describe(loaded).get(3));
+		assertTrue("Failed to restore the balanced flag.", loaded.getTree().isBalanced());
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryFile#load(File)}
+	 * to reject a file that does not start with the magic number.
+	 * @throws IOException
+	 */
+	@Test
+	public void testLoadForBadMagic() throws IOException {
+		RepositoryFile.save(sampleRepository(), file);
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		bytes[0] = 'X';
+		Files.write(file.toPath(), bytes);
+		try {
+			RepositoryFile.load(file);
+			fail("Failed to reject a file with a bad magic number.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("not a word repository"));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryFile#load(File)}
+	 * to reject a file whose checksum does not match its content.
+	 * @throws IOException
+	 */
+	@Test
+	public void testLoadForBadChecksum() throws IOException {
+		RepositoryFile.save(sampleRepository(), file);
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(file.toPath(), bytes);
+		try {
+			RepositoryFile.load(file);
+			fail("Failed to reject a file with a bad checksum.");
+		} catch (IOException e) {
+			assertTrue(e.getMessage().contains("Checksum mismatch"));
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryFile#load(File)}
+	 * to still read a file of version 1, written before the frequency order was
+	 * stored, and sort its frequency index on load.
+	 * @throws IOException
+	 */
+	@Test
+	public void testLoadVersion1() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0x5754524B);
+		out.writeInt(1);
+		out.writeByte(0);
+		writeVarInt(out, 2);
+		writeString(out, "first.txt");
+		writeString(out, "second.txt");
+		writeVarInt(out, 2);
+		writeString(out, "apple");
+		writeVarInt(out, 1);
+		writeVarInt(out, 1);
+		writeVarInt(out, 1);
+		writeVarInt(out, 5);
+		writeString(out, "moon");
+		writeVarInt(out, 2);
+		writeVarInt(out, 0);
+		writeVarInt(out, 2);
+		writeVarInt(out, 3);
+		writeVarInt(out, 200 - 3);
+		writeVarInt(out, 1);
+		writeVarInt(out, 1);
+		writeVarInt(out, 9);
+		CRC32 checksum = new CRC32();
+		checksum.update(bytes.toByteArray());
+		out.writeInt((int) checksum.getValue());
+		Files.write(file.toPath(), bytes.toByteArray());
+
+		WordRepository loaded = RepositoryFile.load(file);
+		assertEquals(Arrays.asList("apple second.txt[5]", "moon first.txt[3, 200] second.txt[9]",
+				"by frequency: moon apple"), describe(loaded));
+		assertFalse("Failed to restore the plain flag.", loaded.getTree().isBalanced());
+
+		RepositoryFile.save(loaded, file);
+		assertEquals("Failed to upgrade to the current version.", describe(loaded),
+				describe(RepositoryFile.load(file)));
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(out, bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,282 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.FileTable;
+import appDomain.WordInfo;
+import appDomain.WordRepository;
+import implementations.BSTree;
+import serialization.MappedIndex;
+import serialization.RepositoryFile;
+import serialization.RepositoryLog;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the append-only repository log: appending, replaying, recovering
+ * from a torn batch and compacting into a new snapshot.
+ */
+public class RepositoryLogTest {
+	// Attributes
+	private File directory;
+	private File log;
+	private FileTable files;
+
+	/**
+	 * Creates an empty working directory and file table before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		directory = File.createTempFile("repository", "");
+		directory.delete();
+		directory.mkdir();
+		log = new File(directory, "repository.log");
+		files = new FileTable();
+	}
+
+	/**
+	 * Deletes the working directory after each test.
+	 */
+	@After
+	public void tearDown() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Builds the words read from one file, given as alternating words and line
+	 * numbers.
+	 */
+	private BSTree<WordInfo> read(String fileName, Object... wordsAndLines) {
+		int fileId = files.intern(fileName);
+		BSTree<WordInfo> tree = new BSTree<>(true);
+		for (int i = 0; i < wordsAndLines.length; i += 2) {
+			WordInfo info = tree.addIfAbsent(new WordInfo((String) wordsAndLines[i])).getElement();
+			info.addEntries(fileId, (Integer) wordsAndLines[i + 1]);
+		}
+		return tree;
+	}
+
+	/**
+	 * Describes every word of a repository with the files and lines it occurs on.
+	 */
+	private static List<String> describe(WordRepository repository) {
+		List<String> lines = new ArrayList<>();
+		Iterator<WordInfo> iterator = repository.getTree().inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			StringBuilder line = new StringBuilder(info.getWord());
+			for (int i = 0; i < info.getFileCount(); i++) {
+				line.append(' ').append(repository.getFiles().nameOf(info.getFileId(i)))
+						.append(Arrays.toString(info.getPostings(i).toArray()));
+			}
+			lines.add(line.toString());
+		}
+		return lines;
+	}
+
+	private static WordRepository emptyRepository() {
+		return new WordRepository(new BSTree<>(true), new FileTable());
+	}
+
+	/**
+	 * Appends the first batch, reading a.txt, and returns the length of the log.
+	 */
+	private long appendFirstBatch() throws IOException {
+		RepositoryLog.append(log, Collections.singletonList("a.txt"), read("a.txt", "apple", 1, "moon", 2, "apple", 3),
+				files);
+		return log.length();
+	}
+
+	/**
+	 * Appends the second batch, reading a.txt again with new content together
+	 * with b.txt.
+	 */
+	private void appendSecondBatch() throws IOException {
+		BSTree<WordInfo> added = read("a.txt", "moon", 5, "zebra", 6);
+		BSTree<WordInfo> second = read("b.txt", "apple", 200, "zebra", 1);
+		Iterator<WordInfo> iterator = second.inorderIterator();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			WordInfo stored = added.addIfAbsent(info).getElement();
+			if (stored != info) {
+				stored.merge(info);
+			}
+		}
+		RepositoryLog.append(log, Arrays.asList("a.txt", "b.txt"), added, files);
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryLog#append(File, java.util.Collection, BSTree, FileTable)}
+	 * and {@link serialization.RepositoryLog#replay(File, WordRepository)}
+	 * to restore two batches over an empty repository, the second one replacing
+	 * the entries the first one read from the same file.
+	 * @throws IOException
+	 */
+	@Test
+	public void testAppendAndReplay() throws IOException {
+		appendFirstBatch();
+		appendSecondBatch();
+		WordRepository repository = emptyRepository();
+		RepositoryLog.replay(log, repository);
+		assertEquals(Arrays.asList("apple b.txt[200]", "moon a.txt[5]", "zebra a.txt[6] b.txt[1]"),
+				describe(repository));
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryLog#replay(File, WordRepository)}
+	 * to stop at the last complete batch of a log cut in the middle of a batch,
+	 * and to cut the torn batch off the log.
+	 * @throws IOException
+	 */
+	@Test
+	public void testReplayTornTail() throws IOException {
+		long firstBatchEnd = appendFirstBatch();
+		appendSecondBatch();
+		try (RandomAccessFile file = new RandomAccessFile(log, "rw")) {
+			file.setLength(firstBatchEnd + (file.length() - firstBatchEnd) / 2);
+		}
+
+		WordRepository repository = emptyRepository();
+		RepositoryLog.replay(log, repository);
+		assertEquals(Arrays.asList("apple a.txt[1, 3]", "moon a.txt[2]"), describe(repository));
+		assertEquals("Failed to truncate the torn batch.", firstBatchEnd, log.length());
+
+		appendSecondBatch();
+		repository = emptyRepository();
+		RepositoryLog.replay(log, repository);
+		assertEquals("Failed to append after the truncated log.",
+				Arrays.asList("apple b.txt[200]", "moon a.txt[5]", "zebra a.txt[6] b.txt[1]"), describe(repository));
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryLog#replay(File, WordRepository)}
+	 * to give the same repository when the log is replayed twice, as after a
+	 * crash between writing a snapshot and deleting the log.
+	 * @throws IOException
+	 */
+	@Test
+	public void testReplayTwice() throws IOException {
+		appendFirstBatch();
+		appendSecondBatch();
+		WordRepository repository = emptyRepository();
+		RepositoryLog.replay(log, repository);
+		List<String> once = describe(repository);
+		RepositoryLog.replay(log, repository);
+		assertEquals("Replaying the log again changed the repository.", once, describe(repository));
+		assertEquals("Failed to keep the file table.", 2, repository.getFiles().size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryLog#needsCompaction(File, File)} and
+	 * {@link serialization.RepositoryLog#compact(File, WordRepository, File, File)}
+	 * to fold a log that outgrew its snapshot into a new snapshot and index, and
+	 * remove the log.
+	 * @throws IOException
+	 */
+	@Test
+	public void testCompaction() throws IOException {
+		File snapshot = new File(directory, "repository.dat");
+		File index = new File(directory, "repository.idx");
+		RepositoryFile.save(emptyRepository(), snapshot);
+		appendFirstBatch();
+		appendSecondBatch();
+		assertTrue("Failed to detect a log larger than its snapshot.", RepositoryLog.needsCompaction(log, snapshot));
+
+		WordRepository repository = RepositoryFile.load(snapshot);
+		RepositoryLog.replay(log, repository);
+		List<String> expected = describe(repository);
+		RepositoryLog.compact(log, repository, snapshot, index);
+
+		assertFalse("Failed to remove the log.", log.exists());
+		assertFalse(RepositoryLog.needsCompaction(log, snapshot));
+		assertEquals("Failed to rewrite the snapshot.", expected, describe(RepositoryFile.load(snapshot)));
+		try (MappedIndex mapped = MappedIndex.open(index)) {
+			assertEquals("Failed to rewrite the index.", 3, mapped.size());
+			assertEquals(2, mapped.lookup("zebra").getFileCount());
+		}
+	}
+
+	/**
+	 * Test method for
+	 * {@link serialization.RepositoryLog#byFrequency(File, MappedIndex)}
+	 * to list the words of an index with a log of batches that re-read, add and
+	 * drop files in the same order as the repository with the log replayed.
+	 * @throws IOException
+	 */
+	@Test
+	public void testByFrequency() throws IOException {
+		Random random = new Random(5);
+		WordRepository repository = new WordRepository(new BSTree<>(true), files);
+		for (int i = 0; i < 5; i++) {
+			repository.merge(randomRead(random, "f" + i));
+		}
+		File index = new File(directory, "repository.idx");
+		MappedIndex.write(repository, index);
+
+		Iterator<WordInfo> iterator;
+		for (int batch = 0; batch < 4; batch++) {
+			List<String> batchFiles = Arrays.asList("f" + batch, "g" + batch);
+			BSTree<WordInfo> added = randomRead(random, batchFiles.get(0));
+			iterator = randomRead(random, batchFiles.get(1)).inorderIterator();
+			while (iterator.hasNext()) {
+				WordInfo info = iterator.next();
+				WordInfo stored = added.addIfAbsent(info).getElement();
+				if (stored != info) {
+					stored.merge(info);
+				}
+			}
+			RepositoryLog.append(log, batchFiles, added, files);
+		}
+		RepositoryLog.append(log, Collections.singletonList("f4"), new BSTree<>(true), files);
+		RepositoryLog.replay(log, repository);
+
+		List<String> expected = new ArrayList<>();
+		iterator = repository.byFrequency();
+		while (iterator.hasNext()) {
+			WordInfo info = iterator.next();
+			expected.add(info.getWord() + " " + info.getTotal());
+		}
+		List<String> actual = new ArrayList<>();
+		try (MappedIndex mapped = MappedIndex.open(index)) {
+			iterator = RepositoryLog.byFrequency(log, mapped);
+			while (iterator.hasNext()) {
+				WordInfo info = iterator.next();
+				actual.add(info.getWord() + " " + info.getTotal());
+			}
+		}
+		assertEquals("Failed to merge the log into the frequency order.", expected, actual);
+	}
+
+	/**
+	 * Builds the words read from one file, with words and lines drawn at random.
+	 */
+	private BSTree<WordInfo> randomRead(Random random, String fileName) {
+		Object[] wordsAndLines = new Object[2 * (50 + random.nextInt(200))];
+		for (int i = 0; i < wordsAndLines.length; i += 2) {
+			wordsAndLines[i] = "w" + random.nextInt(150);
+			wordsAndLines[i + 1] = 1 + random.nextInt(1000);
+		}
+		return read(fileName, wordsAndLines);
+	}
+}
@@ -0,0 +1,202 @@
+package unitTests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import appDomain.WordInfo;
+import implementations.OffHeapBSTree;
+import implementations.ShardedBSTree;
+import serialization.WordInfoCodec;
+import utilities.Iterator;
+
+/**
+ * Class Description:
+ * Tests of the sharded, thread-safe index built from BSTrees.
+ */
+public class ShardedBSTreeTest {
+	// Attributes
+	private ShardedBSTree<Integer> index;
+
+	/**
+	 * Initializes a new index split at 100, 200 and 300 before each test.
+	 * @throws java.lang.Exception
+	 */
+	@Before
+	public void setUp() throws Exception {
+		index = new ShardedBSTree<Integer>(new Integer[] { 100, 200, 300 }, true);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#shardOf(java.lang.Comparable)}
+	 * to route elements to the shard of their range.
+	 */
+	@Test
+	public void testShardOf() {
+		assertEquals("Failed to count the shards.", 4, index.shardCount());
+		assertEquals(0, index.shardOf(-5));
+		assertEquals(0, index.shardOf(99));
+		assertEquals(1, index.shardOf(100));
+		assertEquals(2, index.shardOf(250));
+		assertEquals(3, index.shardOf(300));
+		assertEquals(3, index.shardOf(1000));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#ShardedBSTree(Comparable[], boolean)}
+	 * to reject split points out of order.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructorForIllegalArgumentException() {
+		new ShardedBSTree<Integer>(new Integer[] { 100, 100 }, false);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#add(java.lang.Comparable)}
+	 * to throw NullPointerException for a null value.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testAddForNullPointerException() {
+		index.add(null);
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#add(java.lang.Comparable)} and
+	 * {@link implementations.ShardedBSTree#contains(java.lang.Comparable)}
+	 * to add elements across shards and reject duplicates.
+	 */
+	@Test
+	public void testAddContains() {
+		assertTrue(index.add(350));
+		assertTrue(index.add(50));
+		assertTrue(index.add(150));
+		assertFalse("Failed to reject a duplicate.", index.add(150));
+		assertEquals("Failed to update size.", 3, index.size());
+		assertTrue(index.contains(50));
+		assertTrue(index.contains(350));
+		assertFalse(index.contains(250));
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#addIfAbsent(Comparable, java.util.function.Consumer)}
+	 * to return the stored element and run the action on it.
+	 */
+	@Test
+	public void testAddIfAbsent() {
+		Integer first = new Integer(1234);
+		Integer second = new Integer(1234);
+		List<Integer> seen = new ArrayList<>();
+		assertSame("Failed to add the element.", first, index.addIfAbsent(first, seen::add));
+		assertSame("Failed to return the stored element.", first, index.addIfAbsent(second, seen::add));
+		assertEquals("Failed to run the action.", 2, seen.size());
+		assertSame("Failed to run the action on the stored element.", first, seen.get(1));
+		assertEquals("Failed to update size.", 1, index.size());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#addIfAbsent(Comparable, java.util.function.Consumer)}
+	 * to keep the updates of the action when the shards are OffHeapBSTrees, whose
+	 * nodes decode a copy of their element.
+	 */
+	@Test
+	public void testAddIfAbsent_OffHeapShards() {
+		ShardedBSTree<WordInfo> words = new ShardedBSTree<WordInfo>(new WordInfo[] { new WordInfo("m") },
+				() -> new OffHeapBSTree<WordInfo>(WordInfoCodec.INSTANCE));
+		for (int line = 1; line <= 3; line++) {
+			int current = line;
+			words.addIfAbsent(new WordInfo("apple"), info -> info.addEntries(0, current));
+			words.addIfAbsent(new WordInfo("zebra"), info -> info.addEntries(current, current));
+		}
+		Iterator<WordInfo> it = words.inorderIterator();
+		WordInfo apple = it.next();
+		assertEquals("Failed to keep the updates.", "[1, 2, 3]", Arrays.toString(apple.getPostings(0).toArray()));
+		WordInfo zebra = it.next();
+		assertEquals("Failed to keep the updates.", 3, zebra.getFileCount());
+		assertEquals(3, zebra.getTotal());
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#inorderIterator()}
+	 * to visit every element in ascending order across shards, skipping empty
+	 * shards.
+	 */
+	@Test
+	public void testInorderIterator() {
+		int[] values = { 320, 5, 399, 180, 101, 0, 299, 42 };
+		for (int value : values) {
+			index.add(value);
+		}
+		int[] expected = { 0, 5, 42, 101, 180, 299, 320, 399 };
+		Iterator<Integer> it = index.inorderIterator();
+		for (int value : expected) {
+			assertTrue(it.hasNext());
+			assertEquals("In-order iterator is out of order.", value, (int) it.next());
+		}
+		assertFalse(it.hasNext());
+	}
+
+	/**
+	 * Test method for
+	 * {@link implementations.ShardedBSTree#inorderIterator()}
+	 * to throw NoSuchElementException when exhausted.
+	 */
+	@Test(expected = NoSuchElementException.class)
+	public void testInorderIteratorForNoSuchElementException() {
+		index.inorderIterator().next();
+	}
+
+	/**
+	 * Test method for writers adding to the index from several threads: every
+	 * element must be added exactly once and the actions must never run
+	 * concurrently on one element.
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void testConcurrentWriters() throws InterruptedException {
+		int threads = 4;
+		int count = 400;
+		AtomicInteger added = new AtomicInteger();
+		int[] hits = new int[count];
+		List<Thread> writers = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			Thread writer = new Thread(() -> {
+				for (int i = 0; i < count; i++) {
+					if (index.add(i)) {
+						added.incrementAndGet();
+					}
+					index.addIfAbsent(i, value -> hits[value]++);
+				}
+			});
+			writers.add(writer);
+			writer.start();
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+
+		assertEquals("Failed to add every element once.", count, added.get());
+		assertEquals("Failed to update size.", count, index.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals("Lost an update.", threads, hits[i]);
+		}
+		Iterator<Integer> it = index.inorderIterator();
+		for (int i = 0; i < count; i++) {
+			assertEquals("In-order iterator is out of order.", i, (int) it.next());
+		}
+	}
+}